@@ -6,6 +6,7 @@ import java.math.BigInteger;
 import java.util.List;
 import java.util.Map;
 
+import org.apache.commons.lang3.SerializationUtils;
 import org.apache.spark.api.java.JavaRDD;
 import org.apache.spark.ml.Estimator;
 import org.apache.spark.ml.Transformer;
@@ -398,6 +399,24 @@ public interface Item extends Serializable, KryoSerializable {
         throw new UnsupportedOperationException("Operation not defined for type " + this.getDynamicType());
     }
 
+    /**
+     * Tests whether the item is an integer whose value fits in a long and can be obtained with getLongValue().
+     *
+     * @return true if it is such an integer, false otherwise.
+     */
+    default boolean hasLongValue() {
+        return false;
+    }
+
+    /**
+     * Returns the value of the item as a long, if hasLongValue() is true.
+     *
+     * @return the integer value as a long.
+     */
+    default long getLongValue() {
+        throw new UnsupportedOperationException("Operation not defined for type " + this.getDynamicType());
+    }
+
     /**
      * Returns the integer value of the item as a bit integer, if it is an integer.
      *
@@ -703,6 +722,24 @@ public interface Item extends Serializable, KryoSerializable {
     default void setMutabilityLevel(int mutabilityLevel) {
     }
 
+    /**
+     * Returns a copy of the item for the copy clause of a transform expression, which can be updated at the given
+     * mutability level without affecting this item. Atomic items are immutable and are not copied. Objects and
+     * arrays override this with a copy that shares their values until they are accessed; other items are deep
+     * copied.
+     *
+     * @param mutabilityLevel the mutability level of the copy.
+     * @return the copy.
+     */
+    default Item copyForUpdates(int mutabilityLevel) {
+        if (isAtomic()) {
+            return this;
+        }
+        Item copy = (Item) SerializationUtils.clone(this);
+        copy.setMutabilityLevel(mutabilityLevel);
+        return copy;
+    }
+
     /**
      * Tests for logical equality. The semantics are that of the eq operator.
      *
@@ -3,13 +3,15 @@ package org.rumbledb.api;
 import java.net.URI;
 import java.io.IOException;
 
+import org.rumbledb.compiler.CompiledQueryCache;
 import org.rumbledb.compiler.VisitorHelpers;
 import org.rumbledb.config.RumbleRuntimeConfiguration;
 import org.rumbledb.context.DynamicContext;
 import org.rumbledb.expressions.module.MainModule;
 import org.rumbledb.runtime.RuntimeIterator;
 import org.rumbledb.runtime.update.PendingUpdateList;
-import sparksoniq.spark.SparkSessionManager;
+
+import sparksoniq.spark.QueryResources;
 
 /**
  * The entry point for Java applications that want to execute JSONiq queries with Rumble.
@@ -24,15 +26,37 @@ import sparksoniq.spark.SparkSessionManager;
 public class Rumble {
 
     private RumbleRuntimeConfiguration configuration;
+    private CompiledQueryCache queryCache;
 
     /**
      * Creates a new Rumble instance. This does NOT initialize Spark. You need to do so before instantiating Rumble.
+     * Queries run with runQuery(String) are compiled once and cached, up to the --query-cache-size setting.
      *
      * @param configuration a RumbleRuntimeConfiguration object containing the configuration.
      */
     public Rumble(RumbleRuntimeConfiguration configuration) {
+        this(configuration, new CompiledQueryCache(configuration.getQueryCacheSize()));
+    }
+
+    /**
+     * Creates a new Rumble instance that shares a cache of compiled queries with other instances. This does NOT
+     * initialize Spark. You need to do so before instantiating Rumble.
+     *
+     * @param configuration a RumbleRuntimeConfiguration object containing the configuration.
+     * @param queryCache the cache of compiled queries, or null not to cache them.
+     */
+    public Rumble(RumbleRuntimeConfiguration configuration, CompiledQueryCache queryCache) {
         this.configuration = configuration;
-        SparkSessionManager.COLLECT_ITEM_LIMIT = this.configuration.getResultSizeCap();
+        this.queryCache = queryCache;
+    }
+
+    /**
+     * Gets the cache of compiled queries, for example to read its hit and miss counts.
+     *
+     * @return the cache, or null if queries are not cached.
+     */
+    public CompiledQueryCache getQueryCache() {
+        return this.queryCache;
     }
 
     /**
@@ -42,15 +66,30 @@ public class Rumble {
      * @return the resulting sequence as an ItemIterator.
      */
     public SequenceOfItems runQuery(String query) {
-        MainModule mainModule = VisitorHelpers.parseMainModuleFromQuery(
-            query,
-            this.configuration
-        );
-        DynamicContext dynamicContext = VisitorHelpers.createDynamicContext(mainModule, this.configuration);
-        RuntimeIterator iterator = VisitorHelpers.generateRuntimeIterator(
-            mainModule,
-            this.configuration
-        );
+        CompiledQueryCache.CompiledQuery compiledQuery = this.queryCache == null
+            ? null
+            : this.queryCache.get(query, this.configuration);
+        QueryResources resources = new QueryResources();
+        resources.bind();
+        DynamicContext dynamicContext;
+        RuntimeIterator iterator;
+        if (compiledQuery != null) {
+            dynamicContext = compiledQuery.createDynamicContext(this.configuration);
+            iterator = compiledQuery.copyIterator();
+        } else {
+            MainModule mainModule = VisitorHelpers.parseMainModuleFromQuery(
+                query,
+                this.configuration
+            );
+            dynamicContext = VisitorHelpers.createDynamicContext(mainModule, this.configuration);
+            iterator = VisitorHelpers.generateRuntimeIterator(
+                mainModule,
+                this.configuration
+            );
+            if (this.queryCache != null) {
+                this.queryCache.put(query, this.configuration, mainModule, iterator);
+            }
+        }
 
         if (iterator.isUpdating()) {
             PendingUpdateList pul = iterator.getPendingUpdateList(dynamicContext);
@@ -59,7 +98,7 @@ public class Rumble {
 
         System.err.println("final iterator is: " + iterator.isUpdating());
 
-        return new SequenceOfItems(iterator, dynamicContext, this.configuration);
+        return new SequenceOfItems(iterator, dynamicContext, this.configuration, resources);
     }
 
     /**
@@ -74,6 +113,8 @@ public class Rumble {
             location,
             this.configuration
         );
+        QueryResources resources = new QueryResources();
+        resources.bind();
         DynamicContext dynamicContext = VisitorHelpers.createDynamicContext(mainModule, this.configuration);
         RuntimeIterator iterator = VisitorHelpers.generateRuntimeIterator(
             mainModule,
@@ -87,7 +128,7 @@ public class Rumble {
 
         System.err.println("final iterator is: " + iterator.isUpdating());
 
-        return new SequenceOfItems(iterator, dynamicContext, this.configuration);
+        return new SequenceOfItems(iterator, dynamicContext, this.configuration, resources);
     }
 
     /**
@@ -1,6 +1,8 @@
 package org.rumbledb.api;
 
+import java.util.Iterator;
 import java.util.List;
+import java.util.NoSuchElementException;
 
 import org.apache.spark.api.java.JavaRDD;
 import org.apache.spark.sql.Dataset;
@@ -9,6 +11,7 @@ import org.rumbledb.config.RumbleRuntimeConfiguration;
 import org.rumbledb.context.DynamicContext;
 import org.rumbledb.runtime.RuntimeIterator;
 
+import sparksoniq.spark.QueryResources;
 import sparksoniq.spark.SparkSessionManager;
 
 /**
@@ -34,23 +37,44 @@ public class SequenceOfItems {
     private RuntimeIterator iterator;
     private DynamicContext dynamicContext;
     private RumbleRuntimeConfiguration configuration;
+    private QueryResources resources;
     private boolean isOpen;
 
     public SequenceOfItems(
             RuntimeIterator iterator,
             DynamicContext dynamicContext,
             RumbleRuntimeConfiguration configuration
+    ) {
+        this(iterator, dynamicContext, configuration, new QueryResources());
+    }
+
+    /**
+     * Creates a sequence whose evaluation, including that of its global variables, attributes the Spark resources
+     * it creates to the given ones.
+     *
+     * @param iterator the runtime iterator of the query.
+     * @param dynamicContext the dynamic context of the query.
+     * @param configuration the configuration.
+     * @param resources the resources of the query.
+     */
+    public SequenceOfItems(
+            RuntimeIterator iterator,
+            DynamicContext dynamicContext,
+            RumbleRuntimeConfiguration configuration,
+            QueryResources resources
     ) {
         this.iterator = iterator;
         this.isOpen = false;
         this.dynamicContext = dynamicContext;
         this.configuration = configuration;
+        this.resources = resources;
     }
 
     /**
      * Opens the iterator.
      */
     public void open() {
+        this.resources.bind();
         this.iterator.open(this.dynamicContext);
         this.isOpen = true;
     }
@@ -65,11 +89,40 @@ public class SequenceOfItems {
     }
 
     /**
-     * Closes the iterator.
+     * Closes the iterator, and releases the temporary views and persisted datasets created in the Spark session
+     * while evaluating the sequence.
      */
     public void close() {
         this.iterator.close();
         this.isOpen = false;
+        releaseResources();
+    }
+
+    /**
+     * Releases the temporary views and persisted datasets created in the Spark session, and the temporary files
+     * created on the driver, while evaluating the sequence. This should be called once the results are no longer
+     * needed, also if they were obtained as an RDD or a data frame, which must not be used afterwards.
+     */
+    public void releaseResources() {
+        this.resources.release();
+    }
+
+    /**
+     * Gets the number of bytes that the evaluation of the sequence spilled to temporary files so far.
+     *
+     * @return the number of bytes.
+     */
+    public long getSpilledBytes() {
+        return this.resources.getSpilledBytes();
+    }
+
+    /**
+     * Gets the time that the evaluation of the sequence spent writing and reading temporary files so far.
+     *
+     * @return the time in milliseconds.
+     */
+    public long getSpillTime() {
+        return this.resources.getSpillTime();
     }
 
     /**
@@ -78,6 +131,7 @@ public class SequenceOfItems {
      * @return true if there are more items, false otherwise.
      */
     public boolean hasNext() {
+        this.resources.bind();
         return this.iterator.hasNext();
     }
 
@@ -88,6 +142,7 @@ public class SequenceOfItems {
      * @return the next item.
      */
     public Item next() {
+        this.resources.bind();
         return this.iterator.next();
     }
 
@@ -119,6 +174,7 @@ public class SequenceOfItems {
         if (this.isOpen) {
             throw new RuntimeException("Cannot obtain an RDD if the iterator is open.");
         }
+        this.resources.bind();
         return this.iterator.getRDD(this.dynamicContext);
     }
 
@@ -132,9 +188,46 @@ public class SequenceOfItems {
         if (this.isOpen) {
             throw new RuntimeException("Cannot obtain an RDD if the iterator is open.");
         }
+        this.resources.bind();
         return this.iterator.getDataFrame(this.dynamicContext).getDataFrame();
     }
 
+    /**
+     * Returns an iterator over the items that computes them as they are consumed, rather than materializing the
+     * sequence: a sequence available as an RDD is fetched one partition at a time, and any other sequence is
+     * iterated locally (which opens this sequence, and closes it once all items are consumed). Unlike next(), the
+     * number of items is not capped.
+     *
+     * @return an iterator over the items.
+     */
+    public Iterator<Item> getLocalIterator() {
+        if (this.availableAsRDD()) {
+            return this.getAsRDD().toLocalIterator();
+        }
+        this.open();
+        return new Iterator<Item>() {
+            @Override
+            public boolean hasNext() {
+                if (!SequenceOfItems.this.isOpen) {
+                    return false;
+                }
+                if (SequenceOfItems.this.hasNext()) {
+                    return true;
+                }
+                SequenceOfItems.this.close();
+                return false;
+            }
+
+            @Override
+            public Item next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return SequenceOfItems.this.next();
+            }
+        };
+    }
+
     /*
      * Populates a list of items with the output.
      *
@@ -142,6 +235,7 @@ public class SequenceOfItems {
      */
     public long populateList(List<Item> resultList) {
         resultList.clear();
+        this.resources.bind();
         this.iterator.open(this.dynamicContext);
         Item result = null;
         if (this.iterator.hasNext()) {
@@ -176,8 +270,9 @@ public class SequenceOfItems {
 
     public long populateListWithWarningOnlyIfCapReached(List<Item> resultList) {
         if (this.availableAsRDD()) {
+            this.resources.bind();
             JavaRDD<Item> rdd = this.iterator.getRDD(this.dynamicContext);
-            return SparkSessionManager.collectRDDwithLimitWarningOnly(rdd, resultList);
+            return SparkSessionManager.collectRDDwithLimitWarningOnly(rdd, this.configuration, resultList);
         } else {
             return populateList(resultList);
         }
@@ -28,15 +28,21 @@ import org.apache.spark.sql.Row;
 import org.rumbledb.api.Item;
 import org.rumbledb.api.Rumble;
 import org.rumbledb.api.SequenceOfItems;
+import org.rumbledb.compiler.CompiledQueryCache;
 import org.rumbledb.config.RumbleRuntimeConfiguration;
 import org.rumbledb.exceptions.CliException;
 import org.rumbledb.exceptions.ExceptionMetadata;
 import org.rumbledb.optimizations.Profiler;
 import org.rumbledb.runtime.functions.input.FileSystemUtil;
+import org.rumbledb.serialization.Serializer;
 
 import sparksoniq.spark.SparkSessionManager;
+import java.io.BufferedWriter;
 import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
 import java.net.URI;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
@@ -46,10 +52,15 @@ import java.util.stream.Collectors;
 
 public class JsoniqQueryExecutor {
     private RumbleRuntimeConfiguration configuration;
+    private CompiledQueryCache queryCache;
 
     public JsoniqQueryExecutor(RumbleRuntimeConfiguration configuration) {
+        this(configuration, null);
+    }
+
+    public JsoniqQueryExecutor(RumbleRuntimeConfiguration configuration, CompiledQueryCache queryCache) {
         this.configuration = configuration;
-        SparkSessionManager.COLLECT_ITEM_LIMIT = configuration.getResultSizeCap();
+        this.queryCache = queryCache;
     }
 
     private void checkOutputFile(URI outputUri) throws IOException {
@@ -64,7 +75,27 @@ public class JsoniqQueryExecutor {
         }
     }
 
+    /**
+     * Runs the query of the configuration and outputs its results.
+     *
+     * @return the results, if they were output locally rather than written by Spark.
+     * @throws IOException if the query, output or log files cannot be accessed.
+     */
     public List<Item> runQuery() throws IOException {
+        return runQuery(true);
+    }
+
+    /**
+     * Runs the query of the configuration and outputs its results. Results that are output locally are serialized
+     * and written one at a time as they are computed, rather than collected first.
+     *
+     * @throws IOException if the query, output or log files cannot be accessed.
+     */
+    public void runQueryWithStreamingOutput() throws IOException {
+        runQuery(false);
+    }
+
+    private List<Item> runQuery(boolean materializeOutput) throws IOException {
         String queryFile = this.configuration.getQueryPath();
         URI queryUri = null;
         if (queryFile != null) {
@@ -101,7 +132,7 @@ public class JsoniqQueryExecutor {
         List<Item> outputList = null;
 
         long startTime = System.currentTimeMillis();
-        Rumble rumble = new Rumble(this.configuration);
+        Rumble rumble = new Rumble(this.configuration, this.queryCache);
         SequenceOfItems sequence = null;
         if (this.configuration.getQuery() != null) {
             if (this.configuration.getQueryPath() != null) {
@@ -114,75 +145,104 @@ public class JsoniqQueryExecutor {
             sequence = rumble.runQuery(queryUri);
         }
 
-        if (
-            !(this.configuration.getOutputFormat().equals("json")
-                || this.configuration.getOutputFormat().equals("tyson")
-                || this.configuration.getOutputFormat().equals("xml-json-hybrid")
-                || this.configuration.getOutputFormat().equals("yaml"))
-                &&
-                !sequence.availableAsDataFrame()
-        ) {
-            throw new CliException(
-                    "Rumble cannot output another format than json or tyson or xml-json-hybrid or yaml if the query does not output a structured collection. You can create a structured collection from a sequence of objects by calling the function annotate(<your query here> , <a schema here>)."
-            );
-        }
-
-        if (sequence.availableAsDataFrame() && outputPath != null) {
-            Dataset<Row> df = sequence.getAsDataFrame();
-            if (this.configuration.getNumberOfOutputPartitions() > 0) {
-                df = df.repartition(this.configuration.getNumberOfOutputPartitions());
-            }
-            DataFrameWriter<Row> writer = df.write();
-            Map<String, String> options = this.configuration.getOutputFormatOptions();
-            for (String key : options.keySet()) {
-                writer.option(key, options.get(key));
-                LogManager.getLogger("JsoniqQueryExecutor")
-                    .info("Writing with option " + key + " : " + options.get(key));
-            }
-            String format = this.configuration.getOutputFormat();
-            LogManager.getLogger("JsoniqQueryExecutor").info("Writing to format " + format);
-            switch (format) {
-                case "json":
-                    writer.json(outputPath);
-                    break;
-                case "csv":
-                    writer.csv(outputPath);
-                    break;
-                case "parquet":
-                    writer.parquet(outputPath);
-                    break;
-                default:
-                    writer.format(format).save(outputPath);
-            }
-        } else if (sequence.availableAsRDD() && outputPath != null) {
-            JavaRDD<Item> rdd = sequence.getAsRDD();
-            RumbleRuntimeConfiguration configuration = this.configuration;
-            JavaRDD<String> outputRDD = rdd.map(o -> configuration.getSerializer().serialize(o));
-            if (this.configuration.getNumberOfOutputPartitions() > 0) {
-                outputRDD = outputRDD.repartition(this.configuration.getNumberOfOutputPartitions());
+        try {
+            if (
+                !(this.configuration.getOutputFormat().equals("json")
+                    || this.configuration.getOutputFormat().equals("tyson")
+                    || this.configuration.getOutputFormat().equals("xml-json-hybrid")
+                    || this.configuration.getOutputFormat().equals("yaml"))
+                    &&
+                    !sequence.availableAsDataFrame()
+            ) {
+                throw new CliException(
+                        "Rumble cannot output another format than json or tyson or xml-json-hybrid or yaml if the query does not output a structured collection. You can create a structured collection from a sequence of objects by calling the function annotate(<your query here> , <a schema here>)."
+                );
             }
 
-            outputRDD.saveAsTextFile(outputPath);
-        } else {
-            outputList = new ArrayList<>();
-            long materializationCount = sequence.populateListWithWarningOnlyIfCapReached(outputList);
-            RumbleRuntimeConfiguration configuration = this.configuration;
-            List<String> lines = outputList.stream()
-                .map(x -> configuration.getSerializer().serialize(x))
-                .collect(Collectors.toList());
-            if (outputPath != null) {
-                FileSystemUtil.write(outputUri, lines, this.configuration, ExceptionMetadata.EMPTY_METADATA);
+            if (sequence.availableAsDataFrame() && outputPath != null) {
+                Dataset<Row> df = sequence.getAsDataFrame();
+                if (this.configuration.getNumberOfOutputPartitions() > 0) {
+                    df = df.repartition(this.configuration.getNumberOfOutputPartitions());
+                }
+                DataFrameWriter<Row> writer = df.write();
+                Map<String, String> options = this.configuration.getOutputFormatOptions();
+                for (String key : options.keySet()) {
+                    writer.option(key, options.get(key));
+                    LogManager.getLogger("JsoniqQueryExecutor")
+                        .info("Writing with option " + key + " : " + options.get(key));
+                }
+                String format = this.configuration.getOutputFormat();
+                LogManager.getLogger("JsoniqQueryExecutor").info("Writing to format " + format);
+                switch (format) {
+                    case "json":
+                        writer.json(outputPath);
+                        break;
+                    case "csv":
+                        writer.csv(outputPath);
+                        break;
+                    case "parquet":
+                        writer.parquet(outputPath);
+                        break;
+                    default:
+                        writer.format(format).save(outputPath);
+                }
+            } else if (sequence.availableAsRDD() && outputPath != null) {
+                JavaRDD<Item> rdd = sequence.getAsRDD();
+                RumbleRuntimeConfiguration configuration = this.configuration;
+                JavaRDD<String> outputRDD = rdd.map(o -> configuration.getSerializer().serialize(o));
+                if (this.configuration.getNumberOfOutputPartitions() > 0) {
+                    outputRDD = outputRDD.repartition(this.configuration.getNumberOfOutputPartitions());
+                }
+
+                outputRDD.saveAsTextFile(outputPath);
             } else {
-                System.out.println(String.join("\n", lines));
-            }
-            if (materializationCount != -1) {
-                issueMaterializationWarning(materializationCount);
-                if (outputPath == null) {
-                    System.err.println(
-                        "Did you really intend to collect results to the standard input? If you want the complete output, consider using --output-path to select a destination on any file system."
-                    );
+                long materializationCount;
+                if (materializeOutput) {
+                    outputList = new ArrayList<>();
+                    materializationCount = sequence.populateListWithWarningOnlyIfCapReached(outputList);
+                    RumbleRuntimeConfiguration configuration = this.configuration;
+                    List<String> lines = outputList.stream()
+                        .map(x -> configuration.getSerializer().serialize(x))
+                        .collect(Collectors.toList());
+                    if (outputPath != null) {
+                        FileSystemUtil.write(outputUri, lines, this.configuration, ExceptionMetadata.EMPTY_METADATA);
+                    } else {
+                        Writer writer = getStandardOutputWriter();
+                        writer.write(String.join("\n", lines));
+                        writer.write("\n");
+                        writer.flush();
+                    }
+                } else if (outputPath != null) {
+                    try (
+                        Writer writer = new BufferedWriter(
+                                new OutputStreamWriter(
+                                        FileSystemUtil.getDataOutputStream(
+                                            outputUri,
+                                            this.configuration,
+                                            ExceptionMetadata.EMPTY_METADATA
+                                        ),
+                                        StandardCharsets.UTF_8
+                                )
+                        )
+                    ) {
+                        materializationCount = writeOutput(sequence, writer);
+                    }
+                } else {
+                    Writer writer = getStandardOutputWriter();
+                    materializationCount = writeOutput(sequence, writer);
+                    writer.flush();
+                }
+                if (materializationCount != -1) {
+                    issueMaterializationWarning(materializationCount, this.configuration.getResultSizeCap());
+                    if (outputPath == null) {
+                        System.err.println(
+                            "Did you really intend to collect results to the standard input? If you want the complete output, consider using --output-path to select a destination on any file system."
+                        );
+                    }
                 }
             }
+        } finally {
+            sequence.releaseResources();
         }
 
         long endTime = System.currentTimeMillis();
@@ -190,6 +250,8 @@ public class JsoniqQueryExecutor {
         if (logPath != null) {
             String time = "[ExecTime] " + totalTime;
             time += "\n[ProfilerCount] " + Profiler.get();
+            time += "\n[SpillBytes] " + sequence.getSpilledBytes();
+            time += "\n[SpillTime] " + sequence.getSpillTime();
             FileSystemUtil.append(
                 logUri,
                 Collections.singletonList(time),
@@ -200,12 +262,61 @@ public class JsoniqQueryExecutor {
         return outputList;
     }
 
-    public static void issueMaterializationWarning(long materializationCount) {
+    /**
+     * Gets a writer to the standard output that encodes the results in UTF-8, like output files, rather than in the
+     * platform's default charset. It is not closed, so as not to close the standard output.
+     *
+     * @return the writer, which must be flushed.
+     */
+    private static Writer getStandardOutputWriter() {
+        return new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Serializes the items of a sequence to a writer, one per line, as they are computed, up to the
+     * materialization cap. Sequences available as RDDs are collected first (up to the cap), as with
+     * populateListWithWarningOnlyIfCapReached.
+     *
+     * @param sequence the sequence.
+     * @param writer the writer.
+     * @return -1 if all items were written, the number of items (or Long.MAX_VALUE if unknown) if the cap was reached.
+     * @throws IOException if writing fails.
+     */
+    private long writeOutput(SequenceOfItems sequence, Writer writer) throws IOException {
+        Serializer serializer = this.configuration.getSerializer();
+        if (sequence.availableAsRDD()) {
+            List<Item> items = new ArrayList<>();
+            long materializationCount = sequence.populateListWithWarningOnlyIfCapReached(items);
+            for (Item item : items) {
+                writer.write(serializer.serialize(item));
+                writer.write("\n");
+            }
+            return materializationCount;
+        }
+        int cap = this.configuration.getResultSizeCap();
+        long itemCount = 0;
+        sequence.open();
+        try {
+            while (sequence.hasNext()) {
+                if (cap > 0 && itemCount == cap) {
+                    return Long.MAX_VALUE;
+                }
+                writer.write(serializer.serialize(sequence.next()));
+                writer.write("\n");
+                ++itemCount;
+            }
+            return -1;
+        } finally {
+            sequence.close();
+        }
+    }
+
+    public static void issueMaterializationWarning(long materializationCount, int materializationCap) {
         if (materializationCount == Long.MAX_VALUE) {
             System.err.println(
                 "Warning! The output sequence contains "
                     + "too many items and its materialization was capped at "
-                    + SparkSessionManager.COLLECT_ITEM_LIMIT
+                    + materializationCap
                     + " items. This value can be configured to something higher with the --materialization-cap parameter (or its deprecated equivalent --result-size) at startup"
             );
         } else {
@@ -213,21 +324,53 @@ public class JsoniqQueryExecutor {
                 "Warning! The output sequence contains "
                     + materializationCount
                     + " items but its materialization was capped at "
-                    + SparkSessionManager.COLLECT_ITEM_LIMIT
+                    + materializationCap
                     + " items. This value can be configured to something higher with the --materialization-cap parameter (or its deprecated equivalent --result-size) at startup"
             );
         }
     }
 
+    /**
+     * Compiles the query of the configuration without evaluating it, so that its results can be consumed one at a
+     * time.
+     *
+     * @return the sequence of results, not yet evaluated.
+     * @throws IOException if the query file cannot be accessed.
+     */
+    public SequenceOfItems runQueryLazily() throws IOException {
+        URI queryUri = FileSystemUtil.resolveURIAgainstWorkingDirectory(
+            this.configuration.getQueryPath(),
+            this.configuration,
+            ExceptionMetadata.EMPTY_METADATA
+        );
+        Rumble rumble = new Rumble(this.configuration, this.queryCache);
+        return rumble.runQuery(queryUri);
+    }
+
+    /**
+     * Compiles a query without evaluating it, so that its results can be consumed one at a time.
+     *
+     * @param query the query.
+     * @return the sequence of results, not yet evaluated.
+     */
+    public SequenceOfItems runInteractiveLazily(String query) {
+        Rumble rumble = new Rumble(this.configuration, this.queryCache);
+        return rumble.runQuery(query);
+    }
+
     public long runInteractive(String query, List<Item> resultList) throws IOException {
-        Rumble rumble = new Rumble(this.configuration);
+        Rumble rumble = new Rumble(this.configuration, this.queryCache);
         SequenceOfItems sequence = rumble.runQuery(query);
-        if (!sequence.availableAsRDD()) {
-            return sequence.populateList(resultList);
+        try {
+            if (!sequence.availableAsRDD()) {
+                return sequence.populateList(resultList);
+            }
+            resultList.clear();
+            JavaRDD<Item> rdd = sequence.getAsRDD();
+            return SparkSessionManager.collectRDDwithLimitWarningOnly(rdd, this.configuration, resultList);
+        } finally {
+            sequence.releaseResources();
         }
-        resultList.clear();
-        JavaRDD<Item> rdd = sequence.getAsRDD();
-        return SparkSessionManager.collectRDDwithLimitWarningOnly(rdd, resultList);
     }
 
 }
@@ -176,7 +176,7 @@ public class Main {
 
     private static void runQueryExecutor(RumbleRuntimeConfiguration sparksoniqConf) throws IOException {
         JsoniqQueryExecutor translator = new JsoniqQueryExecutor(sparksoniqConf);
-        translator.runQuery();
+        translator.runQueryWithStreamingOutput();
     }
 
     private static void launchShell(RumbleRuntimeConfiguration sparksoniqConf) throws IOException {
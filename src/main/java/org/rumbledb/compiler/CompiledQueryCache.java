@@ -0,0 +1,201 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Authors: Stefan Irimescu, Can Berker Cikis
+ *
+ */
+
+package org.rumbledb.compiler;
+
+import org.rumbledb.config.RumbleRuntimeConfiguration;
+import org.rumbledb.context.DynamicContext;
+import org.rumbledb.exceptions.ExceptionMetadata;
+import org.rumbledb.expressions.module.MainModule;
+import org.rumbledb.runtime.RuntimeIterator;
+import org.rumbledb.runtime.functions.input.FileSystemUtil;
+
+import java.net.URI;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * A least-recently-used cache of compiled main modules and their runtime iterator trees, keyed by the query text and
+ * by the settings of the configuration that compilation depends on (but not by the values of external variables,
+ * which are bound when the dynamic context is created).
+ *
+ * Cached iterator trees are never executed: each execution gets its own deep copy, so that the cache can be shared
+ * by concurrent queries. A compiled query that depends on files (see MainModule.addFileDependency()), such as the
+ * library modules it imports, is dropped as soon as one of them has changed.
+ */
+public class CompiledQueryCache {
+
+    private final int capacity;
+    private final Map<String, CompiledQuery> queries;
+    private long hits;
+    private long misses;
+
+    /**
+     * Creates a cache.
+     *
+     * @param capacity the maximum number of compiled queries to keep.
+     */
+    public CompiledQueryCache(int capacity) {
+        this.capacity = capacity;
+        this.queries = new LinkedHashMap<String, CompiledQuery>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CompiledQuery> eldest) {
+                return size() > CompiledQueryCache.this.capacity;
+            }
+        };
+        this.hits = 0;
+        this.misses = 0;
+    }
+
+    /**
+     * Looks up a compiled query, and counts a hit or a miss.
+     *
+     * @param query the query text.
+     * @param configuration the configuration the query is executed with.
+     * @return the compiled query, or null if it is not in the cache.
+     */
+    public CompiledQuery get(String query, RumbleRuntimeConfiguration configuration) {
+        String key = getKey(query, configuration);
+        CompiledQuery result;
+        synchronized (this) {
+            result = this.queries.get(key);
+        }
+        // the files are checked outside of the lock, as this may require remote calls.
+        boolean isStale = result != null && !result.isUpToDate(configuration);
+        synchronized (this) {
+            if (isStale) {
+                this.queries.remove(key, result);
+                result = null;
+            }
+            if (result == null) {
+                ++this.misses;
+            } else {
+                ++this.hits;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Adds a compiled query. Updating queries are not cached, as their iterators do not keep their updating status
+     * through deep copies.
+     *
+     * @param query the query text.
+     * @param configuration the configuration the query was compiled with.
+     * @param mainModule the compiled main module.
+     * @param iterator the runtime iterator tree of the main module, which must not have been opened.
+     */
+    public void put(
+            String query,
+            RumbleRuntimeConfiguration configuration,
+            MainModule mainModule,
+            RuntimeIterator iterator
+    ) {
+        if (this.capacity <= 0 || iterator.isUpdating() || mainModule.getFileDependencies().containsValue(null)) {
+            // a query that depends on files whose versions are unknown (e.g., remote modules) is never reused.
+            return;
+        }
+        CompiledQuery compiledQuery = new CompiledQuery(mainModule, iterator.deepCopy());
+        synchronized (this) {
+            this.queries.put(getKey(query, configuration), compiledQuery);
+        }
+    }
+
+    private static String getKey(String query, RumbleRuntimeConfiguration configuration) {
+        return configuration.getCompilationSettings() + "\n" + query;
+    }
+
+    public int getCapacity() {
+        return this.capacity;
+    }
+
+    public synchronized int size() {
+        return this.queries.size();
+    }
+
+    public synchronized long getHits() {
+        return this.hits;
+    }
+
+    public synchronized long getMisses() {
+        return this.misses;
+    }
+
+    public synchronized void clear() {
+        this.queries.clear();
+    }
+
+    /**
+     * A main module together with its runtime iterator tree.
+     */
+    public static class CompiledQuery {
+
+        private final MainModule mainModule;
+        private final RuntimeIterator iterator;
+
+        private CompiledQuery(MainModule mainModule, RuntimeIterator iterator) {
+            this.mainModule = mainModule;
+            this.iterator = iterator;
+        }
+
+        public MainModule getMainModule() {
+            return this.mainModule;
+        }
+
+        private boolean isUpToDate(RumbleRuntimeConfiguration configuration) {
+            for (Map.Entry<URI, String> dependency : this.mainModule.getFileDependencies().entrySet()) {
+                String version = FileSystemUtil.getFileVersion(
+                    dependency.getKey(),
+                    configuration,
+                    ExceptionMetadata.EMPTY_METADATA
+                );
+                if (!Objects.equals(version, dependency.getValue())) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Creates the dynamic context of an execution, binding the external variables supplied in its configuration.
+         * Executions are serialized on the main module, as its sequence types are resolved in place.
+         *
+         * @param configuration the configuration of the execution.
+         * @return the dynamic context.
+         */
+        public DynamicContext createDynamicContext(RumbleRuntimeConfiguration configuration) {
+            synchronized (this.mainModule) {
+                return VisitorHelpers.createDynamicContext(this.mainModule, configuration);
+            }
+        }
+
+        /**
+         * Gets a copy of the runtime iterator tree for one execution.
+         *
+         * @return the copy.
+         */
+        public RuntimeIterator copyIterator() {
+            return this.iterator.deepCopy();
+        }
+    }
+}
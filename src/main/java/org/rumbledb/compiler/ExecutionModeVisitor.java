@@ -21,10 +21,14 @@
 package org.rumbledb.compiler;
 
 import java.math.BigInteger;
+import java.net.URI;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map.Entry;
 
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.io.compress.CompressionCodecFactory;
 import org.apache.log4j.LogManager;
 import org.rumbledb.config.RumbleRuntimeConfiguration;
 import org.rumbledb.context.BuiltinFunction;
@@ -35,6 +39,7 @@ import org.rumbledb.context.Name;
 import org.rumbledb.context.StaticContext;
 import org.rumbledb.context.BuiltinFunction.BuiltinFunctionExecutionMode;
 import org.rumbledb.exceptions.OurBadException;
+import org.rumbledb.exceptions.RumbleException;
 import org.rumbledb.exceptions.UnknownFunctionCallException;
 import org.rumbledb.expressions.AbstractNodeVisitor;
 import org.rumbledb.expressions.CommaExpression;
@@ -72,12 +77,14 @@ import org.rumbledb.expressions.postfix.ObjectLookupExpression;
 import org.rumbledb.expressions.primary.FunctionCallExpression;
 import org.rumbledb.expressions.primary.InlineFunctionExpression;
 import org.rumbledb.expressions.primary.IntegerLiteralExpression;
+import org.rumbledb.expressions.primary.StringLiteralExpression;
 import org.rumbledb.expressions.primary.VariableReferenceExpression;
 import org.rumbledb.expressions.typing.TreatExpression;
 import org.rumbledb.expressions.typing.ValidateTypeExpression;
 import org.rumbledb.expressions.update.CopyDeclaration;
 import org.rumbledb.expressions.update.TransformExpression;
 import org.rumbledb.items.ItemFactory;
+import org.rumbledb.runtime.functions.input.FileSystemUtil;
 import org.rumbledb.runtime.misc.RangeOperationIterator;
 import org.rumbledb.types.BuiltinTypesCatalogue;
 import org.rumbledb.types.ItemType;
@@ -89,8 +96,11 @@ import org.rumbledb.types.SequenceType.Arity;
  */
 public class ExecutionModeVisitor extends AbstractNodeVisitor<StaticContext> {
 
+    private static final Name JSON_FILE = new Name(Name.JN_NS, "jn", "json-file");
+
     private VisitorConfig visitorConfig;
     private RumbleRuntimeConfiguration configuration;
+    private MainModule mainModule;
 
     ExecutionModeVisitor(RumbleRuntimeConfiguration configuration) {
         this.visitorConfig = VisitorConfig.staticContextVisitorInitialPassConfig;
@@ -118,6 +128,7 @@ public class ExecutionModeVisitor extends AbstractNodeVisitor<StaticContext> {
 
     @Override
     public StaticContext visitMainModule(MainModule mainModule, StaticContext argument) {
+        this.mainModule = mainModule;
         visitDescendants(mainModule, mainModule.getStaticContext());
         mainModule.setHighestExecutionMode(ExecutionMode.LOCAL);
         return argument;
@@ -258,14 +269,16 @@ public class ExecutionModeVisitor extends AbstractNodeVisitor<StaticContext> {
             BuiltinFunction builtinFunction = BuiltinFunctionCatalogue.getBuiltinFunction(
                 expression.getFunctionIdentifier()
             );
-            expression.setHighestExecutionMode(
-                getBuiltInFunctionExecutionMode(
-                    builtinFunction,
-                    expression.getArguments().size() > 0
-                        ? expression.getArguments().get(0).getHighestExecutionMode(this.visitorConfig)
-                        : null
-                )
+            ExecutionMode mode = getBuiltInFunctionExecutionMode(
+                builtinFunction,
+                expression.getArguments().size() > 0
+                    ? expression.getArguments().get(0).getHighestExecutionMode(this.visitorConfig)
+                    : null
             );
+            if (mode.isRDDOrDataFrame() && isSmallJSONFile(expression)) {
+                mode = ExecutionMode.LOCAL;
+            }
+            expression.setHighestExecutionMode(mode);
         } else {
             if (
                 expression.getStaticContext()
@@ -295,6 +308,73 @@ public class ExecutionModeVisitor extends AbstractNodeVisitor<StaticContext> {
         return argument;
     }
 
+    private static boolean isJSONFileCall(FunctionCallExpression expression) {
+        // the name of an unprefixed call is in the default function namespace, so it is resolved as a builtin.
+        BuiltinFunction function = BuiltinFunctionCatalogue.getBuiltinFunction(expression.getFunctionIdentifier());
+        return function != null && function.getIdentifier().getName().equals(JSON_FILE);
+    }
+
+    /**
+     * Tells whether a call reads, with json-file(), a literal path to an uncompressed file that is smaller than the
+     * local execution threshold. Such a call runs locally, and so does, by propagation, the rest of the FLWOR
+     * expression iterating over it, which avoids the overhead of Spark jobs on small inputs.
+     *
+     * @param expression the function call.
+     * @return true if the call should run locally.
+     */
+    private boolean isSmallJSONFile(FunctionCallExpression expression) {
+        long threshold = this.configuration.getLocalExecutionThreshold();
+        if (
+            threshold <= 0
+                || !isJSONFileCall(expression)
+                || expression.isPartialApplication()
+                || expression.getArguments().size() != 1
+                || !(expression.getArguments().get(0) instanceof StringLiteralExpression)
+        ) {
+            return false;
+        }
+        String url = ((StringLiteralExpression) expression.getArguments().get(0)).getValue();
+        URI uri;
+        try {
+            uri = FileSystemUtil.resolveURI(
+                expression.getStaticContext().getStaticBaseURI(),
+                url,
+                expression.getMetadata()
+            );
+        } catch (RumbleException e) {
+            return false;
+        }
+        if (new CompressionCodecFactory(new Configuration()).getCodec(new Path(uri)) != null) {
+            return false;
+        }
+        long length = FileSystemUtil.getFileLength(uri, this.configuration, expression.getMetadata());
+        if (length < 0) {
+            return false;
+        }
+        // the decision is only valid for the current size of the file, so that a cached compiled query is not reused
+        // once the file has changed.
+        if (this.mainModule != null) {
+            this.mainModule.addFileDependency(
+                uri,
+                FileSystemUtil.getFileVersion(uri, this.configuration, expression.getMetadata())
+            );
+        }
+        if (length > threshold) {
+            return false;
+        }
+        LogManager.getLogger("ExecutionModeVisitor")
+            .info(
+                "json-file(\""
+                    + url
+                    + "\") reads "
+                    + length
+                    + " bytes, under the local execution threshold of "
+                    + threshold
+                    + " bytes: executing locally."
+            );
+        return true;
+    }
+
     private ExecutionMode getBuiltInFunctionExecutionMode(
             BuiltinFunction builtinFunction,
             ExecutionMode firstMode
@@ -0,0 +1,263 @@
+package org.rumbledb.compiler;
+
+import org.rumbledb.context.Name;
+import org.rumbledb.exceptions.ExceptionMetadata;
+import org.rumbledb.expressions.Expression;
+import org.rumbledb.expressions.Node;
+import org.rumbledb.expressions.control.TypeSwitchExpression;
+import org.rumbledb.expressions.flowr.Clause;
+import org.rumbledb.expressions.flowr.CountClause;
+import org.rumbledb.expressions.flowr.FlworExpression;
+import org.rumbledb.expressions.flowr.ForClause;
+import org.rumbledb.expressions.flowr.GroupByClause;
+import org.rumbledb.expressions.flowr.GroupByVariableDeclaration;
+import org.rumbledb.expressions.flowr.LetClause;
+import org.rumbledb.expressions.flowr.ReturnClause;
+import org.rumbledb.expressions.module.LibraryModule;
+import org.rumbledb.expressions.module.MainModule;
+import org.rumbledb.expressions.postfix.ObjectLookupExpression;
+import org.rumbledb.expressions.primary.FunctionCallExpression;
+import org.rumbledb.expressions.primary.InlineFunctionExpression;
+import org.rumbledb.expressions.primary.StringLiteralExpression;
+import org.rumbledb.expressions.primary.VariableReferenceExpression;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Rewrites calls such as sum($x.amount) that follow a group by clause, where $x is a non-grouping variable, into
+ * sum($aggregate), binding $aggregate to $x.amount with a let clause just before the group by clause.
+ *
+ * The aggregated variable then only has a sum, count, average, min or max dependency on the group, which the group by
+ * clause can compute with a native Spark SQL aggregate instead of collecting the values of each group.
+ *
+ * Since this only pays off for group by clauses that are executed as data frames, which is only known once execution
+ * modes are set, only the group by clauses found as such in a previous compilation of the module are rewritten.
+ */
+public class GroupByAggregateVisitor extends CloneVisitor {
+
+    private static final List<String> aggregateFunctions = Arrays.asList("count", "sum", "avg", "min", "max");
+
+    // the locations of the group by clauses that are executed as data frames.
+    private Set<String> dataFrameGroupByClauses;
+    // the variables whose paths can be aggregated in the clause being cloned, empty if none.
+    private Set<Name> aggregatableVariables;
+    // the let clauses to insert before the group by clause, by function and path.
+    private Map<String, LetClause> aggregateClauses;
+
+    public GroupByAggregateVisitor(Set<String> dataFrameGroupByClauses) {
+        this.dataFrameGroupByClauses = dataFrameGroupByClauses;
+        this.aggregatableVariables = Collections.emptySet();
+        this.aggregateClauses = null;
+    }
+
+    /**
+     * Finds the group by clauses of the main expression of a compiled module that are executed as data frames.
+     *
+     * @param mainModule the main module, with its execution modes set.
+     * @return the locations of these group by clauses, to pass to the visitor when compiling the module again.
+     */
+    public static Set<String> getDataFrameGroupByClauses(MainModule mainModule) {
+        Set<String> result = new HashSet<>();
+        addDataFrameGroupByClauses(mainModule.getExpression(), result);
+        return result;
+    }
+
+    private static void addDataFrameGroupByClauses(Node node, Set<String> result) {
+        if (node == null) {
+            return;
+        }
+        if (node instanceof GroupByClause && node.getHighestExecutionMode().isDataFrame()) {
+            result.add(getLocation(node.getMetadata()));
+        }
+        for (Node child : node.getChildren()) {
+            addDataFrameGroupByClauses(child, result);
+        }
+    }
+
+    private static String getLocation(ExceptionMetadata metadata) {
+        return metadata.getLocation() + ":" + metadata.getTokenLineNumber() + ":" + metadata.getTokenColumnNumber();
+    }
+
+    @Override
+    public Node visitMainModule(MainModule mainModule, Node argument) {
+        // functions are left as they are, as are their declarations in the prolog.
+        MainModule result = new MainModule(
+                mainModule.getProlog(),
+                (Expression) visit(mainModule.getExpression(), argument),
+                mainModule.getMetadata()
+        );
+        result.setStaticContext(mainModule.getStaticContext());
+        return result;
+    }
+
+    @Override
+    public Node visitLibraryModule(LibraryModule module, Node argument) {
+        return module;
+    }
+
+    @Override
+    public Node visitFlowrExpression(FlworExpression expression, Node argument) {
+        Set<Name> outerVariables = this.aggregatableVariables;
+        Map<String, LetClause> outerClauses = this.aggregateClauses;
+        this.aggregatableVariables = Collections.emptySet();
+        this.aggregateClauses = null;
+
+        List<Clause> clauses = new ArrayList<>();
+        Set<Name> boundVariables = new HashSet<>();
+        Clause clause = expression.getReturnClause().getFirstClause();
+        while (clause != null && !(clause instanceof GroupByClause)) {
+            clauses.add((Clause) this.visit(clause, argument));
+            boundVariables.addAll(getBoundVariables(clause));
+            clause = clause.getNextClause();
+        }
+        int groupByIndex = clauses.size();
+        if (clause != null && !this.dataFrameGroupByClauses.contains(getLocation(clause.getMetadata()))) {
+            // a group by clause that is not executed as a data frame collects the values of each group anyway.
+            clauses.add((Clause) this.visit(clause, argument));
+            clause = clause.getNextClause();
+        } else if (clause != null) {
+            clauses.add((Clause) this.visit(clause, argument));
+            boundVariables.removeAll(getBoundVariables(clause));
+            this.aggregatableVariables = boundVariables;
+            this.aggregateClauses = new LinkedHashMap<>();
+            clause = clause.getNextClause();
+        }
+        while (clause != null) {
+            if (clause instanceof GroupByClause) {
+                // the values of the variables are now sequences of groups.
+                this.aggregatableVariables = new HashSet<>();
+            }
+            clauses.add((Clause) this.visit(clause, argument));
+            this.aggregatableVariables.removeAll(getBoundVariables(clause));
+            clause = clause.getNextClause();
+        }
+        if (this.aggregateClauses != null) {
+            clauses.addAll(groupByIndex, this.aggregateClauses.values());
+        }
+
+        this.aggregatableVariables = outerVariables;
+        this.aggregateClauses = outerClauses;
+
+        for (int i = 1; i < clauses.size(); ++i) {
+            clauses.get(i - 1).chainWith(clauses.get(i));
+        }
+        Expression result = new FlworExpression(
+                (ReturnClause) clauses.get(clauses.size() - 1),
+                expression.getMetadata()
+        );
+        result.setStaticContext(expression.getStaticContext());
+        result.setStaticSequenceType(expression.getStaticSequenceType());
+        return result;
+    }
+
+    @Override
+    public Node visitFunctionCall(FunctionCallExpression expression, Node argument) {
+        if (this.aggregatableVariables.isEmpty() || !isAggregateFunction(expression)) {
+            return super.visitFunctionCall(expression, argument);
+        }
+        List<String> path = new ArrayList<>();
+        Name variableName = getAggregatedVariable(expression.getArguments().get(0), path);
+        if (variableName == null || path.isEmpty() || !this.aggregatableVariables.contains(variableName)) {
+            return super.visitFunctionCall(expression, argument);
+        }
+        String key = expression.getFunctionName().getLocalName() + "(" + variableName + "." + path + ")";
+        LetClause letClause = this.aggregateClauses.get(key);
+        if (letClause == null) {
+            Name aggregateName = Name.createVariableInNoNamespace(
+                String.format("aggregate%s", UUID.randomUUID().toString().replaceAll("-", ""))
+            );
+            letClause = new LetClause(
+                    aggregateName,
+                    null,
+                    (Expression) visit(expression.getArguments().get(0), argument),
+                    expression.getMetadata()
+            );
+            this.aggregateClauses.put(key, letClause);
+        }
+        return new FunctionCallExpression(
+                expression.getFunctionName(),
+                Collections.singletonList(
+                    new VariableReferenceExpression(letClause.getVariableName(), expression.getMetadata())
+                ),
+                expression.getMetadata()
+        );
+    }
+
+    @Override
+    public Node visitInlineFunctionExpr(InlineFunctionExpression expression, Node argument) {
+        // parameters may hide the variables of the FLWOR expression.
+        Set<Name> variables = this.aggregatableVariables;
+        this.aggregatableVariables = Collections.emptySet();
+        Node result = super.visitInlineFunctionExpr(expression, argument);
+        this.aggregatableVariables = variables;
+        return result;
+    }
+
+    @Override
+    public Node visitTypeSwitchExpression(TypeSwitchExpression expression, Node argument) {
+        // case variables may hide the variables of the FLWOR expression.
+        Set<Name> variables = this.aggregatableVariables;
+        this.aggregatableVariables = Collections.emptySet();
+        Node result = super.visitTypeSwitchExpression(expression, argument);
+        this.aggregatableVariables = variables;
+        return result;
+    }
+
+    private static boolean isAggregateFunction(FunctionCallExpression expression) {
+        Name name = expression.getFunctionName();
+        return expression.getArguments().size() == 1
+            && !expression.isPartialApplication()
+            && aggregateFunctions.contains(name.getLocalName())
+            && name.equals(Name.createVariableInDefaultFunctionNamespace(name.getLocalName()));
+    }
+
+    /**
+     * Finds the variable at the root of an expression like $x.a.b, listing the keys looked up in path.
+     *
+     * @param expression the argument of the aggregate function.
+     * @param path the list to which the keys are added, in the order in which they are looked up.
+     * @return the variable name, or null if the expression is not a chain of object lookups on a variable.
+     */
+    private static Name getAggregatedVariable(Expression expression, List<String> path) {
+        if (expression instanceof VariableReferenceExpression) {
+            return ((VariableReferenceExpression) expression).getVariableName();
+        }
+        if (!(expression instanceof ObjectLookupExpression)) {
+            return null;
+        }
+        ObjectLookupExpression lookup = (ObjectLookupExpression) expression;
+        if (!(lookup.getLookupExpression() instanceof StringLiteralExpression)) {
+            return null;
+        }
+        Name result = getAggregatedVariable(lookup.getMainExpression(), path);
+        path.add(((StringLiteralExpression) lookup.getLookupExpression()).getValue());
+        return result;
+    }
+
+    private static List<Name> getBoundVariables(Clause clause) {
+        List<Name> result = new ArrayList<>();
+        if (clause instanceof ForClause) {
+            result.add(((ForClause) clause).getVariableName());
+            if (((ForClause) clause).getPositionalVariableName() != null) {
+                result.add(((ForClause) clause).getPositionalVariableName());
+            }
+        } else if (clause instanceof LetClause) {
+            result.add(((LetClause) clause).getVariableName());
+        } else if (clause instanceof CountClause) {
+            result.add(((CountClause) clause).getCountVariableName());
+        } else if (clause instanceof GroupByClause) {
+            for (GroupByVariableDeclaration declaration : ((GroupByClause) clause).getGroupVariables()) {
+                result.add(declaration.getVariableName());
+            }
+        }
+        return result;
+    }
+}
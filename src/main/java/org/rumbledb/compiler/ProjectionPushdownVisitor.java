@@ -0,0 +1,121 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Authors: Stefan Irimescu, Can Berker Cikis
+ *
+ */
+
+package org.rumbledb.compiler;
+
+import org.rumbledb.context.BuiltinFunction;
+import org.rumbledb.context.BuiltinFunctionCatalogue;
+import org.rumbledb.context.Name;
+import org.rumbledb.expressions.AbstractNodeVisitor;
+import org.rumbledb.expressions.Expression;
+import org.rumbledb.expressions.Node;
+import org.rumbledb.expressions.flowr.Clause;
+import org.rumbledb.expressions.flowr.ForClause;
+import org.rumbledb.expressions.postfix.ObjectLookupExpression;
+import org.rumbledb.expressions.primary.FunctionCallExpression;
+import org.rumbledb.expressions.primary.StringLiteralExpression;
+import org.rumbledb.expressions.primary.VariableReferenceExpression;
+import org.rumbledb.items.parsing.JSONProjection;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * This visitor computes, for each for clause iterating over json-file(), which object paths of the for variable
+ * are used by the rest of the FLWOR expression, and attaches them to the json-file() call so that unused values are
+ * skipped while parsing.
+ *
+ * A use of the variable counts as a path only if it is the base of a chain of object lookups with literal keys.
+ * Any other use (for example passing the variable to a function, or a lookup with a dynamic key) requires the
+ * whole object. A variable that shadows the for variable is conservatively treated as the for variable itself,
+ * which can only add paths.
+ */
+public class ProjectionPushdownVisitor extends AbstractNodeVisitor<Void> {
+
+    private static final Name JSON_FILE = new Name(Name.JN_NS, "jn", "json-file");
+
+    ProjectionPushdownVisitor() {
+    }
+
+    private static boolean isJSONFileCall(FunctionCallExpression call) {
+        // the name of an unprefixed call is in the default function namespace, so it is resolved as a builtin.
+        BuiltinFunction function = BuiltinFunctionCatalogue.getBuiltinFunction(call.getFunctionIdentifier());
+        return function != null && function.getIdentifier().getName().equals(JSON_FILE);
+    }
+
+    @Override
+    public Void visitForClause(ForClause clause, Void argument) {
+        if (clause.getExpression() instanceof FunctionCallExpression) {
+            FunctionCallExpression call = (FunctionCallExpression) clause.getExpression();
+            if (isJSONFileCall(call) && !call.isPartialApplication()) {
+                JSONProjection projection = JSONProjection.empty();
+                Clause nextClause = clause.getNextClause();
+                while (nextClause != null && !projection.isTotal()) {
+                    for (Node child : nextClause.getChildren()) {
+                        if (child != nextClause.getPreviousClause()) {
+                            collectPaths(child, clause.getVariableName(), projection);
+                        }
+                    }
+                    nextClause = nextClause.getNextClause();
+                }
+                if (!projection.isTotal()) {
+                    call.setProjection(projection);
+                }
+            }
+        }
+        return visitDescendants(clause, argument);
+    }
+
+    private static void collectPaths(Node node, Name variableName, JSONProjection projection) {
+        if (projection.isTotal()) {
+            return;
+        }
+        if (node instanceof VariableReferenceExpression) {
+            if (((VariableReferenceExpression) node).getVariableName().equals(variableName)) {
+                projection.addPath(Collections.emptyList());
+            }
+            return;
+        }
+        if (node instanceof ObjectLookupExpression) {
+            List<String> path = new ArrayList<>();
+            Expression base = (Expression) node;
+            while (
+                base instanceof ObjectLookupExpression
+                    && ((ObjectLookupExpression) base).getLookupExpression() instanceof StringLiteralExpression
+            ) {
+                ObjectLookupExpression lookup = (ObjectLookupExpression) base;
+                path.add(0, ((StringLiteralExpression) lookup.getLookupExpression()).getValue());
+                base = lookup.getMainExpression();
+            }
+            if (
+                !path.isEmpty()
+                    && base instanceof VariableReferenceExpression
+                    && ((VariableReferenceExpression) base).getVariableName().equals(variableName)
+            ) {
+                projection.addPath(path);
+                return;
+            }
+        }
+        for (Node child : node.getChildren()) {
+            collectPaths(child, variableName, projection);
+        }
+    }
+}
@@ -115,6 +115,7 @@ import org.rumbledb.runtime.functions.DynamicFunctionCallIterator;
 import org.rumbledb.runtime.functions.FunctionRuntimeIterator;
 import org.rumbledb.runtime.functions.NamedFunctionRefRuntimeIterator;
 import org.rumbledb.runtime.functions.StaticUserDefinedFunctionCallIterator;
+import org.rumbledb.runtime.functions.input.JsonFileFunctionIterator;
 import org.rumbledb.runtime.logics.AndOperationIterator;
 import org.rumbledb.runtime.logics.NotOperationIterator;
 import org.rumbledb.runtime.logics.OrOperationIterator;
@@ -646,6 +647,9 @@ public class RuntimeIteratorVisitor extends AbstractNodeVisitor<RuntimeIterator>
                 expression.getHighestExecutionMode(this.visitorConfig),
                 iteratorMetadata
             );
+            if (expression.getProjection() != null && runtimeIterator instanceof JsonFileFunctionIterator) {
+                ((JsonFileFunctionIterator) runtimeIterator).setProjection(expression.getProjection());
+            }
         } else {
             runtimeIterator = new StaticUserDefinedFunctionCallIterator(
                     identifier,
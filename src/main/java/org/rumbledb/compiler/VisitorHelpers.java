@@ -5,7 +5,11 @@ import java.io.InputStream;
 import java.net.URI;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import org.antlr.v4.runtime.BailErrorStrategy;
 import org.antlr.v4.runtime.CharStream;
@@ -28,6 +32,7 @@ import org.rumbledb.expressions.Node;
 import org.rumbledb.expressions.module.LibraryModule;
 import org.rumbledb.expressions.module.MainModule;
 import org.rumbledb.expressions.module.Module;
+import org.rumbledb.expressions.module.Prolog;
 import org.rumbledb.parser.JsoniqLexer;
 import org.rumbledb.parser.JsoniqParser;
 import org.rumbledb.parser.XQueryLexer;
@@ -55,6 +60,38 @@ public class VisitorHelpers {
         new ModulePruningVisitor(conf).visit(node, null);
     }
 
+    /**
+     * Gets the versions of the files of the library modules that a main module imports, directly or not, before they
+     * are pruned, so that a cached compilation of the main module is not reused once one of them has changed.
+     *
+     * @param mainModule the main module, as translated.
+     * @param conf the configuration.
+     * @return the versions by module location, which are null for modules whose version is unknown (e.g., remote).
+     */
+    private static Map<URI, String> getImportedModuleVersions(MainModule mainModule, RumbleRuntimeConfiguration conf) {
+        Map<URI, String> result = new HashMap<>();
+        addImportedModuleVersions(mainModule.getProlog(), conf, result);
+        return result;
+    }
+
+    private static void addImportedModuleVersions(
+            Prolog prolog,
+            RumbleRuntimeConfiguration conf,
+            Map<URI, String> result
+    ) {
+        if (prolog == null) {
+            return;
+        }
+        for (LibraryModule libraryModule : prolog.getImportedModules()) {
+            URI location = URI.create(libraryModule.getNamespace());
+            if (result.containsKey(location)) {
+                continue;
+            }
+            result.put(location, FileSystemUtil.getFileVersion(location, conf, ExceptionMetadata.EMPTY_METADATA));
+            addImportedModuleVersions(libraryModule.getProlog(), conf, result);
+        }
+    }
+
     private static void inferTypes(Module module, RumbleRuntimeConfiguration conf) {
         new InferTypeVisitor(conf).visit(module, module.getStaticContext());
         if (conf.printInferredTypes() || conf.isPrintIteratorTree()) {
@@ -62,7 +99,11 @@ public class VisitorHelpers {
         }
     }
 
-    private static MainModule applyTypeIndependentOptimizations(MainModule module, RumbleRuntimeConfiguration conf) {
+    private static MainModule applyTypeIndependentOptimizations(
+            MainModule module,
+            RumbleRuntimeConfiguration conf,
+            Set<String> dataFrameGroupByClauses
+    ) {
         MainModule result = module;
         // Annotate recursive functions as such
         new FunctionDependenciesVisitor().visit(result, null);
@@ -70,6 +111,10 @@ public class VisitorHelpers {
         if (conf.functionInlining()) {
             result = (MainModule) new FunctionInliningVisitor().visit(result, null);
         }
+        // Aggregate paths of grouped variables before the group by, so that Spark SQL can compute them
+        if (!dataFrameGroupByClauses.isEmpty()) {
+            result = (MainModule) new GroupByAggregateVisitor(dataFrameGroupByClauses).visit(result, null);
+        }
         return result;
     }
 
@@ -79,6 +124,15 @@ public class VisitorHelpers {
         return result;
     }
 
+    private static void pushDownProjections(MainModule module, RumbleRuntimeConfiguration conf) {
+        if (conf.jsonProjectionPushdown()) {
+            new ProjectionPushdownVisitor().visit(module, null);
+            if (conf.isPrintIteratorTree()) {
+                printTree(module, conf);
+            }
+        }
+    }
+
     private static void printTree(Module node, RumbleRuntimeConfiguration conf) {
         System.err.println("***************");
         System.err.println("Expression tree");
@@ -143,9 +197,6 @@ public class VisitorHelpers {
         JsoniqLexer lexer = new JsoniqLexer(stream);
         JsoniqParser parser = new JsoniqParser(new CommonTokenStream(lexer));
         parser.setErrorHandler(new BailErrorStrategy());
-        StaticContext moduleContext = new StaticContext(uri, configuration);
-        moduleContext.setUserDefinedFunctionsExecutionModes(new UserDefinedFunctionExecutionModes());
-        TranslationVisitor visitor = new TranslationVisitor(moduleContext, true, configuration, query);
         try {
             // TODO Handle module extras
             JsoniqParser.ModuleAndThisIsItContext module = parser.moduleAndThisIsIt();
@@ -153,15 +204,14 @@ public class VisitorHelpers {
             if (main == null) {
                 throw new ParsingException("A library module is not executable.", ExceptionMetadata.EMPTY_METADATA);
             }
-            MainModule mainModule = (MainModule) visitor.visit(main);
-            pruneModules(mainModule, configuration);
-            resolveDependencies(mainModule, configuration);
-            mainModule = applyTypeIndependentOptimizations(mainModule, configuration);
-            populateStaticContext(mainModule, configuration);
-            inferTypes(mainModule, configuration);
-            mainModule = applyTypeDependentOptimizations(mainModule);
-            populateExecutionModes(mainModule, configuration);
-            populateExpressionClassifications(mainModule, configuration);
+            MainModule mainModule = compileJSONiqMainModule(main, query, uri, configuration, Collections.emptySet());
+            if (configuration.nativeExecution()) {
+                // aggregates are only computed natively by group by clauses found to be executed as data frames
+                Set<String> groupByClauses = GroupByAggregateVisitor.getDataFrameGroupByClauses(mainModule);
+                if (!groupByClauses.isEmpty()) {
+                    mainModule = compileJSONiqMainModule(main, query, uri, configuration, groupByClauses);
+                }
+            }
             return mainModule;
         } catch (ParseCancellationException ex) {
             ParsingException e = new ParsingException(
@@ -178,6 +228,31 @@ public class VisitorHelpers {
         }
     }
 
+    private static MainModule compileJSONiqMainModule(
+            JsoniqParser.MainModuleContext main,
+            String query,
+            URI uri,
+            RumbleRuntimeConfiguration configuration,
+            Set<String> dataFrameGroupByClauses
+    ) {
+        StaticContext moduleContext = new StaticContext(uri, configuration);
+        moduleContext.setUserDefinedFunctionsExecutionModes(new UserDefinedFunctionExecutionModes());
+        TranslationVisitor visitor = new TranslationVisitor(moduleContext, true, configuration, query);
+        MainModule mainModule = (MainModule) visitor.visit(main);
+        Map<URI, String> importedModules = getImportedModuleVersions(mainModule, configuration);
+        pruneModules(mainModule, configuration);
+        resolveDependencies(mainModule, configuration);
+        mainModule = applyTypeIndependentOptimizations(mainModule, configuration, dataFrameGroupByClauses);
+        populateStaticContext(mainModule, configuration);
+        inferTypes(mainModule, configuration);
+        mainModule = applyTypeDependentOptimizations(mainModule);
+        populateExecutionModes(mainModule, configuration);
+        populateExpressionClassifications(mainModule, configuration);
+        pushDownProjections(mainModule, configuration);
+        importedModules.forEach(mainModule::addFileDependency);
+        return mainModule;
+    }
+
     public static MainModule parseXQueryMainModule(
             String query,
             URI uri,
@@ -197,6 +272,7 @@ public class VisitorHelpers {
                 throw new ParsingException("A library module is not executable.", ExceptionMetadata.EMPTY_METADATA);
             }
             MainModule mainModule = (MainModule) visitor.visit(main);
+            Map<URI, String> importedModules = getImportedModuleVersions(mainModule, configuration);
             pruneModules(mainModule, configuration);
             resolveDependencies(mainModule, configuration);
             populateStaticContext(mainModule, configuration);
@@ -205,6 +281,8 @@ public class VisitorHelpers {
             populateExecutionModes(mainModule, configuration);
             // TODO populate expression classifications here?
             // populateExpressionClassifications(mainModule, configuration);
+            pushDownProjections(mainModule, configuration);
+            importedModules.forEach(mainModule::addFileDependency);
             return mainModule;
         } catch (ParseCancellationException ex) {
             ParsingException e = new ParsingException(
@@ -39,6 +39,7 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.TreeMap;
 
 public class RumbleRuntimeConfiguration implements Serializable, KryoSerializable {
 
@@ -49,6 +50,7 @@ public class RumbleRuntimeConfiguration implements Serializable, KryoSerializabl
 
     List<String> allowedPrefixes;
     private int resultsSizeCap;
+    private MaterializationCountMode materializationCountMode;
     private String inputFormat;
     private String outputFormat;
     private Map<String, String> outputFormatOptions;
@@ -72,6 +74,7 @@ public class RumbleRuntimeConfiguration implements Serializable, KryoSerializabl
     private boolean dataFrameExecution;
     private boolean nativeExecution;
     private boolean functionInlining;
+    private boolean jsonProjectionPushdown;
     private boolean thirdFeature;
 
     private Map<String, String> shortcutMap;
@@ -205,6 +208,71 @@ public class RumbleRuntimeConfiguration implements Serializable, KryoSerializabl
         }
     }
 
+    public int getServerThreads() {
+        if (this.arguments.containsKey("server-threads")) {
+            return Integer.parseInt(this.arguments.get("server-threads"));
+        } else {
+            return 8;
+        }
+    }
+
+    /**
+     * Gets the format in which the HTTP server streams the results of a query, if it streams them.
+     *
+     * @return json, ndjson, or null if the results are sent in one piece.
+     */
+    public String getStreamingFormat() {
+        if (!this.arguments.containsKey("stream") || this.arguments.get("stream").equals("no")) {
+            return null;
+        }
+        String format = this.arguments.get("stream");
+        if (format.equals("yes") || format.equals("json")) {
+            return "json";
+        }
+        if (format.equals("ndjson")) {
+            return "ndjson";
+        }
+        throw new CliException(
+                "Unrecognized value for stream: " + format + ". Valid values are no, yes, json and ndjson."
+        );
+    }
+
+    public int getQueryCacheSize() {
+        if (this.arguments.containsKey("query-cache-size")) {
+            return Integer.parseInt(this.arguments.get("query-cache-size"));
+        } else {
+            return 64;
+        }
+    }
+
+    /**
+     * Gets the size under which json-file() reads a file on the driver instead of with Spark, together with the
+     * expressions that would otherwise run in parallel over it.
+     *
+     * @return the size in bytes, or 0 if input sizes are not taken into account.
+     */
+    public long getLocalExecutionThreshold() {
+        if (this.arguments.containsKey("local-execution-threshold")) {
+            return Long.parseLong(this.arguments.get("local-execution-threshold"));
+        } else {
+            return 0;
+        }
+    }
+
+    /**
+     * Gets the number of bytes of tuples that a locally executed order-by or group-by clause holds in memory before
+     * it spills them to temporary files.
+     *
+     * @return the size in bytes, or 0 if tuples are never spilled.
+     */
+    public long getLocalSpillThreshold() {
+        if (this.arguments.containsKey("local-spill-threshold")) {
+            return Long.parseLong(this.arguments.get("local-spill-threshold"));
+        } else {
+            return 0;
+        }
+    }
+
     public List<String> getAllowedURIPrefixes() {
         return this.allowedPrefixes;
     }
@@ -295,6 +363,27 @@ public class RumbleRuntimeConfiguration implements Serializable, KryoSerializabl
                 this.resultsSizeCap = 200;
             }
         }
+        if (this.arguments.containsKey("materialization-count")) {
+            switch (this.arguments.get("materialization-count")) {
+                case "recompute":
+                    this.materializationCountMode = MaterializationCountMode.RECOMPUTE;
+                    break;
+                case "single-pass":
+                    this.materializationCountMode = MaterializationCountMode.SINGLE_PASS;
+                    break;
+                case "none":
+                    this.materializationCountMode = MaterializationCountMode.NONE;
+                    break;
+                default:
+                    throw new CliException(
+                            "Unrecognized value for --materialization-count: "
+                                + this.arguments.get("materialization-count")
+                                + ". Valid values are recompute, single-pass and none."
+                    );
+            }
+        } else {
+            this.materializationCountMode = MaterializationCountMode.RECOMPUTE;
+        }
         this.externalVariableValues = new HashMap<>();
         this.unparsedExternalVariableValues = new HashMap<>();
         this.externalVariableValuesReadFromFiles = new HashMap<>();
@@ -429,6 +518,12 @@ public class RumbleRuntimeConfiguration implements Serializable, KryoSerializabl
         } else {
             this.optimizeGeneralComparisonToValueComparison = true;
         }
+
+        if (this.arguments.containsKey("json-projection-pushdown")) {
+            this.jsonProjectionPushdown = this.arguments.get("json-projection-pushdown").equals("yes");
+        } else {
+            this.jsonProjectionPushdown = true;
+        }
     }
 
     public boolean getOverwrite() {
@@ -532,6 +627,25 @@ public class RumbleRuntimeConfiguration implements Serializable, KryoSerializabl
         return this;
     }
 
+    /**
+     * Gets how the size of a sequence is reported when its materialization exceeds the cap.
+     *
+     * @return the current mode.
+     */
+    public MaterializationCountMode getMaterializationCountMode() {
+        return this.materializationCountMode;
+    }
+
+    /**
+     * Sets how the size of a sequence is reported when its materialization exceeds the cap.
+     *
+     * @param mode the mode.
+     */
+    public RumbleRuntimeConfiguration setMaterializationCountMode(MaterializationCountMode mode) {
+        this.materializationCountMode = mode;
+        return this;
+    }
+
     public List<Item> getExternalVariableValue(Name name) {
         if (this.externalVariableValues.containsKey(name)) {
             return this.externalVariableValues.get(name);
@@ -644,6 +758,14 @@ public class RumbleRuntimeConfiguration implements Serializable, KryoSerializabl
         this.functionInlining = b;
     }
 
+    public boolean jsonProjectionPushdown() {
+        return this.jsonProjectionPushdown;
+    }
+
+    public void setJsonProjectionPushdown(boolean b) {
+        this.jsonProjectionPushdown = b;
+    }
+
     public boolean optimizeGeneralComparisonToValueComparison() {
         return this.optimizeGeneralComparisonToValueComparison;
     }
@@ -652,6 +774,50 @@ public class RumbleRuntimeConfiguration implements Serializable, KryoSerializabl
         this.optimizeGeneralComparisonToValueComparison = b;
     }
 
+    /**
+     * Describes the settings that compiling and executing a query depend on, i.e., all of them except the query
+     * itself and the values of external variables, so that compiled queries can be reused across executions.
+     *
+     * @return a string that is the same for two configurations if and only if they have the same settings.
+     */
+    public String getCompilationSettings() {
+        Map<String, String> arguments = new TreeMap<>();
+        for (Map.Entry<String, String> argument : this.arguments.entrySet()) {
+            if (
+                !argument.getKey().startsWith("variable:")
+                    && !argument.getKey().equals("query")
+                    && !argument.getKey().equals("query-path")
+            ) {
+                arguments.put(argument.getKey(), argument.getValue());
+            }
+        }
+        return String.join(
+            "|",
+            arguments.toString(),
+            String.valueOf(this.allowedPrefixes),
+            String.valueOf(this.resultsSizeCap),
+            String.valueOf(this.materializationCountMode),
+            String.valueOf(this.inputFormat),
+            String.valueOf(this.outputFormat),
+            String.valueOf(new TreeMap<>(this.outputFormatOptions)),
+            String.valueOf(this.numberOfOutputPartitions),
+            String.valueOf(this.checkReturnTypeOfBuiltinFunctions),
+            String.valueOf(this.outputPath),
+            String.valueOf(this.logPath),
+            String.valueOf(this.shell),
+            String.valueOf(this.nativeSQLPredicates),
+            String.valueOf(this.dataFrameExecutionModeDetection),
+            String.valueOf(this.datesWithTimeZone),
+            String.valueOf(this.optimizeGeneralComparisonToValueComparison),
+            String.valueOf(this.parallelExecution),
+            String.valueOf(this.dataFrameExecution),
+            String.valueOf(this.nativeExecution),
+            String.valueOf(this.functionInlining),
+            String.valueOf(this.jsonProjectionPushdown),
+            String.valueOf(this.thirdFeature)
+        );
+    }
+
     public boolean isLocal() {
         String masterConfig = SparkSessionManager.getInstance().getJavaSparkContext().getConf().get("spark.master");
         return masterConfig.contains("local");
@@ -777,4 +943,16 @@ public class RumbleRuntimeConfiguration implements Serializable, KryoSerializabl
                 itemSeparator
         );
     }
+
+    /**
+     * How the number of items of a sequence is obtained when it exceeds the materialization cap.
+     */
+    public enum MaterializationCountMode {
+        // takes the capped prefix, then counts the sequence with a second Spark job.
+        RECOMPUTE,
+        // computes the capped prefix and the count in a single pass over the sequence.
+        SINGLE_PASS,
+        // does not count, and only reports that the cap was exceeded.
+        NONE
+    }
 }
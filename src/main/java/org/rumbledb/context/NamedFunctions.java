@@ -156,7 +156,7 @@ public class NamedFunctions implements Serializable, KryoSerializable {
 
     public FunctionItem getUserDefinedFunction(FunctionIdentifier identifier) {
         FunctionItem functionItem = this.userDefinedFunctions.get(identifier);
-        return functionItem.deepCopy();
+        return functionItem.copy();
     }
 
     public static RuntimeIterator getBuiltInFunctionIterator(
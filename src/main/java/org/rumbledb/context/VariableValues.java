@@ -27,6 +27,7 @@ import com.esotericsoftware.kryo.io.Output;
 import org.apache.spark.api.java.JavaRDD;
 import org.apache.spark.sql.Row;
 import org.rumbledb.api.Item;
+import org.rumbledb.config.RumbleRuntimeConfiguration;
 import org.rumbledb.exceptions.ExceptionMetadata;
 import org.rumbledb.exceptions.JobWithinAJobException;
 import org.rumbledb.exceptions.OurBadException;
@@ -56,9 +57,15 @@ public class VariableValues implements Serializable, KryoSerializable {
     private Map<Name, JSoundDataFrame> dataFrameVariableValues;
     private boolean nestedQuery;
     private VariableValues parent;
+    private transient RumbleRuntimeConfiguration configuration;
 
     public VariableValues() {
+        this((RumbleRuntimeConfiguration) null);
+    }
+
+    public VariableValues(RumbleRuntimeConfiguration configuration) {
         this.parent = null;
+        this.configuration = configuration;
         this.localVariableCounts = new HashMap<>();
         this.localVariableValues = new HashMap<>();
         this.rddVariableValues = new HashMap<>();
@@ -97,7 +104,7 @@ public class VariableValues implements Serializable, KryoSerializable {
 
     public void setBindingsFromTuple(FlworTuple tuple, ExceptionMetadata metadata) {
         for (Name key : tuple.getLocalKeys()) {
-            this.addVariableValue(key, tuple.getLocalValue(key, metadata));
+            this.addVariableValue(key, tuple.getLocalValue(key, getConfiguration(), metadata));
         }
         for (Name key : tuple.getRDDKeys()) {
             this.addVariableValue(key, tuple.getRDDValue(key, metadata));
@@ -187,7 +194,7 @@ public class VariableValues implements Serializable, KryoSerializable {
                 throw new JobWithinAJobException(metadata);
             }
             JavaRDD<Item> rdd = this.getRDDVariableValue(varName, metadata);
-            return SparkSessionManager.collectRDDwithLimit(rdd, metadata);
+            return SparkSessionManager.collectRDDwithLimit(rdd, getConfiguration(), metadata);
         }
 
         if (this.parent != null) {
@@ -312,6 +319,21 @@ public class VariableValues implements Serializable, KryoSerializable {
         this.nestedQuery = true;
     }
 
+    /**
+     * Gets the configuration of the query that these values belong to, which caps the materialization of RDDs.
+     *
+     * @return the configuration, or null if these values were deserialized on an executor.
+     */
+    public RumbleRuntimeConfiguration getConfiguration() {
+        if (this.configuration != null) {
+            return this.configuration;
+        }
+        if (this.parent != null) {
+            return this.parent.getConfiguration();
+        }
+        return null;
+    }
+
     public Item getPosition() {
         if (this.localVariableValues.containsKey(Name.CONTEXT_POSITION)) {
             return this.localVariableValues.get(Name.CONTEXT_POSITION).get(0);
@@ -28,14 +28,20 @@ import org.rumbledb.expressions.AbstractNodeVisitor;
 import org.rumbledb.expressions.Expression;
 import org.rumbledb.expressions.Node;
 
+import java.net.URI;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 public class MainModule extends Module {
 
     protected StaticContext staticContext;
     private final Prolog prolog;
     private final Expression expression;
+    // files whose contents or size the compiled query depends on, with the versions they had at compile time.
+    private final Map<URI, String> fileDependencies;
 
     public MainModule(Prolog prolog, Expression expression, ExceptionMetadata metadata) {
         super(metadata);
@@ -44,6 +50,7 @@ public class MainModule extends Module {
             throw new OurBadException("The main module must have a non-null expression");
         }
         this.expression = expression;
+        this.fileDependencies = new HashMap<>();
     }
 
     public StaticContext getStaticContext() {
@@ -62,6 +69,20 @@ public class MainModule extends Module {
         return this.expression;
     }
 
+    /**
+     * Records that the compiled query depends on a file, so that it is not reused once the file has changed.
+     *
+     * @param uri the resolved URI of the file.
+     * @param version the version of the file, as returned by FileSystemUtil.getFileVersion().
+     */
+    public void addFileDependency(URI uri, String version) {
+        this.fileDependencies.put(uri, version);
+    }
+
+    public Map<URI, String> getFileDependencies() {
+        return Collections.unmodifiableMap(this.fileDependencies);
+    }
+
     @Override
     public List<Node> getChildren() {
         List<Node> result = new ArrayList<>();
@@ -26,6 +26,7 @@ import org.rumbledb.exceptions.ExceptionMetadata;
 import org.rumbledb.expressions.AbstractNodeVisitor;
 import org.rumbledb.expressions.Expression;
 import org.rumbledb.expressions.Node;
+import org.rumbledb.items.parsing.JSONProjection;
 
 import java.util.List;
 import java.util.stream.Collectors;
@@ -35,6 +36,8 @@ public class FunctionCallExpression extends Expression {
     private final FunctionIdentifier identifier;
     private final List<Expression> arguments; // null for placeholder
     private final boolean isPartialApplication;
+    // the paths used downstream of a json-file() call, or null if unknown.
+    private JSONProjection projection;
 
     public FunctionCallExpression(
             Name functionName,
@@ -73,6 +76,14 @@ public class FunctionCallExpression extends Expression {
         return this.isPartialApplication;
     }
 
+    public JSONProjection getProjection() {
+        return this.projection;
+    }
+
+    public void setProjection(JSONProjection projection) {
+        this.projection = projection;
+    }
+
     @Override
     public <T> T accept(AbstractNodeVisitor<T> visitor, T argument) {
         return visitor.visitFunctionCall(this, argument);
@@ -92,6 +103,9 @@ public class FunctionCallExpression extends Expression {
                     : this.staticSequenceType
                         + (this.staticSequenceType.isResolved() ? " (resolved)" : " (unresolved)"))
         );
+        if (this.projection != null) {
+            buffer.append(" | projection: " + this.projection);
+        }
         buffer.append("\n");
         for (Expression arg : this.arguments) {
             if (arg == null) {
@@ -27,7 +27,10 @@ import org.rumbledb.api.Item;
 import org.rumbledb.types.BuiltinTypesCatalogue;
 import org.rumbledb.types.ItemType;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Set;
 
 public class ArrayItem implements Item {
 
@@ -36,6 +39,9 @@ public class ArrayItem implements Item {
     private List<Item> arrayItems;
 
     private int mutabilityLevel;
+    // non-null if this array is a copy made with copyForUpdates(): members that are not in this set are still shared
+    // with the copied array and are copied when they are first accessed.
+    private transient Set<Item> ownedItems;
 
     public ArrayItem() {
         super();
@@ -61,7 +67,7 @@ public class ArrayItem implements Item {
             return false;
         }
         for (int i = 0; i < getSize(); ++i) {
-            if (!getItemAt(i).equals(o.getItemAt(i))) {
+            if (!this.arrayItems.get(i).equals(o.getItemAt(i))) {
                 return false;
             }
         }
@@ -74,12 +80,24 @@ public class ArrayItem implements Item {
 
 
     public List<Item> getItems() {
+        if (this.ownedItems != null) {
+            for (int i = 0; i < this.arrayItems.size(); ++i) {
+                getItemAt(i);
+            }
+        }
         return this.arrayItems;
     }
 
     @Override
     public Item getItemAt(int i) {
-        return this.arrayItems.get(i);
+        Item item = this.arrayItems.get(i);
+        if (this.ownedItems == null || item.isAtomic() || this.ownedItems.contains(item)) {
+            return item;
+        }
+        Item copy = item.copyForUpdates(this.mutabilityLevel);
+        this.arrayItems.set(i, copy);
+        this.ownedItems.add(copy);
+        return copy;
     }
 
     @Override
@@ -124,10 +142,11 @@ public class ArrayItem implements Item {
     }
 
     public int hashCode() {
+        // the members are read without being copied, as copies are equal to the members they share.
         int result = 0;
         result += getSize();
-        for (int i = 0; i < getSize(); ++i) {
-            result += getItemAt(i).hashCode();
+        for (Item item : this.arrayItems) {
+            result += item.hashCode();
         }
         return result;
     }
@@ -150,8 +169,32 @@ public class ArrayItem implements Item {
     @Override
     public void setMutabilityLevel(int mutabilityLevel) {
         this.mutabilityLevel = mutabilityLevel;
-        for (Item item : arrayItems) {
-            item.setMutabilityLevel(mutabilityLevel);
+        for (Item item : this.arrayItems) {
+            // shared members get the mutability level of this array when they are copied.
+            if (this.ownedItems == null || this.ownedItems.contains(item)) {
+                item.setMutabilityLevel(mutabilityLevel);
+            }
         }
     }
+
+    /**
+     * Copies this array in time proportional to its size, sharing members at mutability level 0 until they are
+     * accessed, like ObjectItem.copyForUpdates().
+     */
+    @Override
+    public Item copyForUpdates(int mutabilityLevel) {
+        ArrayItem result = new ArrayItem(new ArrayList<>(this.arrayItems.size()));
+        result.mutabilityLevel = mutabilityLevel;
+        result.ownedItems = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (Item item : this.arrayItems) {
+            if (item.isAtomic() || item.getMutabilityLevel() == 0) {
+                result.arrayItems.add(item);
+            } else {
+                Item copy = item.copyForUpdates(mutabilityLevel);
+                result.arrayItems.add(copy);
+                result.ownedItems.add(copy);
+            }
+        }
+        return result;
+    }
 }
@@ -25,7 +25,9 @@ import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -57,6 +59,7 @@ import sparksoniq.spark.ml.ApplyTransformerRuntimeIterator;
 public class FunctionItem implements Item {
 
     private static final long serialVersionUID = 1L;
+    private static final int MAX_POOLED_BODY_ITERATORS = 64;
     private FunctionIdentifier identifier;
     private List<Name> parameterNames;
 
@@ -68,6 +71,9 @@ public class FunctionItem implements Item {
     private Map<Name, JavaRDD<Item>> RDDVariablesInClosure;
     private Map<Name, JSoundDataFrame> dataFrameVariablesInClosure;
 
+    // copies of the body that are not in use, shared by the shallow copies of this item
+    private transient Deque<RuntimeIterator> bodyIteratorPool;
+
     protected FunctionItem() {
         super();
     }
@@ -156,6 +162,45 @@ public class FunctionItem implements Item {
         return this.bodyIterator;
     }
 
+    /**
+     * Gets a copy of the body for one call, taking it from the pool of unused copies if possible. The body iterator
+     * of this item is a template that is never opened itself. Calls evaluated as RDDs or DataFrames copy the template
+     * directly instead, as their results may use the body after the call and it is never given back.
+     *
+     * @return a body iterator that is not used by any other call.
+     */
+    public RuntimeIterator acquireBodyIterator() {
+        Deque<RuntimeIterator> pool = getBodyIteratorPool();
+        synchronized (pool) {
+            RuntimeIterator result = pool.poll();
+            if (result != null) {
+                return result;
+            }
+        }
+        return this.bodyIterator.deepCopy();
+    }
+
+    /**
+     * Returns a body iterator obtained with acquireBodyIterator() to the pool, once the call is over.
+     *
+     * @param bodyIterator the closed body iterator.
+     */
+    public void releaseBodyIterator(RuntimeIterator bodyIterator) {
+        Deque<RuntimeIterator> pool = getBodyIteratorPool();
+        synchronized (pool) {
+            if (pool.size() < MAX_POOLED_BODY_ITERATORS) {
+                pool.push(bodyIterator);
+            }
+        }
+    }
+
+    private synchronized Deque<RuntimeIterator> getBodyIteratorPool() {
+        if (this.bodyIteratorPool == null) {
+            this.bodyIteratorPool = new ArrayDeque<>();
+        }
+        return this.bodyIteratorPool;
+    }
+
     public Map<Name, List<Item>> getLocalVariablesInClosure() {
         return this.localVariablesInClosure;
     }
@@ -305,6 +350,27 @@ public class FunctionItem implements Item {
         }
     }
 
+    /**
+     * Creates a shallow copy of this function item, with its own closure but sharing the body template and the pool
+     * of body iterators. Unlike deepCopy(), this does not serialize anything.
+     *
+     * @return the copy.
+     */
+    public FunctionItem copy() {
+        FunctionItem result = new FunctionItem(
+                this.identifier,
+                this.parameterNames,
+                this.signature,
+                this.dynamicModuleContext,
+                this.bodyIterator,
+                new HashMap<>(this.localVariablesInClosure),
+                new HashMap<>(this.RDDVariablesInClosure),
+                new HashMap<>(this.dataFrameVariablesInClosure)
+        );
+        result.bodyIteratorPool = getBodyIteratorPool();
+        return result;
+    }
+
     public void populateClosureFromDynamicContext(DynamicContext dynamicContext, ExceptionMetadata metadata) {
         for (Name variable : dynamicContext.getVariableValues().getLocalVariableNames()) {
             this.localVariablesInClosure.put(
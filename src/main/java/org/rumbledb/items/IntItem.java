@@ -70,6 +70,16 @@ public class IntItem implements Item {
         return this.value;
     }
 
+    @Override
+    public boolean hasLongValue() {
+        return true;
+    }
+
+    @Override
+    public long getLongValue() {
+        return this.value;
+    }
+
     @Override
     public BigInteger getIntegerValue() {
         return BigInteger.valueOf(this.value);
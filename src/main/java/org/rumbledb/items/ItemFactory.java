@@ -18,7 +18,10 @@ public class ItemFactory {
     private Item emptyStringItem;
     private Item trueBooleanItem;
     private Item falseBooleanItem;
-    private Item zeroItem;
+    // int items from SMALL_INT_MIN to SMALL_INT_MAX, which are shared as they are immutable.
+    private static final int SMALL_INT_MIN = -128;
+    private static final int SMALL_INT_MAX = 1024;
+    private Item[] smallIntItems;
     private Item positiveInfinityDoubleItem;
     private Item negativeInfinityDoubleItem;
     private Item NaNDoubleItem;
@@ -33,7 +36,10 @@ public class ItemFactory {
             instance.emptyStringItem = new StringItem("");
             instance.trueBooleanItem = new BooleanItem(true);
             instance.falseBooleanItem = new BooleanItem(false);
-            instance.zeroItem = new IntItem(0);
+            instance.smallIntItems = new Item[SMALL_INT_MAX - SMALL_INT_MIN + 1];
+            for (int i = SMALL_INT_MIN; i <= SMALL_INT_MAX; ++i) {
+                instance.smallIntItems[i - SMALL_INT_MIN] = new IntItem(i);
+            }
             instance.positiveInfinityDoubleItem = new DoubleItem(Double.POSITIVE_INFINITY);
             instance.negativeInfinityDoubleItem = new DoubleItem(Double.NEGATIVE_INFINITY);
             instance.NaNDoubleItem = new DoubleItem(Double.NaN);
@@ -64,31 +70,39 @@ public class ItemFactory {
     }
 
     public Item createIntegerItem(BigInteger i) {
+        if (i.bitLength() < Long.SIZE) {
+            return new LongIntegerItem(i.longValue());
+        }
         return new IntegerItem(i);
     }
 
+    public Item createIntegerItem(long l) {
+        return new LongIntegerItem(l);
+    }
+
     public Item createIntItem(int i) {
-        if (i == 0) {
-            return this.zeroItem;
+        if (i >= SMALL_INT_MIN && i <= SMALL_INT_MAX) {
+            return this.smallIntItems[i - SMALL_INT_MIN];
         }
         return new IntItem(i);
     }
 
     public Item createLongItem(long l) {
-        if (l == 0) {
-            return this.zeroItem;
-        }
         if (l >= Integer.MIN_VALUE && l <= Integer.MAX_VALUE) {
-            return new IntItem((int) l);
+            return createIntItem((int) l);
         }
-        return new IntegerItem(BigInteger.valueOf(l));
+        return new LongIntegerItem(l);
     }
 
     public Item createIntegerItem(String lexicalValue) {
         if (lexicalValue.length() >= 10) {
-            return new IntegerItem(new BigInteger(lexicalValue));
+            try {
+                return new LongIntegerItem(Long.parseLong(lexicalValue));
+            } catch (NumberFormatException e) {
+                return new IntegerItem(new BigInteger(lexicalValue));
+            }
         }
-        return new IntItem(Integer.parseInt(lexicalValue));
+        return createIntItem(Integer.parseInt(lexicalValue));
     }
 
     public Item createDoubleItem(double d) {
@@ -217,6 +231,10 @@ public class ItemFactory {
         return new ObjectItem(keys, values, itemMetadata);
     }
 
+    public Item createObjectItem(ObjectShape shape, List<Item> values) {
+        return new ObjectItem(shape, values);
+    }
+
     public Item createObjectItem(Map<String, List<Item>> keyValuePairs) {
         return new ObjectItem(keyValuePairs);
     }
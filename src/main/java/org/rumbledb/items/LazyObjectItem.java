@@ -27,7 +27,6 @@ import org.rumbledb.api.Item;
 import org.rumbledb.context.DynamicContext;
 import org.rumbledb.exceptions.DuplicateObjectKeyException;
 import org.rumbledb.exceptions.ExceptionMetadata;
-import org.rumbledb.exceptions.OurBadException;
 import org.rumbledb.runtime.RuntimeIterator;
 import org.rumbledb.types.BuiltinTypesCatalogue;
 import org.rumbledb.types.ItemType;
@@ -131,56 +130,50 @@ public class LazyObjectItem implements Item {
 
     @Override
     public List<Item> getValues() {
-        List<Item> result = new ArrayList<>();
         materialize();
-        for (Item i : this.values.values()) {
-            result.add(i);
+        List<Item> result = new ArrayList<>(this.keys.size());
+        for (String key : this.keys) {
+            result.add(this.values.get(key));
         }
         return result;
     }
 
-    private void checkForDuplicateKeys(List<String> keys, ExceptionMetadata metadata) {
-        HashMap<String, Integer> frequencies = new HashMap<>();
-        for (String key : keys) {
-            if (frequencies.containsKey(key)) {
-                throw new DuplicateObjectKeyException(key, metadata);
-            } else {
-                frequencies.put(key, 1);
-            }
-        }
+    private boolean containsKey(String s) {
+        return this.values.containsKey(s) || this.lazyValues.containsKey(s);
     }
 
     @Override
     public Item getItemByKey(String s) {
-        if (this.keys.contains(s)) {
-            if (this.values.containsKey(s)) {
-                return this.values.get(s);
-            }
-            if (this.lazyValues.containsKey(s)) {
-                Item i = this.lazyValues.get(s).getItem();
-                this.lazyValues.remove(s);
-                this.values.put(s, i);
-                return i;
-            }
-            throw new OurBadException("Key " + s + "not found in lazy object. Inconsistent layout.");
-        } else {
-            return null;
+        Item result = this.values.get(s);
+        if (result != null) {
+            return result;
+        }
+        LazyValue lazyValue = this.lazyValues.remove(s);
+        if (lazyValue != null) {
+            Item i = lazyValue.getItem();
+            this.values.put(s, i);
+            return i;
         }
+        return null;
     }
 
     @Override
     public void putItemByKey(String s, Item value) {
+        if (containsKey(s)) {
+            throw new DuplicateObjectKeyException(s, ExceptionMetadata.EMPTY_METADATA);
+        }
         this.keys.add(s);
         this.values.put(s, value);
-        checkForDuplicateKeys(this.keys, ExceptionMetadata.EMPTY_METADATA);
     }
 
     @Override
     public void putLazyItemByKey(String s, RuntimeIterator iterator, DynamicContext context, boolean isArray) {
+        if (containsKey(s)) {
+            throw new DuplicateObjectKeyException(s, ExceptionMetadata.EMPTY_METADATA);
+        }
         this.keys.add(s);
         LazyValue lv = new LazyValue(iterator, context, isArray);
         this.lazyValues.put(s, lv);
-        checkForDuplicateKeys(this.keys, ExceptionMetadata.EMPTY_METADATA);
     }
 
     @Override
@@ -190,16 +183,24 @@ public class LazyObjectItem implements Item {
 
     @Override
     public void write(Kryo kryo, Output output) {
-        kryo.writeObject(output, this.keys);
         materialize();
-        kryo.writeObject(output, this.values);
+        output.writeInt(this.keys.size(), true);
+        for (String key : this.keys) {
+            output.writeString(key);
+            kryo.writeClassAndObject(output, this.values.get(key));
+        }
     }
 
-    @SuppressWarnings("unchecked")
     @Override
     public void read(Kryo kryo, Input input) {
-        this.keys = kryo.readObject(input, ArrayList.class);
-        this.values = kryo.readObject(input, HashMap.class);
+        int size = input.readInt(true);
+        this.keys = new ArrayList<>(size);
+        this.values = new HashMap<>();
+        for (int i = 0; i < size; ++i) {
+            String key = input.readString();
+            this.keys.add(key);
+            this.values.put(key, (Item) kryo.readClassAndObject(input));
+        }
         this.lazyValues = new HashMap<>();
     }
 
@@ -0,0 +1,173 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Authors: Stefan Irimescu, Can Berker Cikis
+ *
+ */
+
+package org.rumbledb.items;
+
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+import org.rumbledb.api.Item;
+import org.rumbledb.exceptions.ExceptionMetadata;
+import org.rumbledb.expressions.comparison.ComparisonExpression.ComparisonOperator;
+import org.rumbledb.runtime.flwor.NativeClauseContext;
+import org.rumbledb.runtime.misc.ComparisonIterator;
+import org.rumbledb.types.BuiltinTypesCatalogue;
+import org.rumbledb.types.ItemType;
+import org.rumbledb.types.SequenceType;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+
+/**
+ * An xs:integer that fits in a long. IntegerItem is only used for values that do not.
+ */
+public class LongIntegerItem implements Item {
+
+
+    private static final long serialVersionUID = 1L;
+    private long value;
+
+    public LongIntegerItem() {
+        super();
+    }
+
+    public LongIntegerItem(long value) {
+        super();
+        this.value = value;
+    }
+
+    @Override
+    public boolean equals(Object otherItem) {
+        if (otherItem instanceof Item) {
+            long c = ComparisonIterator.compareItems(
+                this,
+                (Item) otherItem,
+                ComparisonOperator.VC_EQ,
+                ExceptionMetadata.EMPTY_METADATA
+            );
+            return c == 0;
+        }
+        return false;
+    }
+
+    @Override
+    public boolean hasLongValue() {
+        return true;
+    }
+
+    @Override
+    public long getLongValue() {
+        return this.value;
+    }
+
+    @Override
+    public BigInteger getIntegerValue() {
+        return BigInteger.valueOf(this.value);
+    }
+
+    @Override
+    public BigDecimal getDecimalValue() {
+        return BigDecimal.valueOf(this.value);
+    }
+
+    @Override
+    public String getStringValue() {
+        return String.valueOf(this.value);
+    }
+
+    @Override
+    public boolean getEffectiveBooleanValue() {
+        return this.value != 0;
+    }
+
+    @Override
+    public double castToDoubleValue() {
+        return (double) this.value;
+    }
+
+    @Override
+    public float castToFloatValue() {
+        return (float) this.value;
+    }
+
+    @Override
+    public BigDecimal castToDecimalValue() {
+        return BigDecimal.valueOf(this.value);
+    }
+
+    @Override
+    public BigInteger castToIntegerValue() {
+        return BigInteger.valueOf(this.value);
+    }
+
+    @Override
+    public int castToIntValue() {
+        return (int) this.value;
+    }
+
+    @Override
+    public boolean isInteger() {
+        return true;
+    }
+
+    @Override
+    public boolean isDecimal() {
+        return true;
+    }
+
+    @Override
+    public void write(Kryo kryo, Output output) {
+        output.writeLong(this.value);
+    }
+
+    @Override
+    public void read(Kryo kryo, Input input) {
+        this.value = input.readLong();
+    }
+
+    public int hashCode() {
+        // the same as BigInteger.valueOf(this.value).hashCode(), as equal integers must have equal hash codes.
+        // Math.abs(Long.MIN_VALUE) is Long.MIN_VALUE, whose unsigned value is the magnitude 2^63.
+        long magnitude = Math.abs(this.value);
+        int high = (int) (magnitude >>> 32);
+        int low = (int) magnitude;
+        int hash = high == 0 ? low : (int) (31 * (high & 0xffffffffL) + (low & 0xffffffffL));
+        return Long.signum(this.value) * hash;
+    }
+
+    @Override
+    public ItemType getDynamicType() {
+        return BuiltinTypesCatalogue.integerItem;
+    }
+
+    @Override
+    public NativeClauseContext generateNativeQuery(NativeClauseContext context) {
+        return new NativeClauseContext(context, String.valueOf(this.value), SequenceType.INTEGER);
+    }
+
+    public boolean isNumeric() {
+        return true;
+    }
+
+    @Override
+    public boolean isAtomic() {
+        return true;
+    }
+}
@@ -35,10 +35,23 @@ public class ObjectItem implements Item {
 
 
     private static final long serialVersionUID = 1L;
+    // Kryo headers: keys written inline, keys of a shape written inline, or a reference to a shape written before.
+    private static final int INLINE_KEYS = 0;
+    private static final int INLINE_SHARED_KEYS = 1;
+    private static final int SHAPE_REFERENCE_OFFSET = 2;
+    private static final String WRITTEN_SHAPES_CONTEXT_KEY = "ObjectItem.writtenShapes";
+    private static final String READ_SHAPES_CONTEXT_KEY = "ObjectItem.readShapes";
     private List<Item> values;
     private List<String> keys;
+    // built lazily, only for objects with at least ObjectKeyIndex.THRESHOLD keys.
+    private transient ObjectKeyIndex keyIndex;
+    // true if keys (and keyIndex) belong to an ObjectShape and must be copied before being modified.
+    private boolean sharedKeys;
 
     private int mutabilityLevel;
+    // non-null if this object is a copy made with copyForUpdates(): values that are not in this set are still shared
+    // with the copied object and are copied when they are first accessed.
+    private transient Set<Item> ownedValues;
 
     public ObjectItem() {
         super();
@@ -49,12 +62,21 @@ public class ObjectItem implements Item {
 
     public ObjectItem(List<String> keys, List<Item> values, ExceptionMetadata itemMetadata) {
         super();
-        checkForDuplicateKeys(keys, itemMetadata);
+        this.keyIndex = ObjectKeyIndex.checkForDuplicateKeys(keys, itemMetadata);
         this.keys = keys;
         this.values = values;
         this.mutabilityLevel = 0;
     }
 
+    public ObjectItem(ObjectShape shape, List<Item> values) {
+        super();
+        this.keys = shape.getKeys();
+        this.keyIndex = shape.getKeyIndex();
+        this.sharedKeys = true;
+        this.values = values;
+        this.mutabilityLevel = 0;
+    }
+
     public boolean equals(Object otherItem) {
         if (!(otherItem instanceof Item)) {
             return false;
@@ -125,42 +147,73 @@ public class ObjectItem implements Item {
 
     @Override
     public List<Item> getValues() {
+        if (this.ownedValues != null) {
+            for (int i = 0; i < this.values.size(); ++i) {
+                getOwnedValue(i);
+            }
+        }
         return this.values;
     }
 
-    private void checkForDuplicateKeys(List<String> keys, ExceptionMetadata metadata) {
-        HashMap<String, Integer> frequencies = new HashMap<>();
-        for (String key : keys) {
-            if (frequencies.containsKey(key)) {
-                throw new DuplicateObjectKeyException(key, metadata);
-            } else {
-                frequencies.put(key, 1);
+    private Item getOwnedValue(int index) {
+        Item value = this.values.get(index);
+        if (this.ownedValues == null || value.isAtomic() || this.ownedValues.contains(value)) {
+            return value;
+        }
+        Item copy = value.copyForUpdates(this.mutabilityLevel);
+        this.values.set(index, copy);
+        this.ownedValues.add(copy);
+        return copy;
+    }
+
+    private int indexOfKey(String s) {
+        if (this.keyIndex == null && this.keys.size() >= ObjectKeyIndex.THRESHOLD) {
+            this.keyIndex = ObjectKeyIndex.build(this.keys, ExceptionMetadata.EMPTY_METADATA);
+        }
+        return ObjectKeyIndex.indexOf(this.keys, this.keyIndex, s);
+    }
+
+    private void unshareKeys() {
+        if (this.sharedKeys) {
+            this.keys = new ArrayList<>(this.keys);
+            if (this.keyIndex != null) {
+                this.keyIndex = this.keyIndex.copy();
             }
+            this.sharedKeys = false;
         }
     }
 
     @Override
     public Item getItemByKey(String s) {
-        if (this.keys.contains(s)) {
-            return this.values.get(this.keys.indexOf(s));
-        } else {
+        int index = indexOfKey(s);
+        if (index == -1) {
             return null;
         }
+        return getOwnedValue(index);
     }
 
     @Override
     public void putItemByKey(String s, Item value) {
+        if (indexOfKey(s) != -1) {
+            throw new DuplicateObjectKeyException(s, ExceptionMetadata.EMPTY_METADATA);
+        }
+        unshareKeys();
         this.keys.add(s);
         this.values.add(value);
-        checkForDuplicateKeys(this.keys, ExceptionMetadata.EMPTY_METADATA);
+        if (this.keyIndex != null) {
+            this.keyIndex.put(s, this.keys.size() - 1);
+        }
     }
 
     @Override
     public void removeItemByKey(String s) {
-        if (this.keys.contains(s)) {
-            int index = this.keys.indexOf(s);
+        int index = indexOfKey(s);
+        if (index != -1) {
+            unshareKeys();
             this.values.remove(index);
             this.keys.remove(index);
+            // positions after the removed key have shifted.
+            this.keyIndex = null;
         }
     }
 
@@ -171,22 +224,85 @@ public class ObjectItem implements Item {
 
     @Override
     public void write(Kryo kryo, Output output) {
-        kryo.writeObject(output, this.keys);
-        kryo.writeObject(output, this.values);
+        // key lists shared through a shape are only written once per serialized graph.
+        Map<List<String>, Integer> writtenShapes = getWrittenShapes(kryo);
+        Integer shapeId = this.sharedKeys ? writtenShapes.get(this.keys) : null;
+        if (shapeId != null) {
+            output.writeInt(shapeId + SHAPE_REFERENCE_OFFSET, true);
+        } else {
+            output.writeInt(this.sharedKeys ? INLINE_SHARED_KEYS : INLINE_KEYS, true);
+            output.writeInt(this.keys.size(), true);
+            for (String key : this.keys) {
+                output.writeString(key);
+            }
+            if (this.sharedKeys) {
+                writtenShapes.put(this.keys, writtenShapes.size());
+            }
+        }
+        for (Item value : this.values) {
+            kryo.writeClassAndObject(output, value);
+        }
     }
 
-    @SuppressWarnings("unchecked")
     @Override
     public void read(Kryo kryo, Input input) {
-        this.keys = kryo.readObject(input, ArrayList.class);
-        this.values = kryo.readObject(input, ArrayList.class);
+        List<ObjectShape> readShapes = getReadShapes(kryo);
+        int header = input.readInt(true);
+        if (header >= SHAPE_REFERENCE_OFFSET) {
+            ObjectShape shape = readShapes.get(header - SHAPE_REFERENCE_OFFSET);
+            this.keys = shape.getKeys();
+            this.keyIndex = shape.getKeyIndex();
+            this.sharedKeys = true;
+        } else {
+            int size = input.readInt(true);
+            List<String> keys = new ArrayList<>(size);
+            for (int i = 0; i < size; ++i) {
+                keys.add(input.readString());
+            }
+            if (header == INLINE_SHARED_KEYS) {
+                ObjectShape shape = new ObjectShape(keys, ExceptionMetadata.EMPTY_METADATA);
+                readShapes.add(shape);
+                this.keys = shape.getKeys();
+                this.keyIndex = shape.getKeyIndex();
+                this.sharedKeys = true;
+            } else {
+                this.keys = keys;
+                this.keyIndex = null;
+                this.sharedKeys = false;
+            }
+        }
+        this.values = new ArrayList<>(this.keys.size());
+        for (int i = 0; i < this.keys.size(); ++i) {
+            this.values.add((Item) kryo.readClassAndObject(input));
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<List<String>, Integer> getWrittenShapes(Kryo kryo) {
+        Object context = kryo.getGraphContext().get(WRITTEN_SHAPES_CONTEXT_KEY);
+        if (context == null) {
+            context = new IdentityHashMap<List<String>, Integer>();
+            kryo.getGraphContext().put(WRITTEN_SHAPES_CONTEXT_KEY, context);
+        }
+        return (Map<List<String>, Integer>) context;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<ObjectShape> getReadShapes(Kryo kryo) {
+        Object context = kryo.getGraphContext().get(READ_SHAPES_CONTEXT_KEY);
+        if (context == null) {
+            context = new ArrayList<ObjectShape>();
+            kryo.getGraphContext().put(READ_SHAPES_CONTEXT_KEY, context);
+        }
+        return (List<ObjectShape>) context;
     }
 
     public int hashCode() {
+        // the values are read without being copied, as copies are equal to the values they share.
         int result = 0;
-        result += getKeys().size();
-        for (String s : getKeys()) {
-            result += getItemByKey(s).hashCode();
+        result += this.keys.size();
+        for (Item value : this.values) {
+            result += value.hashCode();
         }
         return result;
     }
@@ -209,8 +325,40 @@ public class ObjectItem implements Item {
     @Override
     public void setMutabilityLevel(int mutabilityLevel) {
         this.mutabilityLevel = mutabilityLevel;
-        for (Item item : values) {
-            item.setMutabilityLevel(mutabilityLevel);
+        for (Item item : this.values) {
+            // shared values get the mutability level of this object when they are copied.
+            if (this.ownedValues == null || this.ownedValues.contains(item)) {
+                item.setMutabilityLevel(mutabilityLevel);
+            }
+        }
+    }
+
+    /**
+     * Copies this object in time proportional to its number of keys. Values at mutability level 0 are shared with
+     * the copy until it accesses them: they can only be updated by the main query, after which no copy is read
+     * anymore. Other values belong to the copy of an enclosing transform expression, which may still update them,
+     * so that they are copied right away.
+     */
+    @Override
+    public Item copyForUpdates(int mutabilityLevel) {
+        // both objects now share the keys, so that they are copied before either of them modifies them.
+        this.sharedKeys = true;
+        ObjectItem result = new ObjectItem();
+        result.keys = this.keys;
+        result.keyIndex = this.keyIndex;
+        result.sharedKeys = true;
+        result.mutabilityLevel = mutabilityLevel;
+        result.ownedValues = Collections.newSetFromMap(new IdentityHashMap<>());
+        result.values = new ArrayList<>(this.values.size());
+        for (Item value : this.values) {
+            if (value.isAtomic() || value.getMutabilityLevel() == 0) {
+                result.values.add(value);
+            } else {
+                Item copy = value.copyForUpdates(mutabilityLevel);
+                result.values.add(copy);
+                result.ownedValues.add(copy);
+            }
         }
+        return result;
     }
 }
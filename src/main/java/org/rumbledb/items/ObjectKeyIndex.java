@@ -0,0 +1,195 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Authors: Stefan Irimescu, Can Berker Cikis
+ *
+ */
+
+package org.rumbledb.items;
+
+import org.rumbledb.exceptions.DuplicateObjectKeyException;
+import org.rumbledb.exceptions.ExceptionMetadata;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * An open-addressing hash index from object keys to their position in the (ordered) key list of an object.
+ *
+ * Objects with fewer than THRESHOLD keys are scanned linearly, which is faster than hashing for small sizes, so
+ * the index is only built for wider objects. The index does not keep a reference to the key list and can be shared
+ * between objects that have the same keys in the same order.
+ */
+public class ObjectKeyIndex implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * The number of keys from which lookups go through a hash index rather than a linear scan.
+     */
+    public static final int THRESHOLD = 8;
+
+    private String[] slotKeys;
+    private int[] slotPositions;
+    private int size;
+
+    private ObjectKeyIndex(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(expectedSize, 2) * 2 - 1) << 1;
+        this.slotKeys = new String[capacity];
+        this.slotPositions = new int[capacity];
+        this.size = 0;
+    }
+
+    private ObjectKeyIndex(ObjectKeyIndex other) {
+        this.slotKeys = other.slotKeys.clone();
+        this.slotPositions = other.slotPositions.clone();
+        this.size = other.size;
+    }
+
+    /**
+     * Builds an index over the given keys.
+     *
+     * @param keys the keys, in order.
+     * @param metadata the metadata to attach to the error thrown if two keys are equal.
+     * @return the index.
+     */
+    public static ObjectKeyIndex build(List<String> keys, ExceptionMetadata metadata) {
+        ObjectKeyIndex result = new ObjectKeyIndex(keys.size());
+        for (int i = 0; i < keys.size(); ++i) {
+            if (!result.put(keys.get(i), i)) {
+                throw new DuplicateObjectKeyException(keys.get(i), metadata);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Checks that no key appears twice, using a linear scan for small lists and a temporary index otherwise.
+     *
+     * @param keys the keys.
+     * @param metadata the metadata to attach to the error thrown if two keys are equal.
+     * @return the index that was built, or null if the list was small enough not to need one.
+     */
+    public static ObjectKeyIndex checkForDuplicateKeys(List<String> keys, ExceptionMetadata metadata) {
+        if (keys.size() >= THRESHOLD) {
+            return build(keys, metadata);
+        }
+        for (int i = 1; i < keys.size(); ++i) {
+            String key = keys.get(i);
+            for (int j = 0; j < i; ++j) {
+                if (key.equals(keys.get(j))) {
+                    throw new DuplicateObjectKeyException(key, metadata);
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Looks up a key in a list, using the index if there is one.
+     *
+     * @param keys the keys, in order.
+     * @param index the index over these keys, or null.
+     * @param key the key to look up.
+     * @return the position of the key, or -1 if it is absent.
+     */
+    public static int indexOf(List<String> keys, ObjectKeyIndex index, String key) {
+        if (index != null) {
+            return index.indexOf(key);
+        }
+        for (int i = 0; i < keys.size(); ++i) {
+            if (key.equals(keys.get(i))) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the position of a key.
+     *
+     * @param key the key to look up.
+     * @return the position of the key, or -1 if it is absent.
+     */
+    public int indexOf(String key) {
+        int mask = this.slotKeys.length - 1;
+        int slot = spread(key.hashCode()) & mask;
+        String candidate;
+        while ((candidate = this.slotKeys[slot]) != null) {
+            if (candidate.equals(key)) {
+                return this.slotPositions[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    /**
+     * Adds a key at the given position.
+     *
+     * @param key the key.
+     * @param position its position in the key list.
+     * @return false if the key was already present (in which case the index is left unchanged), true otherwise.
+     */
+    public boolean put(String key, int position) {
+        if ((this.size + 1) * 2 > this.slotKeys.length) {
+            resize();
+        }
+        int mask = this.slotKeys.length - 1;
+        int slot = spread(key.hashCode()) & mask;
+        String candidate;
+        while ((candidate = this.slotKeys[slot]) != null) {
+            if (candidate.equals(key)) {
+                return false;
+            }
+            slot = (slot + 1) & mask;
+        }
+        this.slotKeys[slot] = key;
+        this.slotPositions[slot] = position;
+        ++this.size;
+        return true;
+    }
+
+    /**
+     * Returns an independent copy of this index, to be modified by an object that no longer shares its keys.
+     *
+     * @return the copy.
+     */
+    public ObjectKeyIndex copy() {
+        return new ObjectKeyIndex(this);
+    }
+
+    public int size() {
+        return this.size;
+    }
+
+    private void resize() {
+        String[] oldKeys = this.slotKeys;
+        int[] oldPositions = this.slotPositions;
+        this.slotKeys = new String[oldKeys.length * 2];
+        this.slotPositions = new int[oldKeys.length * 2];
+        this.size = 0;
+        for (int i = 0; i < oldKeys.length; ++i) {
+            if (oldKeys[i] != null) {
+                put(oldKeys[i], oldPositions[i]);
+            }
+        }
+    }
+
+    private static int spread(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+}
@@ -0,0 +1,69 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Authors: Stefan Irimescu, Can Berker Cikis
+ *
+ */
+
+package org.rumbledb.items;
+
+import org.rumbledb.exceptions.ExceptionMetadata;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * An immutable, ordered list of object keys together with its lookup index.
+ *
+ * A shape is shared by all the objects that have exactly these keys in this order. Objects built on a shape copy
+ * its keys the first time they are modified.
+ */
+public class ObjectShape implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+    private final List<String> keys;
+    private final ObjectKeyIndex keyIndex;
+
+    /**
+     * Creates a shape with the given keys.
+     *
+     * @param keys the keys, in order. The list is copied.
+     * @param metadata the metadata to attach to the error thrown if two keys are equal.
+     */
+    public ObjectShape(List<String> keys, ExceptionMetadata metadata) {
+        this.keys = Collections.unmodifiableList(Arrays.asList(keys.toArray(new String[0])));
+        this.keyIndex = ObjectKeyIndex.checkForDuplicateKeys(this.keys, metadata);
+    }
+
+    public List<String> getKeys() {
+        return this.keys;
+    }
+
+    /**
+     * Returns the lookup index of this shape. It must not be modified.
+     *
+     * @return the index, or null if the shape is small enough to be scanned linearly.
+     */
+    public ObjectKeyIndex getKeyIndex() {
+        return this.keyIndex;
+    }
+
+    public int size() {
+        return this.keys.size();
+    }
+}
@@ -0,0 +1,68 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Authors: Stefan Irimescu, Can Berker Cikis
+ *
+ */
+
+package org.rumbledb.items;
+
+import org.rumbledb.exceptions.ExceptionMetadata;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Interns the key lists of parsed objects, so that objects with the same keys share one {@link ObjectShape}.
+ *
+ * A dictionary is meant to live for the duration of one partition (or one local file) and is not thread-safe. It
+ * stops accepting new shapes once MAX_SHAPES distinct shapes have been seen, so that heterogeneous data does not
+ * make it grow without bound; objects with other shapes then simply get their own shape.
+ */
+public class ObjectShapeDictionary {
+
+    public static final int MAX_SHAPES = 1024;
+
+    private final Map<List<String>, ObjectShape> shapes;
+
+    public ObjectShapeDictionary() {
+        this.shapes = new HashMap<>();
+    }
+
+    /**
+     * Returns the shape for the given keys, creating it if needed.
+     *
+     * @param keys the keys, in order. The list is not retained.
+     * @param metadata the metadata to attach to the error thrown if two keys are equal.
+     * @return the shape.
+     */
+    public ObjectShape getShape(List<String> keys, ExceptionMetadata metadata) {
+        ObjectShape shape = this.shapes.get(keys);
+        if (shape != null) {
+            return shape;
+        }
+        shape = new ObjectShape(keys, metadata);
+        if (this.shapes.size() < MAX_SHAPES) {
+            this.shapes.put(shape.getKeys(), shape);
+        }
+        return shape;
+    }
+
+    public int size() {
+        return this.shapes.size();
+    }
+}
@@ -39,6 +39,7 @@ import org.rumbledb.exceptions.OurBadException;
 import org.rumbledb.exceptions.ParsingException;
 import org.rumbledb.exceptions.RumbleException;
 import org.rumbledb.items.ItemFactory;
+import org.rumbledb.items.ObjectShapeDictionary;
 
 import com.fasterxml.jackson.dataformat.yaml.YAMLParser;
 import com.google.gson.stream.JsonReader;
@@ -92,6 +93,25 @@ public class ItemParser implements Serializable {
      * @return the parsed item.
      */
     public static Item getItemFromObject(JsonReader object, ExceptionMetadata metadata) {
+        return getItemFromObject(object, metadata, null, null);
+    }
+
+    /**
+     * Parses a JSON string, accessible via a reader, to an item, sharing the keys of objects with the same shape and
+     * skipping the values that are not needed.
+     * 
+     * @param object the JSON reader.
+     * @param metadata exception metadata is an error is thrown.
+     * @param shapes the dictionary in which key lists are interned, or null not to share them.
+     * @param projection the paths to keep, or null to keep everything.
+     * @return the parsed item.
+     */
+    public static Item getItemFromObject(
+            JsonReader object,
+            ExceptionMetadata metadata,
+            ObjectShapeDictionary shapes,
+            JSONProjection projection
+    ) {
         try {
             if (object.peek() == JsonToken.STRING) {
                 return ItemFactory.getInstance().createStringItem(object.nextString());
@@ -113,7 +133,7 @@ public class ItemParser implements Serializable {
                 List<Item> values = new ArrayList<>();
                 object.beginArray();
                 while (object.hasNext()) {
-                    values.add(getItemFromObject(object, metadata));
+                    values.add(getItemFromObject(object, metadata, shapes, null));
                 }
                 object.endArray();
                 return ItemFactory.getInstance().createArrayItem(values);
@@ -123,10 +143,27 @@ public class ItemParser implements Serializable {
                 List<Item> values = new ArrayList<>();
                 object.beginObject();
                 while (object.hasNext()) {
-                    keys.add(object.nextName());
-                    values.add(getItemFromObject(object, metadata));
+                    String key = object.nextName();
+                    JSONProjection valueProjection = projection == null ? null : projection.getField(key);
+                    if (projection != null && valueProjection == null) {
+                        object.skipValue();
+                        continue;
+                    }
+                    keys.add(key);
+                    values.add(
+                        getItemFromObject(
+                            object,
+                            metadata,
+                            shapes,
+                            valueProjection == null || valueProjection.isTotal() ? null : valueProjection
+                        )
+                    );
                 }
                 object.endObject();
+                if (shapes != null) {
+                    return ItemFactory.getInstance()
+                        .createObjectItem(shapes.getShape(keys, metadata), values);
+                }
                 return ItemFactory.getInstance()
                     .createObjectItem(keys, values, metadata);
             }
@@ -327,6 +364,10 @@ public class ItemParser implements Serializable {
         if (itemType != null && itemType.getName() == null) {
             itemType = itemType.getBaseType();
         }
+        if (BuiltinTypesCatalogue.item.equals(itemType)) {
+            // e.g., the members of an array of any type: there is nothing to annotate.
+            itemType = null;
+        }
         if (row != null && row.isNullAt(i)) {
             return ItemFactory.getInstance().createNullItem();
         } else if (fieldType.equals(DataTypes.StringType)) {
@@ -0,0 +1,466 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Authors: Stefan Irimescu, Can Berker Cikis
+ *
+ */
+
+package org.rumbledb.items.parsing;
+
+import org.rumbledb.api.Item;
+import org.rumbledb.exceptions.ExceptionMetadata;
+import org.rumbledb.exceptions.ParsingException;
+import org.rumbledb.exceptions.RumbleException;
+import org.rumbledb.items.ItemFactory;
+import org.rumbledb.items.ObjectShapeDictionary;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Parses JSON values directly from UTF-8 encoded bytes (for example a Hadoop Text line) to items, without creating
+ * an intermediate String for the line or for numbers.
+ *
+ * Integers that fit in an int (resp. a long) are accumulated directly and do not go through BigInteger. An instance
+ * keeps scratch buffers between calls, and is therefore meant to be used by a single thread, for example for one
+ * partition. Like ItemParser, it only reads the first value of the input and ignores what follows it.
+ */
+public class JSONBytesParser {
+
+    private static final String NOT_WELL_FORMED =
+        "An error happened while parsing JSON. JSON is not well-formed! Hint: if you use json-file(), it must be in the JSON Lines format, with one value per line. If this is not the case, consider using json-doc().";
+    // 18 decimal digits always fit in a long.
+    private static final int MAX_LONG_DIGITS = 18;
+
+    private final ExceptionMetadata metadata;
+    private final ObjectShapeDictionary shapes;
+    private final JSONProjection projection;
+    private byte[] bytes;
+    private int position;
+    private int end;
+    private char[] numberBuffer;
+    private StringBuilder stringBuilder;
+
+    /**
+     * Creates a parser.
+     *
+     * @param metadata exception metadata is an error is thrown.
+     * @param shapes the dictionary in which key lists are interned, or null not to share them.
+     * @param projection the paths to keep in each parsed value, or null to keep everything. Skipped values are not
+     *        validated beyond bracket and string matching.
+     */
+    public JSONBytesParser(ExceptionMetadata metadata, ObjectShapeDictionary shapes, JSONProjection projection) {
+        this.metadata = metadata;
+        this.shapes = shapes;
+        this.projection = projection;
+        this.numberBuffer = new char[32];
+        this.stringBuilder = new StringBuilder();
+    }
+
+    /**
+     * Parses the first JSON value in the given bytes.
+     *
+     * @param bytes the UTF-8 encoded bytes. They are not retained.
+     * @param offset the position of the first byte.
+     * @param length the number of bytes to consider.
+     * @return the parsed item.
+     */
+    public Item parse(byte[] bytes, int offset, int length) {
+        this.bytes = bytes;
+        this.position = offset;
+        this.end = offset + length;
+        try {
+            return readValue(this.projection);
+        } catch (ParsingException e) {
+            throw e;
+        } catch (Exception e) {
+            RumbleException r = new ParsingException(NOT_WELL_FORMED, this.metadata);
+            r.initCause(e);
+            throw r;
+        } finally {
+            this.bytes = null;
+        }
+    }
+
+    private Item readValue(JSONProjection valueProjection) {
+        skipWhitespace();
+        if (this.position >= this.end) {
+            throw error();
+        }
+        byte b = this.bytes[this.position];
+        switch (b) {
+            case '{':
+                return readObject(valueProjection);
+            case '[':
+                return readArray();
+            case '"':
+                return ItemFactory.getInstance().createStringItem(readString());
+            case 't':
+                expectLiteral("true");
+                return ItemFactory.getInstance().createBooleanItem(true);
+            case 'f':
+                expectLiteral("false");
+                return ItemFactory.getInstance().createBooleanItem(false);
+            case 'n':
+                expectLiteral("null");
+                return ItemFactory.getInstance().createNullItem();
+            default:
+                if (b == '-' || (b >= '0' && b <= '9')) {
+                    return readNumber();
+                }
+                throw error();
+        }
+    }
+
+    private Item readObject(JSONProjection objectProjection) {
+        ++this.position;
+        List<String> keys = new ArrayList<>();
+        List<Item> values = new ArrayList<>();
+        skipWhitespace();
+        if (peek() == '}') {
+            ++this.position;
+        } else {
+            while (true) {
+                skipWhitespace();
+                if (peek() != '"') {
+                    throw error();
+                }
+                String key = readString();
+                skipWhitespace();
+                expect(':');
+                JSONProjection valueProjection = objectProjection == null ? null : objectProjection.getField(key);
+                if (objectProjection != null && valueProjection == null) {
+                    skipValue();
+                } else {
+                    keys.add(key);
+                    values.add(
+                        readValue(valueProjection == null || valueProjection.isTotal() ? null : valueProjection)
+                    );
+                }
+                skipWhitespace();
+                byte b = next();
+                if (b == '}') {
+                    break;
+                }
+                if (b != ',') {
+                    throw error();
+                }
+            }
+        }
+        if (this.shapes != null) {
+            return ItemFactory.getInstance().createObjectItem(this.shapes.getShape(keys, this.metadata), values);
+        }
+        return ItemFactory.getInstance().createObjectItem(keys, values, this.metadata);
+    }
+
+    private Item readArray() {
+        ++this.position;
+        List<Item> values = new ArrayList<>();
+        skipWhitespace();
+        if (peek() == ']') {
+            ++this.position;
+        } else {
+            while (true) {
+                values.add(readValue(null));
+                skipWhitespace();
+                byte b = next();
+                if (b == ']') {
+                    break;
+                }
+                if (b != ',') {
+                    throw error();
+                }
+            }
+        }
+        return ItemFactory.getInstance().createArrayItem(values);
+    }
+
+    private String readString() {
+        ++this.position;
+        int start = this.position;
+        boolean ascii = true;
+        // fast path: no escape sequences.
+        while (this.position < this.end) {
+            byte b = this.bytes[this.position];
+            if (b == '"') {
+                String result = new String(
+                        this.bytes,
+                        start,
+                        this.position - start,
+                        ascii ? StandardCharsets.ISO_8859_1 : StandardCharsets.UTF_8
+                );
+                ++this.position;
+                return result;
+            }
+            if (b == '\\') {
+                return readEscapedString(start);
+            }
+            if (b < 0) {
+                ascii = false;
+            }
+            ++this.position;
+        }
+        throw error();
+    }
+
+    private void skipValue() {
+        skipWhitespace();
+        int depth = 0;
+        while (true) {
+            byte b = peek();
+            if (b == '"') {
+                skipString();
+            } else if (b == '{' || b == '[') {
+                ++depth;
+                ++this.position;
+            } else if (b == '}' || b == ']') {
+                if (depth == 0) {
+                    // end of the enclosing object: the skipped value was an atomic one.
+                    return;
+                }
+                --depth;
+                ++this.position;
+            } else if (b == ',' && depth == 0) {
+                return;
+            } else {
+                ++this.position;
+            }
+            if (depth == 0 && (b == '"' || b == '}' || b == ']')) {
+                return;
+            }
+        }
+    }
+
+    private void skipString() {
+        ++this.position;
+        while (true) {
+            byte b = next();
+            if (b == '"') {
+                return;
+            }
+            if (b == '\\') {
+                ++this.position;
+            }
+        }
+    }
+
+    private String readEscapedString(int start) {
+        StringBuilder sb = this.stringBuilder;
+        sb.setLength(0);
+        int segmentStart = start;
+        while (this.position < this.end) {
+            byte b = this.bytes[this.position];
+            if (b == '"') {
+                appendSegment(sb, segmentStart, this.position);
+                ++this.position;
+                return sb.toString();
+            }
+            if (b != '\\') {
+                ++this.position;
+                continue;
+            }
+            appendSegment(sb, segmentStart, this.position);
+            ++this.position;
+            byte escaped = next();
+            switch (escaped) {
+                case '"':
+                case '\\':
+                case '/':
+                    sb.append((char) escaped);
+                    break;
+                case 'b':
+                    sb.append('\b');
+                    break;
+                case 'f':
+                    sb.append('\f');
+                    break;
+                case 'n':
+                    sb.append('\n');
+                    break;
+                case 'r':
+                    sb.append('\r');
+                    break;
+                case 't':
+                    sb.append('\t');
+                    break;
+                case 'u':
+                    if (this.position + 4 > this.end) {
+                        throw error();
+                    }
+                    int c = 0;
+                    for (int i = 0; i < 4; ++i) {
+                        c = (c << 4) | hexValue(this.bytes[this.position++]);
+                    }
+                    // surrogate pairs arrive as two escapes and are appended one char at a time.
+                    sb.append((char) c);
+                    break;
+                default:
+                    throw error();
+            }
+            segmentStart = this.position;
+        }
+        throw error();
+    }
+
+    private void appendSegment(StringBuilder sb, int from, int to) {
+        if (to > from) {
+            sb.append(new String(this.bytes, from, to - from, StandardCharsets.UTF_8));
+        }
+    }
+
+    private int hexValue(byte b) {
+        if (b >= '0' && b <= '9') {
+            return b - '0';
+        }
+        if (b >= 'a' && b <= 'f') {
+            return b - 'a' + 10;
+        }
+        if (b >= 'A' && b <= 'F') {
+            return b - 'A' + 10;
+        }
+        throw error();
+    }
+
+    private Item readNumber() {
+        int start = this.position;
+        boolean negative = false;
+        if (this.bytes[this.position] == '-') {
+            negative = true;
+            ++this.position;
+        }
+        int digitsStart = this.position;
+        long value = 0;
+        while (this.position < this.end && isDigit(this.bytes[this.position])) {
+            value = value * 10 + (this.bytes[this.position] - '0');
+            ++this.position;
+        }
+        int digits = this.position - digitsStart;
+        if (digits == 0 || (digits > 1 && this.bytes[digitsStart] == '0')) {
+            throw error();
+        }
+        boolean isDecimal = false;
+        boolean isDouble = false;
+        if (this.position < this.end && this.bytes[this.position] == '.') {
+            isDecimal = true;
+            ++this.position;
+            if (skipDigits() == 0) {
+                throw error();
+            }
+        }
+        if (this.position < this.end && (this.bytes[this.position] == 'e' || this.bytes[this.position] == 'E')) {
+            isDouble = true;
+            ++this.position;
+            if (this.position < this.end && (this.bytes[this.position] == '+' || this.bytes[this.position] == '-')) {
+                ++this.position;
+            }
+            if (skipDigits() == 0) {
+                throw error();
+            }
+        }
+        if (isDouble) {
+            return ItemFactory.getInstance().createDoubleItem(Double.parseDouble(numberString(start)));
+        }
+        if (isDecimal) {
+            return ItemFactory.getInstance().createDecimalItem(numberDecimal(start));
+        }
+        if (digits <= MAX_LONG_DIGITS) {
+            return ItemFactory.getInstance().createLongItem(negative ? -value : value);
+        }
+        return ItemFactory.getInstance().createIntegerItem(new BigInteger(numberString(start)));
+    }
+
+    private int skipDigits() {
+        int start = this.position;
+        while (this.position < this.end && isDigit(this.bytes[this.position])) {
+            ++this.position;
+        }
+        return this.position - start;
+    }
+
+    private BigDecimal numberDecimal(int start) {
+        int length = fillNumberBuffer(start);
+        return new BigDecimal(this.numberBuffer, 0, length);
+    }
+
+    private String numberString(int start) {
+        int length = fillNumberBuffer(start);
+        return new String(this.numberBuffer, 0, length);
+    }
+
+    private int fillNumberBuffer(int start) {
+        int length = this.position - start;
+        if (this.numberBuffer.length < length) {
+            this.numberBuffer = new char[Math.max(length, this.numberBuffer.length * 2)];
+        }
+        // numbers are ASCII, so bytes map one to one to chars.
+        for (int i = 0; i < length; ++i) {
+            this.numberBuffer[i] = (char) this.bytes[start + i];
+        }
+        return length;
+    }
+
+    private static boolean isDigit(byte b) {
+        return b >= '0' && b <= '9';
+    }
+
+    private void expectLiteral(String literal) {
+        if (this.position + literal.length() > this.end) {
+            throw error();
+        }
+        for (int i = 0; i < literal.length(); ++i) {
+            if (this.bytes[this.position + i] != literal.charAt(i)) {
+                throw error();
+            }
+        }
+        this.position += literal.length();
+    }
+
+    private void expect(char c) {
+        if (next() != c) {
+            throw error();
+        }
+    }
+
+    private byte peek() {
+        if (this.position >= this.end) {
+            throw error();
+        }
+        return this.bytes[this.position];
+    }
+
+    private byte next() {
+        byte b = peek();
+        ++this.position;
+        return b;
+    }
+
+    private void skipWhitespace() {
+        while (this.position < this.end) {
+            byte b = this.bytes[this.position];
+            if (b != ' ' && b != '\t' && b != '\n' && b != '\r') {
+                return;
+            }
+            ++this.position;
+        }
+    }
+
+    private ParsingException error() {
+        return new ParsingException(NOT_WELL_FORMED, this.metadata);
+    }
+}
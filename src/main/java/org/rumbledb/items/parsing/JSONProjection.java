@@ -0,0 +1,103 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Authors: Stefan Irimescu, Can Berker Cikis
+ *
+ */
+
+package org.rumbledb.items.parsing;
+
+import java.io.Serializable;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * The object paths of a parsed JSON value that a query actually uses.
+ *
+ * A projection is either total (the whole value is needed) or lists, for each needed key of an object, the
+ * projection of the corresponding value. Keys that are not listed can be skipped by the parser. Projections only
+ * apply to objects: arrays and atomic values at a projected position are always kept in full.
+ */
+public class JSONProjection implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+    // null if the whole value is needed.
+    private Map<String, JSONProjection> fields;
+
+    private JSONProjection(Map<String, JSONProjection> fields) {
+        this.fields = fields;
+    }
+
+    /**
+     * Creates a projection that does not need any key yet.
+     *
+     * @return the projection.
+     */
+    public static JSONProjection empty() {
+        return new JSONProjection(new TreeMap<>());
+    }
+
+    public boolean isTotal() {
+        return this.fields == null;
+    }
+
+    /**
+     * Marks a path as needed, together with everything below it.
+     *
+     * @param path the keys leading to the needed value. An empty path makes the projection total.
+     */
+    public void addPath(List<String> path) {
+        if (isTotal()) {
+            return;
+        }
+        if (path.isEmpty()) {
+            this.fields = null;
+            return;
+        }
+        this.fields.computeIfAbsent(path.get(0), k -> empty()).addPath(path.subList(1, path.size()));
+    }
+
+    /**
+     * Returns the projection of the value associated with a key.
+     *
+     * @param key the key.
+     * @return the projection of its value, or null if the value is not needed.
+     */
+    public JSONProjection getField(String key) {
+        if (isTotal()) {
+            return this;
+        }
+        return this.fields.get(key);
+    }
+
+    @Override
+    public String toString() {
+        if (isTotal()) {
+            return "*";
+        }
+        StringBuilder sb = new StringBuilder("{");
+        String separator = "";
+        for (Map.Entry<String, JSONProjection> entry : this.fields.entrySet()) {
+            sb.append(separator).append(entry.getKey());
+            if (!entry.getValue().isTotal()) {
+                sb.append(entry.getValue());
+            }
+            separator = ", ";
+        }
+        return sb.append("}").toString();
+    }
+}
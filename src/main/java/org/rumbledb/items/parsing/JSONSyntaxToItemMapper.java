@@ -23,6 +23,7 @@ package org.rumbledb.items.parsing;
 import org.apache.spark.api.java.function.FlatMapFunction;
 import org.rumbledb.api.Item;
 import org.rumbledb.exceptions.ExceptionMetadata;
+import org.rumbledb.items.ObjectShapeDictionary;
 import com.google.gson.stream.JsonReader;
 
 import java.io.StringReader;
@@ -32,13 +33,20 @@ public class JSONSyntaxToItemMapper implements FlatMapFunction<Iterator<String>,
 
     private static final long serialVersionUID = 1L;
     private final ExceptionMetadata metadata;
+    private final JSONProjection projection;
 
     public JSONSyntaxToItemMapper(ExceptionMetadata metadata) {
+        this(metadata, null);
+    }
+
+    public JSONSyntaxToItemMapper(ExceptionMetadata metadata, JSONProjection projection) {
         this.metadata = metadata;
+        this.projection = projection;
     }
 
     @Override
     public Iterator<Item> call(Iterator<String> stringIterator) throws Exception {
+        ObjectShapeDictionary shapes = new ObjectShapeDictionary();
         return new Iterator<Item>() {
             @Override
             public boolean hasNext() {
@@ -48,7 +56,12 @@ public class JSONSyntaxToItemMapper implements FlatMapFunction<Iterator<String>,
             @Override
             public Item next() {
                 JsonReader object = new JsonReader(new StringReader(stringIterator.next()));
-                return ItemParser.getItemFromObject(object, JSONSyntaxToItemMapper.this.metadata);
+                return ItemParser.getItemFromObject(
+                    object,
+                    JSONSyntaxToItemMapper.this.metadata,
+                    shapes,
+                    JSONSyntaxToItemMapper.this.projection
+                );
             }
 
             @Override
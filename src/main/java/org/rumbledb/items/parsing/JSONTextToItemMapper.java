@@ -0,0 +1,67 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Authors: Stefan Irimescu, Can Berker Cikis
+ *
+ */
+
+package org.rumbledb.items.parsing;
+
+import org.apache.hadoop.io.Text;
+import org.apache.spark.api.java.function.FlatMapFunction;
+import org.rumbledb.api.Item;
+import org.rumbledb.exceptions.ExceptionMetadata;
+import org.rumbledb.items.ObjectShapeDictionary;
+
+import java.util.Iterator;
+
+/**
+ * Parses JSON Lines read by Hadoop directly from their UTF-8 bytes. Hadoop reuses Text instances, so each line is
+ * parsed as soon as it is pulled.
+ */
+public class JSONTextToItemMapper implements FlatMapFunction<Iterator<Text>, Item> {
+
+    private static final long serialVersionUID = 1L;
+    private final ExceptionMetadata metadata;
+    private final JSONProjection projection;
+
+    public JSONTextToItemMapper(ExceptionMetadata metadata, JSONProjection projection) {
+        this.metadata = metadata;
+        this.projection = projection;
+    }
+
+    @Override
+    public Iterator<Item> call(Iterator<Text> textIterator) throws Exception {
+        JSONBytesParser parser = new JSONBytesParser(this.metadata, new ObjectShapeDictionary(), this.projection);
+        return new Iterator<Item>() {
+            @Override
+            public boolean hasNext() {
+                return textIterator.hasNext();
+            }
+
+            @Override
+            public Item next() {
+                Text line = textIterator.next();
+                return parser.parse(line.getBytes(), 0, line.getLength());
+            }
+
+            @Override
+            public void remove() {
+                throw new UnsupportedOperationException();
+            }
+        };
+    }
+}
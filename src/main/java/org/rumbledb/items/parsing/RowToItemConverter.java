@@ -0,0 +1,509 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.rumbledb.items.parsing;
+
+import org.apache.commons.codec.binary.Hex;
+import org.apache.spark.ml.linalg.DenseVector;
+import org.apache.spark.ml.linalg.SparseVector;
+import org.apache.spark.ml.linalg.Vector;
+import org.apache.spark.ml.linalg.VectorUDT;
+import org.apache.spark.sql.Row;
+import org.apache.spark.sql.types.ArrayType;
+import org.apache.spark.sql.types.DataType;
+import org.apache.spark.sql.types.DataTypes;
+import org.apache.spark.sql.types.DecimalType;
+import org.apache.spark.sql.types.StructField;
+import org.apache.spark.sql.types.StructType;
+import org.joda.time.DateTime;
+import org.rumbledb.api.Item;
+import org.rumbledb.exceptions.ExceptionMetadata;
+import org.rumbledb.exceptions.OurBadException;
+import org.rumbledb.items.ItemFactory;
+import org.rumbledb.items.ObjectShape;
+import org.rumbledb.types.BuiltinTypesCatalogue;
+import org.rumbledb.types.FieldDescriptor;
+import org.rumbledb.types.ItemType;
+import scala.collection.mutable.WrappedArray;
+import sparksoniq.spark.SparkSessionManager;
+
+import java.io.Serializable;
+import java.lang.reflect.Array;
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Converts the rows of a DataFrame with a given schema to items, like ItemParser.getItemFromRow(), but with a tree of
+ * converters that is built once for the schema: each field gets a converter for its type, arrays and structs get
+ * nested converters, and the keys of the objects are interned in a shape shared by all the objects in which no field
+ * is dropped. Rows are then converted without looking at their schema or dispatching on the types of their fields.
+ *
+ * The values of objects are converted lazily: an object keeps its row and only converts a field when it is first
+ * accessed, looking it up by its position in the schema through the index of the shape.
+ */
+public class RowToItemConverter implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+    private final StructType schema;
+    private final ValueConverter converter;
+
+    /**
+     * Builds the converter for a schema.
+     *
+     * @param schema the schema of the rows.
+     * @param itemType the type to annotate the output items with (for now, it can be null for no annotation).
+     * @param metadata exception metadata is an error is thrown.
+     */
+    public RowToItemConverter(StructType schema, ItemType itemType, ExceptionMetadata metadata) {
+        this.schema = schema;
+        this.converter = createRowConverter(schema, itemType, metadata);
+    }
+
+    /**
+     * Gets a converter for the schema of a row, reusing the given one if it was built for the same schema.
+     *
+     * @param converter the converter used for the previous row, or null.
+     * @param row the row to convert.
+     * @param itemType the type to annotate the output items with, which must be the same for all rows.
+     * @param metadata exception metadata is an error is thrown.
+     * @return a converter for the row.
+     */
+    public static RowToItemConverter forRow(
+            RowToItemConverter converter,
+            Row row,
+            ItemType itemType,
+            ExceptionMetadata metadata
+    ) {
+        StructType schema = row.schema();
+        if (converter != null && (converter.schema == schema || converter.schema.equals(schema))) {
+            return converter;
+        }
+        return new RowToItemConverter(schema, itemType, metadata);
+    }
+
+    /**
+     * Converts a row, which must have the schema of this converter.
+     *
+     * @param row the row.
+     * @return the converted item.
+     */
+    public Item convert(Row row) {
+        return this.converter.convert(row);
+    }
+
+    /**
+     * Converts a non-null value of a DataFrame column to an item.
+     */
+    private interface ValueConverter extends Serializable {
+        Item convert(Object value);
+    }
+
+    private static ValueConverter createRowConverter(
+            StructType schema,
+            ItemType itemType,
+            ExceptionMetadata metadata
+    ) {
+        StructField[] fields = schema.fields();
+        if (fields.length == 1 && fields[0].name().equals(SparkSessionManager.atomicJSONiqItemColumnName)) {
+            ValueConverter columnConverter = createConverter(fields[0].dataType(), itemType, metadata);
+            return value -> {
+                Row row = (Row) value;
+                return row.isNullAt(0)
+                    ? ItemFactory.getInstance().createNullItem()
+                    : columnConverter.convert(row.get(0));
+            };
+        }
+        return new ObjectConverter(schema, itemType, metadata);
+    }
+
+    private static ValueConverter createConverter(DataType fieldType, ItemType itemType, ExceptionMetadata metadata) {
+        if (itemType != null && itemType.getName() == null) {
+            itemType = itemType.getBaseType();
+        }
+        if (BuiltinTypesCatalogue.item.equals(itemType)) {
+            // e.g., the members of an array of any type: there is nothing to annotate.
+            itemType = null;
+        }
+        if (fieldType.equals(DataTypes.StringType)) {
+            return annotate(
+                value -> ItemFactory.getInstance().createStringItem((String) value),
+                itemType,
+                BuiltinTypesCatalogue.stringItem
+            );
+        } else if (fieldType.equals(DataTypes.BooleanType)) {
+            return annotate(
+                value -> ItemFactory.getInstance().createBooleanItem((Boolean) value),
+                itemType,
+                BuiltinTypesCatalogue.booleanItem
+            );
+        } else if (fieldType.equals(DataTypes.DoubleType)) {
+            return annotate(
+                value -> ItemFactory.getInstance().createDoubleItem((Double) value),
+                itemType,
+                BuiltinTypesCatalogue.doubleItem
+            );
+        } else if (fieldType.equals(DataTypes.IntegerType)) {
+            return annotate(
+                value -> ItemFactory.getInstance().createIntItem((Integer) value),
+                itemType,
+                BuiltinTypesCatalogue.intItem
+            );
+        } else if (fieldType.equals(DataTypes.FloatType)) {
+            return annotate(
+                value -> ItemFactory.getInstance().createFloatItem((Float) value),
+                itemType,
+                BuiltinTypesCatalogue.floatItem
+            );
+        } else if (fieldType instanceof DecimalType && ((DecimalType) fieldType).scale() == 0) {
+            return annotate(
+                value -> ItemFactory.getInstance().createIntegerItem(((BigDecimal) value).toBigIntegerExact()),
+                itemType,
+                BuiltinTypesCatalogue.integerItem
+            );
+        } else if (fieldType instanceof DecimalType) {
+            return annotate(
+                value -> ItemFactory.getInstance().createDecimalItem((BigDecimal) value),
+                itemType,
+                BuiltinTypesCatalogue.decimalItem
+            );
+        } else if (fieldType.equals(DataTypes.LongType)) {
+            return annotate(
+                value -> ItemFactory.getInstance().createLongItem((Long) value),
+                itemType,
+                BuiltinTypesCatalogue.longItem
+            );
+        } else if (fieldType.equals(DataTypes.NullType)) {
+            return value -> ItemFactory.getInstance().createNullItem();
+        } else if (fieldType.equals(DataTypes.ByteType)) {
+            return annotate(
+                value -> ItemFactory.getInstance().createIntItem((Byte) value),
+                itemType,
+                BuiltinTypesCatalogue.intItem
+            );
+        } else if (fieldType.equals(DataTypes.ShortType)) {
+            return annotate(
+                value -> ItemFactory.getInstance().createIntItem((Short) value),
+                itemType,
+                BuiltinTypesCatalogue.intItem
+            );
+        } else if (fieldType.equals(DataTypes.TimestampType)) {
+            return annotate(
+                value -> ItemFactory.getInstance()
+                    .createDateTimeItem(new DateTime(((Timestamp) value).toInstant()), false),
+                itemType,
+                BuiltinTypesCatalogue.dateTimeStampItem
+            );
+        } else if (fieldType.equals(DataTypes.DateType)) {
+            return annotate(
+                value -> ItemFactory.getInstance().createDateItem(new DateTime(((Date) value).getTime()), false),
+                itemType,
+                BuiltinTypesCatalogue.dateItem
+            );
+        } else if (fieldType.equals(DataTypes.BinaryType)) {
+            return annotate(
+                value -> ItemFactory.getInstance().createHexBinaryItem(Hex.encodeHexString((byte[]) value)),
+                itemType,
+                BuiltinTypesCatalogue.hexBinaryItem
+            );
+        } else if (fieldType instanceof StructType) {
+            return annotate(
+                createRowConverter((StructType) fieldType, itemType, metadata),
+                itemType,
+                BuiltinTypesCatalogue.objectItem
+            );
+        } else if (fieldType instanceof ArrayType) {
+            ItemType memberType = null;
+            if (itemType != null && !itemType.equals(BuiltinTypesCatalogue.item)) {
+                memberType = itemType.getArrayContentFacet();
+            }
+            return annotate(
+                new ArrayConverter(createConverter(((ArrayType) fieldType).elementType(), memberType, metadata)),
+                itemType,
+                BuiltinTypesCatalogue.arrayItem
+            );
+        } else if (fieldType instanceof VectorUDT) {
+            ValueConverter denseConverter = annotate(
+                value -> convertDenseVector((DenseVector) value),
+                itemType,
+                BuiltinTypesCatalogue.arrayItem
+            );
+            ValueConverter sparseConverter = annotate(
+                value -> convertSparseVector((SparseVector) value, metadata),
+                itemType,
+                BuiltinTypesCatalogue.objectItem
+            );
+            return value -> {
+                Vector vector = (Vector) value;
+                if (vector instanceof DenseVector) {
+                    return denseConverter.convert(vector);
+                } else if (vector instanceof SparseVector) {
+                    return sparseConverter.convert(vector);
+                }
+                throw new OurBadException("Unexpected program state reached while converting vectorUDT to rumble item");
+            };
+        } else {
+            // only non-null values of an unsupported type are an error.
+            return value -> {
+                throw new RuntimeException("DataFrame type unsupported: " + fieldType.json());
+            };
+        }
+    }
+
+    private static ValueConverter annotate(ValueConverter converter, ItemType itemType, ItemType convertedType) {
+        if (itemType == null || itemType.equals(convertedType)) {
+            return converter;
+        }
+        return value -> ItemFactory.getInstance().createAnnotatedItem(converter.convert(value), itemType);
+    }
+
+    private static Item convertDenseVector(DenseVector vector) {
+        // a dense vector is mapped to a rumble array
+        List<Item> members = new ArrayList<>(vector.size());
+        for (double value : vector.values()) {
+            members.add(ItemFactory.getInstance().createDoubleItem(value));
+        }
+        return ItemFactory.getInstance().createArrayItem(members);
+    }
+
+    private static Item convertSparseVector(SparseVector vector, ExceptionMetadata metadata) {
+        // a sparse vector is mapped to a Rumble object where keys are indices of the non-0 values in the vector
+        List<String> objectKeyList = new ArrayList<>();
+        List<Item> objectValueList = new ArrayList<>();
+        int[] vectorIndices = vector.indices();
+        double[] vectorValues = vector.values();
+        for (int j = 0; j < vectorIndices.length; j++) {
+            objectKeyList.add(String.valueOf(vectorIndices[j]));
+            objectValueList.add(ItemFactory.getInstance().createDoubleItem(vectorValues[j]));
+        }
+        return ItemFactory.getInstance().createObjectItem(objectKeyList, objectValueList, metadata);
+    }
+
+    /**
+     * Converts a struct to an object, with a converter per field.
+     */
+    private static class ObjectConverter implements ValueConverter {
+
+        private static final long serialVersionUID = 1L;
+        private final String[] keys;
+        private final ValueConverter[] converters;
+        // NULL values in DataFrames are mapped to absent in JSONiq, except in columns of the null type.
+        private final boolean[] keepsNulls;
+        // the keys of the objects in which no field is dropped.
+        private final ObjectShape shape;
+        private final int[] ordinals;
+        private final ExceptionMetadata metadata;
+
+        private ObjectConverter(StructType schema, ItemType itemType, ExceptionMetadata metadata) {
+            Map<String, FieldDescriptor> content = null;
+            if (itemType != null && !itemType.equals(BuiltinTypesCatalogue.item)) {
+                content = itemType.getObjectContentFacet();
+                if (content == null) {
+                    throw new OurBadException(
+                            "Object descriptor content in type " + itemType.getIdentifierString() + " is null."
+                    );
+                }
+            }
+
+            StructField[] fields = schema.fields();
+            this.keys = new String[fields.length];
+            this.converters = new ValueConverter[fields.length];
+            this.keepsNulls = new boolean[fields.length];
+            for (int i = 0; i < fields.length; ++i) {
+                StructField field = fields[i];
+                String fieldName = field.name();
+                ItemType fieldItemType = null;
+                if (content != null) {
+                    FieldDescriptor descriptor = content.get(fieldName);
+                    if (descriptor != null) {
+                        fieldItemType = descriptor.getType();
+                        if (fieldItemType == null) {
+                            throw new OurBadException(
+                                    "Type for field "
+                                        + fieldName
+                                        + " in type "
+                                        + itemType.getIdentifierString()
+                                        + " is null."
+                            );
+                        }
+                    }
+                }
+                this.keys[i] = fieldName;
+                this.converters[i] = createConverter(field.dataType(), fieldItemType, metadata);
+                this.keepsNulls[i] = !fieldName.equals(SparkSessionManager.emptyObjectJSONiqItemColumnName)
+                    && field.dataType().equals(DataTypes.NullType);
+            }
+            this.shape = new ObjectShape(Arrays.asList(this.keys), metadata);
+            this.ordinals = new int[fields.length];
+            for (int i = 0; i < fields.length; ++i) {
+                this.ordinals[i] = i;
+            }
+            this.metadata = metadata;
+        }
+
+        @Override
+        public Item convert(Object value) {
+            Row row = (Row) value;
+            // only null values are dropped, so that the keys are known without converting any value.
+            List<String> keys = null;
+            int[] ordinals = null;
+            int size = 0;
+            for (int i = 0; i < this.keys.length; ++i) {
+                if (!row.isNullAt(i) || this.keepsNulls[i]) {
+                    if (keys != null) {
+                        keys.add(this.keys[i]);
+                        ordinals[size] = i;
+                    }
+                    ++size;
+                } else if (keys == null) {
+                    // a field is dropped: the keys of this object are not those of the shape.
+                    keys = new ArrayList<>(Arrays.asList(this.keys).subList(0, i));
+                    ordinals = Arrays.copyOf(this.ordinals, this.keys.length);
+                }
+            }
+            if (keys == null) {
+                return ItemFactory.getInstance()
+                    .createObjectItem(this.shape, new RowValues(row, this.converters, this.ordinals));
+            }
+            return ItemFactory.getInstance()
+                .createObjectItem(
+                    keys,
+                    new RowValues(row, this.converters, Arrays.copyOf(ordinals, size)),
+                    this.metadata
+                );
+        }
+    }
+
+    /**
+     * The values of an object converted from a row, each of which is only converted when it is first accessed, so
+     * that looking up a few fields of a wide row does not convert the others. The list is fully converted before it
+     * is modified or serialized.
+     */
+    private static class RowValues extends AbstractList<Item> implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+        private final List<Item> items;
+        private Row row;
+        private ValueConverter[] converters;
+        // the index of the field of the row from which each value is converted.
+        private int[] ordinals;
+
+        private RowValues(Row row, ValueConverter[] converters, int[] ordinals) {
+            this.items = new ArrayList<>(Collections.nCopies(ordinals.length, null));
+            this.row = row;
+            this.converters = converters;
+            this.ordinals = ordinals;
+        }
+
+        @Override
+        public Item get(int index) {
+            Item item = this.items.get(index);
+            if (item == null && this.row != null) {
+                int ordinal = this.ordinals[index];
+                item = this.row.isNullAt(ordinal)
+                    ? ItemFactory.getInstance().createNullItem()
+                    : this.converters[ordinal].convert(this.row.get(ordinal));
+                this.items.set(index, item);
+            }
+            return item;
+        }
+
+        @Override
+        public int size() {
+            return this.items.size();
+        }
+
+        @Override
+        public Item set(int index, Item item) {
+            convertAll();
+            return this.items.set(index, item);
+        }
+
+        @Override
+        public void add(int index, Item item) {
+            convertAll();
+            this.items.add(index, item);
+        }
+
+        @Override
+        public Item remove(int index) {
+            convertAll();
+            return this.items.remove(index);
+        }
+
+        private void convertAll() {
+            if (this.row == null) {
+                return;
+            }
+            for (int i = 0; i < this.items.size(); ++i) {
+                get(i);
+            }
+            this.row = null;
+            this.converters = null;
+            this.ordinals = null;
+        }
+
+        private Object writeReplace() {
+            convertAll();
+            return new ArrayList<>(this.items);
+        }
+    }
+
+    /**
+     * Converts an array column, given as a Scala sequence, to an array.
+     */
+    private static class ArrayConverter implements ValueConverter {
+
+        private static final long serialVersionUID = 1L;
+        private final ValueConverter memberConverter;
+
+        private ArrayConverter(ValueConverter memberConverter) {
+            this.memberConverter = memberConverter;
+        }
+
+        @Override
+        public Item convert(Object value) {
+            List<Item> members = new ArrayList<>();
+            if (value instanceof WrappedArray) {
+                Object arrayObject = ((WrappedArray<?>) value).array();
+                int length = Array.getLength(arrayObject);
+                for (int index = 0; index < length; index++) {
+                    members.add(convertMember(Array.get(arrayObject, index)));
+                }
+            } else {
+                scala.collection.Iterator<?> iterator = ((scala.collection.IterableLike<?, ?>) value).toIterator();
+                while (iterator.hasNext()) {
+                    members.add(convertMember(iterator.next()));
+                }
+            }
+            return ItemFactory.getInstance().createArrayItem(members);
+        }
+
+        private Item convertMember(Object member) {
+            return member == null
+                ? ItemFactory.getInstance().createNullItem()
+                : this.memberConverter.convert(member);
+        }
+    }
+}
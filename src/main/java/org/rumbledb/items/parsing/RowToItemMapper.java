@@ -31,6 +31,7 @@ public class RowToItemMapper implements Function<Row, Item> {
     private static final long serialVersionUID = 1L;
     private final ExceptionMetadata metadata;
     private final ItemType itemType;
+    private transient RowToItemConverter converter;
 
     public RowToItemMapper(ExceptionMetadata metadata, ItemType itemType) {
         this.metadata = metadata;
@@ -44,7 +45,7 @@ public class RowToItemMapper implements Function<Row, Item> {
 
     @Override
     public Item call(Row row) throws Exception {
-        Item result = ItemParser.getItemFromRow(row, this.metadata, this.itemType);
-        return result;
+        this.converter = RowToItemConverter.forRow(this.converter, row, this.itemType, this.metadata);
+        return this.converter.convert(row);
     }
 }
@@ -56,6 +56,10 @@ public class CommaExpressionIterator extends HybridRuntimeIterator {
         this(childIterators, false, staticContext);
     }
 
+    public List<RuntimeIterator> getChildIterators() {
+        return this.children;
+    }
+
     @Override
     public Item nextLocal() {
         if (this.hasNext) {
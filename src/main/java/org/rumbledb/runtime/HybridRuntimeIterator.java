@@ -113,7 +113,7 @@ public abstract class HybridRuntimeIterator extends RuntimeIterator {
             } else {
                 rdd = this.getRDDAux(this.currentDynamicContextForLocalExecution);
             }
-            this.result = SparkSessionManager.collectRDDwithLimit(rdd, this.getMetadata());
+            this.result = SparkSessionManager.collectRDDwithLimit(rdd, getConfiguration(), this.getMetadata());
             this.hasNext = !this.result.isEmpty();
         }
         return this.hasNext;
@@ -169,7 +169,11 @@ public abstract class HybridRuntimeIterator extends RuntimeIterator {
             return;
         }
         JavaRDD<Item> items = this.getRDD(context);
-        List<Item> collectedItems = SparkSessionManager.collectRDDwithLimit(items, this.getMetadata());
+        List<Item> collectedItems = SparkSessionManager.collectRDDwithLimit(
+            items,
+            getConfiguration(),
+            this.getMetadata()
+        );
         result.clear();
         result.addAll(collectedItems);
     }
@@ -129,10 +129,10 @@ public class AdditiveOperationIterator extends AtMostOneItemLocalRuntimeIterator
         // The integer 0 is considered the default neutral element for addition in sum(), even though
         // it is technically incompatible with durations. In the future, we should
         // make sure an error is thrown if an actual 0 appears in the sum with durations.
-        if (!isMinus && left.isInteger() && left.getIntegerValue().equals(BigInteger.ZERO)) {
+        if (!isMinus && isZeroInteger(left)) {
             return right;
         }
-        if (!isMinus && right.isInteger() && right.getIntegerValue().equals(BigInteger.ZERO)) {
+        if (!isMinus && isZeroInteger(right)) {
             return left;
         }
         if (
@@ -149,6 +149,12 @@ public class AdditiveOperationIterator extends AtMostOneItemLocalRuntimeIterator
                 return processInt(left.getIntValue(), right.getIntValue(), isMinus);
             }
         }
+        if (left.hasLongValue() && right.hasLongValue()) {
+            Item result = processLong(left.getLongValue(), right.getLongValue(), isMinus);
+            if (result != null) {
+                return result;
+            }
+        }
 
         // General cases
         if (left.isDouble() && right.isNumeric()) {
@@ -333,6 +339,34 @@ public class AdditiveOperationIterator extends AtMostOneItemLocalRuntimeIterator
         }
     }
 
+    private static boolean isZeroInteger(Item item) {
+        if (!item.isInteger()) {
+            return false;
+        }
+        if (item.hasLongValue()) {
+            return item.getLongValue() == 0;
+        }
+        return item.getIntegerValue().signum() == 0;
+    }
+
+    /**
+     * Adds or subtracts two longs.
+     *
+     * @return the result, or null if it overflows a long.
+     */
+    private static Item processLong(
+            long l,
+            long r,
+            boolean isMinus
+    ) {
+        try {
+            return ItemFactory.getInstance()
+                .createIntegerItem(isMinus ? Math.subtractExact(l, r) : Math.addExact(l, r));
+        } catch (ArithmeticException e) {
+            return null;
+        }
+    }
+
     private static Item processInt(
             int l,
             int r,
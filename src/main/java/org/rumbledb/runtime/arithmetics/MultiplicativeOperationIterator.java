@@ -140,6 +140,12 @@ public class MultiplicativeOperationIterator extends AtMostOneItemLocalRuntimeIt
                     return processInt(left.getIntValue(), right.getIntValue(), multiplicativeOperator, metadata);
             }
         }
+        if (left.hasLongValue() && right.hasLongValue()) {
+            Item result = processLong(left.getLongValue(), right.getLongValue(), multiplicativeOperator, metadata);
+            if (result != null) {
+                return result;
+            }
+        }
 
         // General cases
         if (left.isDouble() && right.isNumeric()) {
@@ -380,6 +386,53 @@ public class MultiplicativeOperationIterator extends AtMostOneItemLocalRuntimeIt
         }
     }
 
+    /**
+     * Applies a multiplicative operator to two longs.
+     *
+     * @return the result, or null if it overflows a long or is not an integer.
+     */
+    private static Item processLong(
+            long l,
+            long r,
+            MultiplicativeExpression.MultiplicativeOperator multiplicativeOperator,
+            ExceptionMetadata metadata
+    ) {
+        switch (multiplicativeOperator) {
+            case MUL:
+                try {
+                    return ItemFactory.getInstance().createIntegerItem(Math.multiplyExact(l, r));
+                } catch (ArithmeticException e) {
+                    return null;
+                }
+            case DIV:
+                if (r == 0) {
+                    throw new DivisionByZeroException(metadata);
+                }
+                if (l % r != 0 || (l == Long.MIN_VALUE && r == -1)) {
+                    return null;
+                }
+                return ItemFactory.getInstance().createIntegerItem(l / r);
+            case IDIV:
+                if (r == 0) {
+                    throw new DivisionByZeroException(metadata);
+                }
+                if (l == Long.MIN_VALUE && r == -1) {
+                    return null;
+                }
+                return ItemFactory.getInstance().createIntegerItem(l / r);
+            case MOD:
+                if (r == 0) {
+                    throw new DivisionByZeroException(metadata);
+                }
+                return ItemFactory.getInstance().createIntegerItem(l % r);
+            default:
+                throw new OurBadException(
+                        "Non recognized multiplicative operator: " + multiplicativeOperator,
+                        metadata
+                );
+        }
+    }
+
     private static Item processInt(
             int l,
             int r,
@@ -47,6 +47,7 @@ import org.apache.spark.sql.expressions.Window;
 import org.apache.spark.sql.types.ArrayType;
 import org.apache.spark.sql.types.DataType;
 import org.apache.spark.sql.types.DataTypes;
+import org.apache.spark.sql.types.DecimalType;
 import org.apache.spark.sql.types.StructField;
 import org.apache.spark.sql.types.StructType;
 import org.rumbledb.api.Item;
@@ -72,21 +73,25 @@ import org.rumbledb.items.FunctionItem;
 import org.rumbledb.items.HexBinaryItem;
 import org.rumbledb.items.IntItem;
 import org.rumbledb.items.IntegerItem;
+import org.rumbledb.items.LongIntegerItem;
 import org.rumbledb.items.NullItem;
 import org.rumbledb.items.ObjectItem;
 import org.rumbledb.items.StringItem;
 import org.rumbledb.items.TimeItem;
 import org.rumbledb.items.YearMonthDurationItem;
 import org.rumbledb.items.structured.JSoundDataFrame;
+import org.rumbledb.runtime.RuntimeIterator;
 import org.rumbledb.runtime.flwor.FlworDataFrameColumn.ColumnFormat;
 import org.rumbledb.types.ItemType;
 import org.rumbledb.types.SequenceType;
+import org.rumbledb.types.TypeMappings;
 
 import com.esotericsoftware.kryo.Kryo;
 import com.esotericsoftware.kryo.io.Input;
 import com.esotericsoftware.kryo.io.Output;
 
 import scala.collection.mutable.WrappedArray;
+import sparksoniq.spark.QueryResources;
 import sparksoniq.spark.SparkSessionManager;
 
 public class FlworDataFrameUtils {
@@ -119,6 +124,7 @@ public class FlworDataFrameUtils {
         kryo.register(HexBinaryItem.class);
         kryo.register(IntegerItem.class);
         kryo.register(IntItem.class);
+        kryo.register(LongIntegerItem.class);
         kryo.register(NullItem.class);
         kryo.register(StringItem.class);
         kryo.register(TimeItem.class);
@@ -533,7 +539,7 @@ public class FlworDataFrameUtils {
             }
             case AVERAGE: {
                 if (columnNames.contains(variableName.toString() + ".average")) {
-                    result.add(new FlworDataFrameColumn(variableName, ColumnFormat.MAX));
+                    result.add(new FlworDataFrameColumn(variableName, ColumnFormat.AVERAGE));
                     return;
                 }
                 if (columnNames.contains(variableName.toString() + ".sequence")) {
@@ -728,6 +734,13 @@ public class FlworDataFrameUtils {
                     // rows that end up in the same group have the same value for the grouping column
                     // return a single instance of this value in the grouping column
                     queryColumnString.append(String.format("first(%s)", column));
+                } else if (
+                    column.isFullyNative() && getNativeAggregateColumnFormat(dependency.getValue(), dt) != null
+                ) {
+                    // the next clauses only need an aggregate of the values of the group, which Spark computes
+                    ColumnFormat aggregateFormat = getNativeAggregateColumnFormat(dependency.getValue(), dt);
+                    queryColumnString.append(getNativeAggregateExpression(aggregateFormat, column.toString()));
+                    column = new FlworDataFrameColumn(column.getVariableName(), aggregateFormat);
                 } else if (column.isNativeSequence()) {
                     // aggregate the column values for each row in the group
                     queryColumnString.append("arraymerge" + Math.abs(dt.hashCode()));
@@ -756,6 +769,147 @@ public class FlworDataFrameUtils {
         return queryColumnString.toString();
     }
 
+    /**
+     * Checks if a native Spark SQL aggregate over a fully native column gives the same result as the builtin function
+     * behind a variable dependency, in which case the values of a group need not be collected.
+     * 
+     * @param dependency the dependency of the next clauses on the variable.
+     * @param dataType the type of the fully native column of the variable.
+     * @return the format of the aggregated column, or null if the dependency cannot be computed natively.
+     */
+    public static ColumnFormat getNativeAggregateColumnFormat(
+            DynamicContext.VariableDependency dependency,
+            DataType dataType
+    ) {
+        boolean isIntegral = dataType.equals(DataTypes.IntegerType) || dataType.equals(DataTypes.LongType);
+        boolean isNumeric = isIntegral
+            || dataType.equals(DataTypes.DoubleType)
+            || dataType instanceof DecimalType;
+        switch (dependency) {
+            case SUM:
+                // only integers are summed natively, as decimals that cannot overflow; Spark wraps around longs,
+                // returns null on decimal overflow and cannot tell an empty double sum from the integer 0.
+                return isIntegral ? ColumnFormat.SUM : null;
+            case MIN:
+                return isNumeric || dataType.equals(DataTypes.StringType) ? ColumnFormat.MIN : null;
+            case MAX:
+                return isNumeric || dataType.equals(DataTypes.StringType) ? ColumnFormat.MAX : null;
+            case AVERAGE:
+                // Spark averages integers as doubles and rescales decimals, only doubles keep their type.
+                return dataType.equals(DataTypes.DoubleType) ? ColumnFormat.AVERAGE : null;
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * Gets the Spark SQL aggregate expression that computes a column of the supplied format.
+     * 
+     * @param format the SUM, MIN, MAX or AVERAGE format.
+     * @param column the quoted fully native column to aggregate.
+     * @return the aggregate expression.
+     */
+    public static String getNativeAggregateExpression(ColumnFormat format, String column) {
+        switch (format) {
+            case SUM:
+                // the sum of an empty group is 0, not the empty sequence.
+                return String.format("coalesce(sum(cast(%s as decimal(38, 0))), 0)", column);
+            case MIN:
+                return String.format("min(%s)", column);
+            case MAX:
+                return String.format("max(%s)", column);
+            case AVERAGE:
+                return String.format("avg(%s)", column);
+            default:
+                throw new OurBadException("Column format " + format + " is not an aggregate.");
+        }
+    }
+
+    /**
+     * Writes a string as a Spark SQL string literal.
+     * 
+     * @param value the string.
+     * @return the literal, in double quotes and with quotes and backslashes escaped.
+     */
+    public static String getSQLStringLiteral(String value) {
+        return '"' + value.replace("\\", "\\\\").replace("\"", "\\\"") + '"';
+    }
+
+    /**
+     * Generates the native query of a string argument of a builtin function, replacing the empty sequence (NULL) with
+     * the empty string as most string functions do.
+     * 
+     * @param argument the iterator of the argument.
+     * @param nativeClauseContext the context of the native query.
+     * @return the query, or null if the argument has no native query or is not a string.
+     */
+    public static String getNativeStringArgument(RuntimeIterator argument, NativeClauseContext nativeClauseContext) {
+        NativeClauseContext value = argument.generateNativeQuery(nativeClauseContext);
+        if (value == NativeClauseContext.NoNativeQuery) {
+            return null;
+        }
+        if (!value.getResultingType().isSubtypeOf(SequenceType.STRING_QM)) {
+            return null;
+        }
+        return "COALESCE(" + value.getResultingQuery() + ", \"\")";
+    }
+
+    /**
+     * Gets the Spark SQL type of the result of a native query, for the schema of a natively constructed object or
+     * array.
+     * 
+     * @param value the native query.
+     * @return the type, or null if it is unknown or if the query may return more than one item.
+     */
+    public static DataType getNativeQueryDataType(NativeClauseContext value) {
+        SequenceType sequenceType = value.getResultingType();
+        if (
+            sequenceType == null
+                || !(sequenceType.getArity().equals(SequenceType.Arity.One)
+                    || sequenceType.getArity().equals(SequenceType.Arity.OneOrZero))
+        ) {
+            return null;
+        }
+        ItemType itemType = sequenceType.getItemType();
+        if (itemType.isObjectItemType() || itemType.isArrayItemType()) {
+            DataType schema = value.getSchema();
+            return schema instanceof StructType || schema instanceof ArrayType ? schema : null;
+        }
+        if (!itemType.isAtomicItemType()) {
+            return null;
+        }
+        try {
+            return TypeMappings.getDataFrameDataTypeFromItemType(itemType);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Tells whether a native query may evaluate to NULL, i.e., to the empty sequence, which Spark infers from the
+     * schema of the input (e.g., from optional fields that are looked up) without running any job.
+     * 
+     * @param nativeClauseContext the context of the native query, which has the schema of the input.
+     * @param value the native query.
+     * @return false if the query never evaluates to NULL, true if it may or if this cannot be determined.
+     */
+    public static boolean isNullableNativeQuery(NativeClauseContext nativeClauseContext, NativeClauseContext value) {
+        if (
+            !(nativeClauseContext.getSchema() instanceof StructType)
+                || (value.getLateralViewPart() != null && !value.getLateralViewPart().isEmpty())
+        ) {
+            return true;
+        }
+        try {
+            Dataset<Row> emptyInput = SparkSessionManager.getInstance()
+                .getOrCreateSession()
+                .createDataFrame(Collections.emptyList(), (StructType) nativeClauseContext.getSchema());
+            return emptyInput.selectExpr(value.getResultingQuery()).schema().fields()[0].nullable();
+        } catch (Exception e) {
+            return true;
+        }
+    }
+
     public static boolean isNativeSequence(StructType schema, String columnName) {
         String[] fields = schema.fieldNames();
         for (String field : fields) {
@@ -883,6 +1037,7 @@ public class FlworDataFrameUtils {
             .withColumn("inc_id", monotonically_increasing_id());
 
         dfWithPartitionId.persist();
+        QueryResources.registerPersistedDataset(dfWithPartitionId);
 
         Object partitionOffsetsObject = dfWithPartitionId
             .groupBy("partition_id")
@@ -930,6 +1085,20 @@ public class FlworDataFrameUtils {
     public static String createTempView(Dataset<Row> df) {
         String name = "input" + UUID.randomUUID().toString().replaceAll("-", "");
         df.createOrReplaceTempView(name);
+        QueryResources.registerTemporaryView(name);
+        return name;
+    }
+
+    /**
+     * Creates a name for a UDF that is unique in the Spark session, so that concurrent queries cannot replace each
+     * other's UDFs between their registration and their use. The UDF is dropped with the resources of the query.
+     *
+     * @param prefix the prefix of the name, which describes the UDF.
+     * @return the name.
+     */
+    public static String createUDFName(String prefix) {
+        String name = prefix + UUID.randomUUID().toString().replaceAll("-", "");
+        QueryResources.registerUDF(name);
         return name;
     }
 }
@@ -140,6 +140,33 @@ public class CountClauseSparkIterator extends RuntimeTupleIterator {
         return new FlworDataFrame(dfWithIndex);
     }
 
+    /**
+     * Gets the DataFrame of the tuples up to a given count only, for a where clause that filters out the others.
+     * If this clause follows an order by clause, the latter only sorts the tuples that are kept.
+     *
+     * @param context the dynamic context.
+     * @param limit the greatest count to keep.
+     * @return the DataFrame of the first tuples.
+     */
+    public FlworDataFrame getDataFrameUpTo(DynamicContext context, long limit) {
+        if (this.child == null) {
+            throw new OurBadException("Invalid count clause.");
+        }
+        if (this.child instanceof OrderByClauseSparkIterator) {
+            ((OrderByClauseSparkIterator) this.child).setLimit(limit);
+            return getDataFrame(context);
+        }
+        FlworDataFrame df = this.child.getDataFrame(context);
+        String input = df.createTempView();
+        FlworDataFrame limitedDf = df.sql(String.format("SELECT * FROM %s LIMIT %s", input, limit));
+        if (!this.outputTupleProjection.containsKey(this.variableName)) {
+            return limitedDf;
+        }
+        return new FlworDataFrame(
+                addSerializedCountColumn(limitedDf.getDataFrame(), this.outputTupleProjection, this.variableName)
+        );
+    }
+
     // This method, which implements count semantics, is also intended for use by other clauses (e.g., for clause with
     // positional variables).
     public static Dataset<Row> addSerializedCountColumn(
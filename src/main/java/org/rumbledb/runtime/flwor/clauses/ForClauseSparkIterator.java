@@ -550,7 +550,7 @@ public class ForClauseSparkIterator extends RuntimeTupleIterator {
             for (Name columnName : this.inputTuple.getLocalKeys()) {
                 serializedRowColumns.add(
                     FlworDataFrameUtils.serializeItemList(
-                        this.inputTuple.getLocalValue(columnName, getMetadata()),
+                        this.inputTuple.getLocalValue(columnName, getConfiguration(), getMetadata()),
                         this.dataFrameContext.getKryo(),
                         this.dataFrameContext.getOutput()
                     )
@@ -640,10 +640,11 @@ public class ForClauseSparkIterator extends RuntimeTupleIterator {
             UDFcolumns = Collections.emptyList();
         }
 
+        String udfName = FlworDataFrameUtils.createUDFName("forClauseUDF");
         df.sparkSession()
             .udf()
             .register(
-                "forClauseUDF",
+                udfName,
                 new ForClauseUDF(this.assignmentIterator, context, UDFcolumns),
                 DataTypes.createArrayType(DataTypes.BinaryType)
             );
@@ -657,8 +658,9 @@ public class ForClauseSparkIterator extends RuntimeTupleIterator {
                 df = df.sparkSession()
                     .sql(
                         String.format(
-                            "select %s explode_outer(forClauseUDF(%s)) as `%s` from %s",
+                            "select %s explode_outer(%s(%s)) as `%s` from %s",
                             projectionVariables,
+                            udfName,
                             UDFParameters,
                             this.variableName,
                             viewName
@@ -668,8 +670,9 @@ public class ForClauseSparkIterator extends RuntimeTupleIterator {
                 df = df.sparkSession()
                     .sql(
                         String.format(
-                            "select %s explode(forClauseUDF(%s)) as `%s` from %s",
+                            "select %s explode(%s(%s)) as `%s` from %s",
                             projectionVariables,
+                            udfName,
                             UDFParameters,
                             this.variableName,
                             viewName
@@ -691,13 +694,14 @@ public class ForClauseSparkIterator extends RuntimeTupleIterator {
                         String.format(
                             "SELECT %s for_vars.`%s`, serializePositionIndex(IF(for_vars.`%s` IS NULL, 0, for_vars.`%s` + 1)) AS `%s` "
                                 + "FROM %s "
-                                + "LATERAL VIEW OUTER posexplode(forClauseUDF(%s)) for_vars AS `%s`, `%s` ",
+                                + "LATERAL VIEW OUTER posexplode(%s(%s)) for_vars AS `%s`, `%s` ",
                             projectionVariables,
                             this.variableName,
                             this.positionalVariableName,
                             this.positionalVariableName,
                             this.positionalVariableName,
                             viewName,
+                            udfName,
                             UDFParameters,
                             this.positionalVariableName,
                             this.variableName
@@ -709,12 +713,13 @@ public class ForClauseSparkIterator extends RuntimeTupleIterator {
                         String.format(
                             "SELECT %s for_vars.`%s`, serializePositionIndex(for_vars.`%s` + 1) AS `%s` "
                                 + "FROM %s "
-                                + "LATERAL VIEW posexplode(forClauseUDF(%s)) for_vars AS `%s`, `%s` ",
+                                + "LATERAL VIEW posexplode(%s(%s)) for_vars AS `%s`, `%s` ",
                             projectionVariables,
                             this.variableName,
                             this.positionalVariableName,
                             this.positionalVariableName,
                             viewName,
+                            udfName,
                             UDFParameters,
                             this.positionalVariableName,
                             this.variableName
@@ -1271,6 +1276,7 @@ public class ForClauseSparkIterator extends RuntimeTupleIterator {
     }
 
     public static void registerForClauseUDF(
+            String udfName,
             Dataset<Row> dataFrame,
             RuntimeIterator newVariableExpression,
             DynamicContext context,
@@ -1288,7 +1294,7 @@ public class ForClauseSparkIterator extends RuntimeTupleIterator {
                 dataFrame.sparkSession()
                     .udf()
                     .register(
-                        "forClauseUDF",
+                        udfName,
                         new GenericForClauseUDF<String>(
                                 newVariableExpression,
                                 context,
@@ -1304,7 +1310,7 @@ public class ForClauseSparkIterator extends RuntimeTupleIterator {
                 dataFrame.sparkSession()
                     .udf()
                     .register(
-                        "forClauseUDF",
+                        udfName,
                         new GenericForClauseUDF<Integer>(
                                 newVariableExpression,
                                 context,
@@ -1320,7 +1326,7 @@ public class ForClauseSparkIterator extends RuntimeTupleIterator {
                 dataFrame.sparkSession()
                     .udf()
                     .register(
-                        "forClauseUDF",
+                        udfName,
                         new GenericForClauseUDF<BigDecimal>(
                                 newVariableExpression,
                                 context,
@@ -1336,7 +1342,7 @@ public class ForClauseSparkIterator extends RuntimeTupleIterator {
                 dataFrame.sparkSession()
                     .udf()
                     .register(
-                        "forClauseUDF",
+                        udfName,
                         new GenericForClauseUDF<Double>(
                                 newVariableExpression,
                                 context,
@@ -1353,7 +1359,7 @@ public class ForClauseSparkIterator extends RuntimeTupleIterator {
         dataFrame.sparkSession()
             .udf()
             .register(
-                "forClauseUDF",
+                udfName,
                 new ForClauseUDF(newVariableExpression, context, UDFcolumns),
                 DataTypes.BinaryType
             );
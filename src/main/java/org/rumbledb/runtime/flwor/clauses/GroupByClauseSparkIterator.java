@@ -50,6 +50,8 @@ import org.rumbledb.runtime.flwor.udfs.GroupClauseCreateColumnsUDF;
 import org.rumbledb.runtime.flwor.udfs.GroupClauseSerializeAggregateResultsUDF;
 import sparksoniq.jsoniq.tuple.FlworKey;
 import sparksoniq.jsoniq.tuple.FlworTuple;
+import sparksoniq.jsoniq.tuple.SpillingTupleBuffer;
+import sparksoniq.jsoniq.tuple.SpillingTupleGrouper;
 
 import java.util.ArrayList;
 import java.util.Collections;
@@ -65,8 +67,8 @@ public class GroupByClauseSparkIterator extends RuntimeTupleIterator {
 
     private static final long serialVersionUID = 1L;
     private final List<GroupByClauseSparkIteratorExpression> groupingExpressions;
-    private List<FlworTuple> localTupleResults;
-    private int resultIndex;
+    private transient Iterator<FlworTuple> localTupleResults;
+    private transient SpillingTupleGrouper grouper;
     private Map<Name, DynamicContext.VariableDependency> dependencies;
 
     public GroupByClauseSparkIterator(
@@ -105,15 +107,11 @@ public class GroupByClauseSparkIterator extends RuntimeTupleIterator {
         if (this.hasNext) {
 
             if (this.localTupleResults == null) {
-                this.localTupleResults = new ArrayList<>();
-                this.resultIndex = 0;
                 setAllLocalResults();
             }
 
-            FlworTuple result = this.localTupleResults.get(this.resultIndex++);
-            if (this.resultIndex == this.localTupleResults.size()) {
-                this.hasNext = false;
-            }
+            FlworTuple result = this.localTupleResults.next();
+            this.hasNext = this.localTupleResults.hasNext();
             return result;
         }
         throw new IteratorFlowException("Invalid next() call in let flwor clause", getMetadata());
@@ -124,7 +122,7 @@ public class GroupByClauseSparkIterator extends RuntimeTupleIterator {
         super.close();
         if (this.child != null) {
             this.child.close();
-            this.localTupleResults = null;
+            clearLocalResults();
         } else {
             throw new OurBadException("Invalid groupby clause.");
         }
@@ -135,108 +133,160 @@ public class GroupByClauseSparkIterator extends RuntimeTupleIterator {
         super.reset(context);
         if (this.child != null) {
             this.child.reset(this.currentDynamicContext);
-            this.localTupleResults = null;
+            clearLocalResults();
             this.hasNext = this.child.hasNext();
         } else {
             throw new OurBadException("Invalid groupby clause.");
         }
     }
 
+    private void clearLocalResults() {
+        this.localTupleResults = null;
+        if (this.grouper != null) {
+            this.grouper.close();
+            this.grouper = null;
+        }
+    }
+
     /**
      * All local results need to be calculated for grouping to be performed.
      */
     private void setAllLocalResults() {
-        Map<FlworKey, List<FlworTuple>> keyTuplePairs = mapTuplesToPairs();
-        keyTuplePairs.forEach((key, tupleList) -> linearizeTuples(tupleList));
+        this.localTupleResults = groupLocalResults();
 
         this.child.close();
-        this.hasNext = this.localTupleResults.size() != 0;
+        this.hasNext = this.localTupleResults.hasNext();
     }
 
-
-    private HashMap<FlworKey, List<FlworTuple>> mapTuplesToPairs() {
+    /**
+     * Groups the input tuples by key, in memory, or with a grouper that spills them to disk beyond a threshold if one
+     * is configured and the tuples can be serialized. Requires child iterator to be opened.
+     *
+     * @return an iterator over the output tuples, one per group.
+     */
+    private Iterator<FlworTuple> groupLocalResults() {
         HashMap<FlworKey, List<FlworTuple>> keyValuePairs = new HashMap<>();
+        long spillThreshold = getConfiguration().getLocalSpillThreshold();
 
         // assign current context as parent. re-use the same context object for efficiency
         DynamicContext tupleContext = new DynamicContext(this.currentDynamicContext);
         while (this.child.hasNext()) {
             FlworTuple inputTuple = this.child.next();
+            FlworKey key = computeKey(inputTuple, tupleContext);
+            // all tuples have the same variables, so the first one tells whether they can be spilled
+            if (
+                this.grouper == null
+                    && spillThreshold > 0
+                    && keyValuePairs.isEmpty()
+                    && SpillingTupleBuffer.isSpillable(inputTuple)
+            ) {
+                this.grouper = new SpillingTupleGrouper(spillThreshold);
+            }
+            if (this.grouper != null) {
+                this.grouper.add(key, inputTuple);
+                continue;
+            }
+            List<FlworTuple> values = keyValuePairs.get(key); // all values for a single matching key are held in a list
+            if (values == null) {
+                values = new ArrayList<>();
+                keyValuePairs.put(key, values);
+            }
+            values.add(inputTuple);
+        }
+        if (this.grouper != null) {
+            Iterator<List<FlworTuple>> groups = this.grouper.groups();
+            return new Iterator<FlworTuple>() {
+                @Override
+                public boolean hasNext() {
+                    return groups.hasNext();
+                }
 
-            List<Item> results = new ArrayList<>();
-            for (GroupByClauseSparkIteratorExpression expression : this.groupingExpressions) {
-                tupleContext.getVariableValues().removeAllVariables(); // clear the previous variables
-                tupleContext.getVariableValues().setBindingsFromTuple(inputTuple, getMetadata()); // assign new
-                                                                                                  // variables from new
-                                                                                                  // tuple
-
-                // if grouping on an expression
-                RuntimeIterator groupVariableExpression = expression.getExpression();
-                if (groupVariableExpression != null) {
-                    if (inputTuple.contains(expression.getVariableName())) {
-                        throw new InvalidGroupVariableException(
-                                "Group by variable redeclaration is illegal",
-                                getMetadata()
-                        );
-                    }
+                @Override
+                public FlworTuple next() {
+                    return linearizeTuples(groups.next());
+                }
+            };
+        }
+        List<FlworTuple> results = new ArrayList<>(keyValuePairs.size());
+        keyValuePairs.forEach((key, tupleList) -> results.add(linearizeTuples(tupleList)));
+        return results.iterator();
+    }
 
-                    List<Item> newVariableResults = null;
-                    Item resultItem = null;
-                    try {
-                        resultItem = groupVariableExpression.materializeAtMostOneItemOrNull(tupleContext);
-                    } catch (MoreThanOneItemException e) {
+    /**
+     * Evaluates the grouping expressions on a tuple, and binds the variables declared by the group-by clause in it.
+     *
+     * @param inputTuple the tuple.
+     * @param tupleContext the context in which to bind the variables of the tuple.
+     * @return the key of the tuple.
+     */
+    private FlworKey computeKey(FlworTuple inputTuple, DynamicContext tupleContext) {
+        List<Item> results = new ArrayList<>();
+        for (GroupByClauseSparkIteratorExpression expression : this.groupingExpressions) {
+            tupleContext.getVariableValues().removeAllVariables(); // clear the previous variables
+            tupleContext.getVariableValues().setBindingsFromTuple(inputTuple, getMetadata()); // assign new
+                                                                                              // variables from new
+                                                                                              // tuple
+
+            // if grouping on an expression
+            RuntimeIterator groupVariableExpression = expression.getExpression();
+            if (groupVariableExpression != null) {
+                if (inputTuple.contains(expression.getVariableName())) {
+                    throw new InvalidGroupVariableException(
+                            "Group by variable redeclaration is illegal",
+                            getMetadata()
+                    );
+                }
+
+                List<Item> newVariableResults = null;
+                Item resultItem = null;
+                try {
+                    resultItem = groupVariableExpression.materializeAtMostOneItemOrNull(tupleContext);
+                } catch (MoreThanOneItemException e) {
+                    throw new UnexpectedTypeException(
+                            "Keys in a group-by clause must be at most one item.",
+                            getMetadata()
+                    );
+                }
+                if (resultItem != null) {
+                    if (!resultItem.isAtomic()) {
                         throw new UnexpectedTypeException(
-                                "Keys in a group-by clause must be at most one item.",
+                                "Keys in a group-by clause must be atomics.",
                                 getMetadata()
                         );
                     }
-                    if (resultItem != null) {
-                        if (!resultItem.isAtomic()) {
-                            throw new UnexpectedTypeException(
-                                    "Keys in a group-by clause must be atomics.",
-                                    getMetadata()
-                            );
-                        }
-                        newVariableResults = Collections.singletonList(resultItem);
-                    } else {
-                        newVariableResults = Collections.emptyList();
-                    }
+                    newVariableResults = Collections.singletonList(resultItem);
+                } else {
+                    newVariableResults = Collections.emptyList();
+                }
 
-                    // if a new variable is declared inside the group by clause, insert value in tuple
-                    inputTuple.putValue(expression.getVariableName(), newVariableResults);
-                    results.addAll(newVariableResults);
-
-                } else { // if grouping on a variable reference
-                    Name groupVariableName = expression.getVariableName();
-                    if (!inputTuple.contains(groupVariableName)) {
-                        throw new InvalidGroupVariableException(
-                                "Variable "
-                                    + groupVariableName
-                                    + " cannot be used in group clause",
-                                this.getMetadata()
-                        );
-                    }
+                // if a new variable is declared inside the group by clause, insert value in tuple
+                inputTuple.putValue(expression.getVariableName(), newVariableResults);
+                results.addAll(newVariableResults);
 
-                    results.addAll(
-                        tupleContext.getVariableValues()
-                            .getLocalVariableValue(
-                                groupVariableName,
-                                getMetadata()
-                            )
+            } else { // if grouping on a variable reference
+                Name groupVariableName = expression.getVariableName();
+                if (!inputTuple.contains(groupVariableName)) {
+                    throw new InvalidGroupVariableException(
+                            "Variable "
+                                + groupVariableName
+                                + " cannot be used in group clause",
+                            this.getMetadata()
                     );
                 }
+
+                results.addAll(
+                    tupleContext.getVariableValues()
+                        .getLocalVariableValue(
+                            groupVariableName,
+                            getMetadata()
+                        )
+                );
             }
-            FlworKey key = new FlworKey(results);
-            List<FlworTuple> values = keyValuePairs.get(key); // all values for a single matching key are held in a list
-            if (values == null) {
-                values = new ArrayList<>();
-                keyValuePairs.put(key, values);
-            }
-            values.add(inputTuple);
         }
-        return keyValuePairs;
+        return new FlworKey(results);
     }
 
-    private void linearizeTuples(List<FlworTuple> keyTuplePairs) {
+    private FlworTuple linearizeTuples(List<FlworTuple> keyTuplePairs) {
         Iterator<FlworTuple> iterator = keyTuplePairs.iterator();
         FlworTuple oldFirstTuple = iterator.next();
         FlworTuple newTuple = new FlworTuple(oldFirstTuple.getLocalKeys().size());
@@ -246,16 +296,19 @@ public class GroupByClauseSparkIterator extends RuntimeTupleIterator {
                 this.groupingExpressions.stream()
                     .anyMatch(v -> v.getVariableName().equals(tupleVariable))
             ) {
-                newTuple.putValue(tupleVariable, oldFirstTuple.getLocalValue(tupleVariable, getMetadata()));
+                newTuple.putValue(
+                    tupleVariable,
+                    oldFirstTuple.getLocalValue(tupleVariable, getConfiguration(), getMetadata())
+                );
             } else {
                 List<Item> allValues = new ArrayList<>();
                 while (iterator.hasNext()) {
-                    allValues.addAll(iterator.next().getLocalValue(tupleVariable, getMetadata()));
+                    allValues.addAll(iterator.next().getLocalValue(tupleVariable, getConfiguration(), getMetadata()));
                 }
                 newTuple.putValue(tupleVariable, allValues);
             }
         }
-        this.localTupleResults.add(newTuple);
+        return newTuple;
     }
 
     @Override
@@ -376,10 +429,11 @@ public class GroupByClauseSparkIterator extends RuntimeTupleIterator {
             groupingVariables
         );
 
+        String udfName = FlworDataFrameUtils.createUDFName("createGroupingColumns");
         df.sparkSession()
             .udf()
             .register(
-                "createGroupingColumns",
+                udfName,
                 new GroupClauseCreateColumnsUDF(variableAccessNames, context, inputSchema, UDFcolumns, getMetadata()),
                 DataTypes.createStructType(typedFields)
             );
@@ -389,8 +443,9 @@ public class GroupByClauseSparkIterator extends RuntimeTupleIterator {
         String UDFParameters = FlworDataFrameUtils.getUDFParametersFromColumns(UDFcolumns);
 
         String createColumnsSQL = String.format(
-            "select %s createGroupingColumns(%s) as `%s` from %s",
+            "select %s %s(%s) as `%s` from %s",
             selectSQL,
+            udfName,
             UDFParameters,
             appendedGroupingColumnsName,
             input
@@ -585,6 +640,26 @@ public class GroupByClauseSparkIterator extends RuntimeTupleIterator {
                 selectString.append(".count`");
                 continue;
             }
+            if (FlworDataFrameUtils.isVariableAvailableAsNativeItem(inputSchema, entry.getKey())) {
+                DataType dataType = inputSchema.fields()[inputSchema.fieldIndex(entry.getKey().toString())]
+                    .dataType();
+                ColumnFormat aggregateFormat = FlworDataFrameUtils.getNativeAggregateColumnFormat(
+                    entry.getValue(),
+                    dataType
+                );
+                if (aggregateFormat != null) {
+                    // we only need an aggregate of the values
+                    selectString.append(
+                        FlworDataFrameUtils.getNativeAggregateExpression(
+                            aggregateFormat,
+                            "`" + entry.getKey().toString() + "`"
+                        )
+                    );
+                    selectString.append(" as ");
+                    selectString.append(new FlworDataFrameColumn(entry.getKey(), aggregateFormat));
+                    continue;
+                }
+            }
             if (FlworDataFrameUtils.isVariableAvailableAsNativeSequence(inputSchema, entry.getKey())) {
                 // we cannot merge arrays natively in Spark, strangely.
                 return null;
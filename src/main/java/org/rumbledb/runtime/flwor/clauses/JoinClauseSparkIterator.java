@@ -317,10 +317,11 @@ public class JoinClauseSparkIterator extends RuntimeTupleIterator {
         );
 
         // Now we need to register or join predicate as a UDF.
+        String udfName = FlworDataFrameUtils.createUDFName("joinUDF");
         leftInputTuple.sparkSession()
             .udf()
             .register(
-                "joinUDF",
+                udfName,
                 new WhereClauseUDF(predicateIterator, context, joinCriterionUDFcolumns),
                 DataTypes.BooleanType
             );
@@ -332,10 +333,11 @@ public class JoinClauseSparkIterator extends RuntimeTupleIterator {
             Dataset<Row> resultDF = leftInputTuple.sparkSession()
                 .sql(
                     String.format(
-                        "SELECT %s FROM %s LEFT OUTER JOIN %s ON joinUDF(%s) = 'true'",
+                        "SELECT %s FROM %s LEFT OUTER JOIN %s ON %s(%s) = 'true'",
                         projectionVariables,
                         leftInputDFTableName,
                         rightInputDFTableName,
+                        udfName,
                         UDFParameters
                     )
                 );
@@ -347,12 +349,13 @@ public class JoinClauseSparkIterator extends RuntimeTupleIterator {
             Dataset<Row> resultDF = leftInputTuple.sparkSession()
                 .sql(
                     String.format(
-                        "SELECT %s FROM %s JOIN %s ON `%s` = `%s` WHERE joinUDF(%s) = 'true'",
+                        "SELECT %s FROM %s JOIN %s ON `%s` = `%s` WHERE %s(%s) = 'true'",
                         projectionVariables,
                         leftInputDFTableName,
                         rightInputDFTableName,
                         SparkSessionManager.rightHandSideHashColumnName,
                         SparkSessionManager.leftHandSideHashColumnName,
+                        udfName,
                         UDFParameters
                     )
                 );
@@ -362,10 +365,11 @@ public class JoinClauseSparkIterator extends RuntimeTupleIterator {
         Dataset<Row> resultDF = leftInputTuple.sparkSession()
             .sql(
                 String.format(
-                    "SELECT %s FROM %s JOIN %s ON joinUDF(%s) = 'true'",
+                    "SELECT %s FROM %s JOIN %s ON %s(%s) = 'true'",
                     projectionVariables,
                     leftInputDFTableName,
                     rightInputDFTableName,
+                    udfName,
                     UDFParameters
                 )
             );
@@ -639,8 +639,10 @@ public class LetClauseSparkIterator extends RuntimeTupleIterator {
         // }
 
         boolean isNative = false;
+        String udfName = FlworDataFrameUtils.createUDFName(hash ? "hashUDF" : "letClauseUDF");
         if (!hash) {
             isNative = registerLetClauseUDF(
+                udfName,
                 dataFrame,
                 newVariableExpression,
                 context,
@@ -652,7 +654,7 @@ public class LetClauseSparkIterator extends RuntimeTupleIterator {
             dataFrame.sparkSession()
                 .udf()
                 .register(
-                    "hashUDF",
+                    udfName,
                     new HashUDF(newVariableExpression, context, UDFcolumns),
                     DataTypes.LongType
                 );
@@ -670,8 +672,9 @@ public class LetClauseSparkIterator extends RuntimeTupleIterator {
             dataFrame = dataFrame.sparkSession()
                 .sql(
                     String.format(
-                        "select %s letClauseUDF(%s) as %s from %s",
+                        "select %s %s(%s) as %s from %s",
                         selectSQL,
+                        udfName,
                         UDFParameters,
                         isNative ? dfColumnNative : dfColumnSequence,
                         input
@@ -683,8 +686,9 @@ public class LetClauseSparkIterator extends RuntimeTupleIterator {
             dataFrame = dataFrame.sparkSession()
                 .sql(
                     String.format(
-                        "select %s hashUDF(%s) as %s from %s",
+                        "select %s %s(%s) as %s from %s",
                         selectSQL,
+                        udfName,
                         UDFParameters,
                         dfColumnNative,
                         input
@@ -695,6 +699,7 @@ public class LetClauseSparkIterator extends RuntimeTupleIterator {
     }
 
     public static boolean registerLetClauseUDF(
+            String udfName,
             Dataset<Row> dataFrame,
             RuntimeIterator newVariableExpression,
             DynamicContext context,
@@ -714,7 +719,7 @@ public class LetClauseSparkIterator extends RuntimeTupleIterator {
                 dataFrame.sparkSession()
                     .udf()
                     .register(
-                        "letClauseUDF",
+                        udfName,
                         new GenericLetClauseUDF<String>(
                                 newVariableExpression,
                                 context,
@@ -730,7 +735,7 @@ public class LetClauseSparkIterator extends RuntimeTupleIterator {
                 dataFrame.sparkSession()
                     .udf()
                     .register(
-                        "letClauseUDF",
+                        udfName,
                         new GenericLetClauseUDF<Integer>(
                                 newVariableExpression,
                                 context,
@@ -746,7 +751,7 @@ public class LetClauseSparkIterator extends RuntimeTupleIterator {
                 dataFrame.sparkSession()
                     .udf()
                     .register(
-                        "letClauseUDF",
+                        udfName,
                         new GenericLetClauseUDF<Integer>(
                                 newVariableExpression,
                                 context,
@@ -762,7 +767,7 @@ public class LetClauseSparkIterator extends RuntimeTupleIterator {
                 dataFrame.sparkSession()
                     .udf()
                     .register(
-                        "letClauseUDF",
+                        udfName,
                         new GenericLetClauseUDF<BigDecimal>(
                                 newVariableExpression,
                                 context,
@@ -778,7 +783,7 @@ public class LetClauseSparkIterator extends RuntimeTupleIterator {
                 dataFrame.sparkSession()
                     .udf()
                     .register(
-                        "letClauseUDF",
+                        udfName,
                         new GenericLetClauseUDF<Double>(
                                 newVariableExpression,
                                 context,
@@ -795,7 +800,7 @@ public class LetClauseSparkIterator extends RuntimeTupleIterator {
         dataFrame.sparkSession()
             .udf()
             .register(
-                "letClauseUDF",
+                udfName,
                 new ExpressionEvaluationUDF(newVariableExpression, context, UDFcolumns),
                 DataTypes.createArrayType(DataTypes.BinaryType)
             );
@@ -55,12 +55,18 @@ import org.rumbledb.types.TypeMappings;
 import sparksoniq.jsoniq.tuple.FlworKey;
 import sparksoniq.jsoniq.tuple.FlworKeyComparator;
 import sparksoniq.jsoniq.tuple.FlworTuple;
+import sparksoniq.jsoniq.tuple.SpillingTupleBuffer;
+import sparksoniq.jsoniq.tuple.SpillingTupleSorter;
+import sparksoniq.spark.QueryResources;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.PriorityQueue;
 import java.util.Set;
 import java.util.TreeMap;
 
@@ -71,8 +77,10 @@ public class OrderByClauseSparkIterator extends RuntimeTupleIterator {
     private final List<OrderByClauseAnnotatedChildIterator> expressionsWithIterator;
     private Map<Name, DynamicContext.VariableDependency> dependencies;
 
-    private List<FlworTuple> localTupleResults;
-    private int resultIndex;
+    private transient Iterator<FlworTuple> localTupleResults;
+    private transient SpillingTupleSorter sorter;
+    // the number of first tuples that are consumed after this clause, or -1 if they all are.
+    private long limit;
 
     public OrderByClauseSparkIterator(
             RuntimeTupleIterator child,
@@ -86,7 +94,21 @@ public class OrderByClauseSparkIterator extends RuntimeTupleIterator {
         for (OrderByClauseAnnotatedChildIterator e : this.expressionsWithIterator) {
             this.dependencies.putAll(e.getIterator().getVariableDependencies());
         }
-        this.localTupleResults = new ArrayList<>();
+        this.localTupleResults = null;
+        this.sorter = null;
+        this.limit = -1;
+    }
+
+    /**
+     * Tells this clause that only its first tuples are consumed, so that it sorts them with a bounded top-K instead of
+     * sorting all of them: a bounded heap locally, and an order by with a limit, which Spark runs as a top-K per
+     * partition followed by a merge, on DataFrames. It must be called before the clause is opened or its DataFrame is
+     * requested.
+     *
+     * @param limit the number of first tuples that are consumed, or -1 if they all are.
+     */
+    public void setLimit(long limit) {
+        this.limit = limit;
     }
 
     @Override
@@ -96,9 +118,8 @@ public class OrderByClauseSparkIterator extends RuntimeTupleIterator {
             throw new OurBadException("Invalid order-by clause.");
         }
         this.child.open(this.currentDynamicContext);
-        this.localTupleResults.clear();
-        this.resultIndex = 0;
-        this.hasNext = this.child.hasNext();
+        clearLocalResults();
+        this.hasNext = this.limit != 0 && this.child.hasNext();
     }
 
     @Override
@@ -108,9 +129,8 @@ public class OrderByClauseSparkIterator extends RuntimeTupleIterator {
             throw new OurBadException("Invalid order-by clause.");
         }
         this.child.reset(this.currentDynamicContext);
-        this.localTupleResults.clear();
-        this.resultIndex = 0;
-        this.hasNext = this.child.hasNext();
+        clearLocalResults();
+        this.hasNext = this.limit != 0 && this.child.hasNext();
     }
 
     @Override
@@ -120,20 +140,25 @@ public class OrderByClauseSparkIterator extends RuntimeTupleIterator {
             throw new OurBadException("Invalid order-by clause.");
         }
         this.child.close();
-        this.localTupleResults.clear();
-        this.resultIndex = 0;
+        clearLocalResults();
+    }
+
+    private void clearLocalResults() {
+        this.localTupleResults = null;
+        if (this.sorter != null) {
+            this.sorter.close();
+            this.sorter = null;
+        }
     }
 
     @Override
     public FlworTuple next() {
         if (this.hasNext) {
-            if (this.resultIndex == 0) {
+            if (this.localTupleResults == null) {
                 setAllLocalResults();
             }
-            FlworTuple result = this.localTupleResults.get(this.resultIndex++);
-            if (this.resultIndex == this.localTupleResults.size()) {
-                this.hasNext = false;
-            }
+            FlworTuple result = this.localTupleResults.next();
+            this.hasNext = this.localTupleResults.hasNext();
             return result;
         }
         throw new IteratorFlowException("Invalid next() call in order-by clause", getMetadata());
@@ -143,59 +168,49 @@ public class OrderByClauseSparkIterator extends RuntimeTupleIterator {
      * All local results need to be calculated for sorting/ordering to be performed.
      */
     private void setAllLocalResults() {
-        TreeMap<FlworKey, List<FlworTuple>> keyValuePairs = mapExpressionsToOrderedPairs();
-        // get only the values(ordered tuples) and save them in a list for next() calls
-        keyValuePairs.forEach((key, valueList) -> this.localTupleResults.addAll(valueList));
+        if (this.limit >= 0) {
+            this.localTupleResults = getFirstLocalResults().iterator();
+        } else {
+            this.localTupleResults = sortLocalResults();
+        }
 
         this.child.close();
-        this.hasNext = this.localTupleResults.size() != 0;
+        this.hasNext = this.localTupleResults.hasNext();
     }
 
     /**
      * Evaluates expressions to atomics(error is thrown if not possible) which are used as keys for sorted TreeMap.
-     * Requires child iterator to be opened.
+     * If a spill threshold is configured and the tuples can be serialized, they are sorted by a sorter that spills
+     * them to disk beyond that threshold instead. Requires child iterator to be opened.
      *
-     * @return Sorted TreeMap(ascending). key - atomics from expressions, value - input tuples
+     * @return an iterator over the input tuples, sorted (ascending).
      */
-    private TreeMap<FlworKey, List<FlworTuple>> mapExpressionsToOrderedPairs() {
+    private Iterator<FlworTuple> sortLocalResults() {
         // tree map keeps the natural item order deduced from an implementation of Comparator
         // OrderByClauseSortClosure implements a comparator and provides the exact desired behavior for local execution
         // as well
-        TreeMap<FlworKey, List<FlworTuple>> keyValuePairs = new TreeMap<>(
-                new FlworKeyComparator(this.expressionsWithIterator, getMetadata())
-        );
+        FlworKeyComparator keyComparator = new FlworKeyComparator(this.expressionsWithIterator, getMetadata());
+        TreeMap<FlworKey, List<FlworTuple>> keyValuePairs = new TreeMap<>(keyComparator);
+        long spillThreshold = getConfiguration().getLocalSpillThreshold();
 
         // assign current context as parent. re-use the same context object for efficiency
         DynamicContext tupleContext = new DynamicContext(this.currentDynamicContext);
         while (this.child.hasNext()) {
             FlworTuple inputTuple = this.child.next();
-
-            List<Item> results = new ArrayList<>(); // results from the expressions will become a key
-            for (OrderByClauseAnnotatedChildIterator expressionWithIterator : this.expressionsWithIterator) {
-                tupleContext.getVariableValues().removeAllVariables(); // clear the previous variables
-                tupleContext.getVariableValues().setBindingsFromTuple(inputTuple, getMetadata()); // assign new
-                                                                                                  // variables from new
-                                                                                                  // tuple
-
-                RuntimeIterator iterator = expressionWithIterator.getIterator();
-                try {
-                    Item resultItem = iterator.materializeAtMostOneItemOrNull(tupleContext);
-                    if (resultItem != null && !resultItem.isAtomic()) {
-                        throw new UnexpectedTypeException(
-                                "Keys in an order-by clause must be atomics.",
-                                expressionWithIterator.getIterator().getMetadata()
-                        );
-                    }
-                    // possibly null for empty sequence.
-                    results.add(resultItem);
-                } catch (MoreThanOneItemException e) {
-                    throw new UnexpectedTypeException(
-                            "Keys in an order-by clause must be at most one item.",
-                            expressionWithIterator.getIterator().getMetadata()
-                    );
-                }
+            FlworKey key = computeKey(inputTuple, tupleContext);
+            // all tuples have the same variables, so the first one tells whether they can be spilled
+            if (
+                this.sorter == null
+                    && spillThreshold > 0
+                    && keyValuePairs.isEmpty()
+                    && SpillingTupleBuffer.isSpillable(inputTuple)
+            ) {
+                this.sorter = new SpillingTupleSorter(keyComparator, spillThreshold);
+            }
+            if (this.sorter != null) {
+                this.sorter.add(key, inputTuple);
+                continue;
             }
-            FlworKey key = new FlworKey(results);
             List<FlworTuple> values = keyValuePairs.get(key); // all values for a single matching key are held in a list
             if (values == null) {
                 values = new ArrayList<>();
@@ -203,7 +218,87 @@ public class OrderByClauseSparkIterator extends RuntimeTupleIterator {
             }
             values.add(inputTuple);
         }
-        return keyValuePairs;
+        if (this.sorter != null) {
+            return this.sorter.iterator();
+        }
+        // get only the values(ordered tuples) and save them in a list for next() calls
+        List<FlworTuple> results = new ArrayList<>();
+        keyValuePairs.forEach((key, valueList) -> results.addAll(valueList));
+        return results.iterator();
+    }
+
+    /**
+     * Keeps the first tuples in a heap bounded by the limit, the head of which is the greatest tuple kept so far.
+     * Equal keys are ordered by input position, so that the result is the same as the beginning of a full sort.
+     * Requires child iterator to be opened.
+     *
+     * @return the first tuples, sorted (ascending).
+     */
+    private List<FlworTuple> getFirstLocalResults() {
+        FlworKeyComparator keyComparator = new FlworKeyComparator(this.expressionsWithIterator, getMetadata());
+        PriorityQueue<RankedTuple> heap = new PriorityQueue<>(
+                (int) Math.min(this.limit, 1024) + 1,
+                (tuple1, tuple2) -> {
+                    int result = keyComparator.compare(tuple2.key, tuple1.key);
+                    return result != 0 ? result : Long.compare(tuple2.rank, tuple1.rank);
+                }
+        );
+
+        // assign current context as parent. re-use the same context object for efficiency
+        DynamicContext tupleContext = new DynamicContext(this.currentDynamicContext);
+        long rank = 0;
+        while (this.child.hasNext()) {
+            FlworTuple inputTuple = this.child.next();
+            FlworKey key = computeKey(inputTuple, tupleContext);
+            if (heap.size() < this.limit) {
+                heap.add(new RankedTuple(key, rank++, inputTuple));
+            } else if (keyComparator.compare(key, heap.peek().key) < 0) {
+                heap.poll();
+                heap.add(new RankedTuple(key, rank++, inputTuple));
+            }
+        }
+
+        FlworTuple[] results = new FlworTuple[heap.size()];
+        for (int i = results.length - 1; i >= 0; --i) {
+            results[i] = heap.poll().tuple;
+        }
+        return Arrays.asList(results);
+    }
+
+    /**
+     * Evaluates the ordering expressions on a tuple.
+     *
+     * @param inputTuple the tuple.
+     * @param tupleContext the context in which to bind the variables of the tuple.
+     * @return the key of the tuple.
+     */
+    private FlworKey computeKey(FlworTuple inputTuple, DynamicContext tupleContext) {
+        List<Item> results = new ArrayList<>(); // results from the expressions will become a key
+        for (OrderByClauseAnnotatedChildIterator expressionWithIterator : this.expressionsWithIterator) {
+            tupleContext.getVariableValues().removeAllVariables(); // clear the previous variables
+            tupleContext.getVariableValues().setBindingsFromTuple(inputTuple, getMetadata()); // assign new
+                                                                                              // variables from new
+                                                                                              // tuple
+
+            RuntimeIterator iterator = expressionWithIterator.getIterator();
+            try {
+                Item resultItem = iterator.materializeAtMostOneItemOrNull(tupleContext);
+                if (resultItem != null && !resultItem.isAtomic()) {
+                    throw new UnexpectedTypeException(
+                            "Keys in an order-by clause must be atomics.",
+                            expressionWithIterator.getIterator().getMetadata()
+                    );
+                }
+                // possibly null for empty sequence.
+                results.add(resultItem);
+            } catch (MoreThanOneItemException e) {
+                throw new UnexpectedTypeException(
+                        "Keys in an order-by clause must be at most one item.",
+                        expressionWithIterator.getIterator().getMetadata()
+                );
+            }
+        }
+        return new FlworKey(results);
     }
 
     @Override
@@ -243,17 +338,19 @@ public class OrderByClauseSparkIterator extends RuntimeTupleIterator {
                 this.expressionsWithIterator,
                 allColumns,
                 inputSchema,
-                context
+                context,
+                this.limit
             );
         }
         if (nativeQueryResult != null) {
             return nativeQueryResult;
         }
 
+        String typeUDFName = FlworDataFrameUtils.createUDFName("determineOrderingDataType");
         df.sparkSession()
             .udf()
             .register(
-                "determineOrderingDataType",
+                typeUDFName,
                 new OrderClauseDetermineTypeUDF(this.expressionsWithIterator, context, UDFcolumns),
                 DataTypes.createArrayType(DataTypes.StringType)
             );
@@ -261,13 +358,15 @@ public class OrderByClauseSparkIterator extends RuntimeTupleIterator {
 
         String UDFParameters = FlworDataFrameUtils.getUDFParametersFromColumns(UDFcolumns);
 
-        df.createOrReplaceTempView("input");
-        df.sparkSession().table("input").cache();
+        String input = FlworDataFrameUtils.createTempView(df);
+        QueryResources.registerPersistedDataset(df.sparkSession().table(input).cache());
         Dataset<Row> columnTypesDf = df.sparkSession()
             .sql(
                 String.format(
-                    "select distinct(determineOrderingDataType(%s)) as `distinct-types` from input",
-                    UDFParameters
+                    "select distinct(%s(%s)) as `distinct-types` from %s",
+                    typeUDFName,
+                    UDFParameters,
+                    input
                 )
             );
 
@@ -433,10 +532,11 @@ public class OrderByClauseSparkIterator extends RuntimeTupleIterator {
             }
         }
 
+        String udfName = FlworDataFrameUtils.createUDFName("createOrderingColumns");
         df.sparkSession()
             .udf()
             .register(
-                "createOrderingColumns",
+                udfName,
                 new OrderClauseCreateColumnsUDF(
                         this.expressionsWithIterator,
                         context,
@@ -453,12 +553,15 @@ public class OrderByClauseSparkIterator extends RuntimeTupleIterator {
                 df.sparkSession()
                     .sql(
                         String.format(
-                            "select %s from (select %s createOrderingColumns(%s) as `%s` from input order by %s)",
+                            "select %s from (select %s %s(%s) as `%s` from %s order by %s%s)",
                             projectSQL,
                             selectSQL,
+                            udfName,
                             UDFParameters,
                             appendedOrderingColumnsName,
-                            orderingSQL
+                            input,
+                            orderingSQL,
+                            getLimitSQL(this.limit)
                         )
                     )
         );
@@ -525,6 +628,7 @@ public class OrderByClauseSparkIterator extends RuntimeTupleIterator {
      * @param allColumns other columns required in following clauses
      * @param inputSchema input schema of the dataframe
      * @param context current dynamic context of the dataframe
+     * @param limit the number of first tuples to keep, or -1 to keep them all
      * @return resulting dataframe of the order by clause if successful, null otherwise
      */
     public static FlworDataFrame tryNativeQuery(
@@ -532,7 +636,8 @@ public class OrderByClauseSparkIterator extends RuntimeTupleIterator {
             List<OrderByClauseAnnotatedChildIterator> expressionsWithIterator,
             List<FlworDataFrameColumn> allColumns,
             StructType inputSchema,
-            DynamicContext context
+            DynamicContext context,
+            long limit
     ) {
         NativeClauseContext orderContext = new NativeClauseContext(FLWOR_CLAUSES.ORDER_BY, inputSchema, context);
         StringBuilder orderSql = new StringBuilder();
@@ -579,19 +684,25 @@ public class OrderByClauseSparkIterator extends RuntimeTupleIterator {
         LogManager.getLogger("OrderByClauseSparkIterator")
             .info("Rumble was able to optimize an order-by clause to a native SQL query.");
         String selectSQL = FlworDataFrameUtils.getSQLColumnProjection(allColumns, false);
-        dataFrame.createOrReplaceTempView("input");
+        String input = FlworDataFrameUtils.createTempView(dataFrame);
         return new FlworDataFrame(
                 dataFrame.sparkSession()
                     .sql(
                         String.format(
-                            "select %s from input order by %s",
+                            "select %s from %s order by %s%s",
                             selectSQL,
-                            orderSql
+                            input,
+                            orderSql,
+                            getLimitSQL(limit)
                         )
                     )
         );
     }
 
+    private static String getLimitSQL(long limit) {
+        return limit >= 0 ? " limit " + limit : "";
+    }
+
     public boolean containsClause(FLWOR_CLAUSES kind) {
         if (kind == FLWOR_CLAUSES.ORDER_BY) {
             return true;
@@ -630,4 +741,16 @@ public class OrderByClauseSparkIterator extends RuntimeTupleIterator {
                 return false;
         }
     }
+
+    private static class RankedTuple {
+        private final FlworKey key;
+        private final long rank;
+        private final FlworTuple tuple;
+
+        private RankedTuple(FlworKey key, long rank, FlworTuple tuple) {
+            this.key = key;
+            this.rank = rank;
+            this.tuple = tuple;
+        }
+    }
 }
@@ -33,6 +33,7 @@ import org.rumbledb.context.RuntimeStaticContext;
 import org.rumbledb.exceptions.IteratorFlowException;
 import org.rumbledb.exceptions.JobWithinAJobException;
 import org.rumbledb.exceptions.OurBadException;
+import org.rumbledb.exceptions.UnsupportedFeatureException;
 import org.rumbledb.expressions.flowr.FLWOR_CLAUSES;
 import org.rumbledb.items.structured.JSoundDataFrame;
 import org.rumbledb.runtime.HybridRuntimeIterator;
@@ -44,6 +45,7 @@ import org.rumbledb.runtime.flwor.NativeClauseContext;
 import org.rumbledb.runtime.flwor.closures.ReturnFlatMapClosure;
 import org.rumbledb.runtime.typing.ValidateTypeIterator;
 import org.rumbledb.runtime.update.PendingUpdateList;
+import org.rumbledb.types.SequenceType;
 
 import sparksoniq.jsoniq.tuple.FlworTuple;
 import sparksoniq.spark.SparkSessionManager;
@@ -88,6 +90,29 @@ public class ReturnClauseSparkIterator extends HybridRuntimeIterator {
         this(child, expression, false, staticContext);
     }
 
+    /**
+     * Tells this clause that only its first items are consumed. If it follows an order by clause and its expression
+     * returns at least one item per tuple, the first items come from as many first tuples at most, so that the order
+     * by clause only needs to sort those.
+     *
+     * @param limit the number of first items that are consumed, or -1 if they all are.
+     */
+    public void setLimit(long limit) {
+        if (!(this.child instanceof OrderByClauseSparkIterator)) {
+            return;
+        }
+        SequenceType type = this.expression.getStaticType();
+        if (
+            limit >= 0
+                && (type == null
+                    || !(type.getArity().equals(SequenceType.Arity.One)
+                        || type.getArity().equals(SequenceType.Arity.OneOrMore)))
+        ) {
+            limit = -1;
+        }
+        ((OrderByClauseSparkIterator) this.child).setLimit(limit);
+    }
+
     @Override
     public JavaRDD<Item> getRDDAux(DynamicContext context) {
         RuntimeIterator expression = this.children.get(0);
@@ -434,7 +459,14 @@ public class ReturnClauseSparkIterator extends HybridRuntimeIterator {
                 PendingUpdateList intermediateResult = this.expression.getPendingUpdateList(dynamicContext);
                 result = PendingUpdateList.mergeUpdates(result, intermediateResult, this.getMetadata());
             }
+            return result;
         }
-        return result;
+
+        // The targets of the updates only exist on the executors, and there is no dataset to write them out to, so
+        // that the updates would have no effect.
+        throw new UnsupportedFeatureException(
+                "Updating expressions are not supported in FLWOR expressions that are executed in parallel, e.g., over json-file() or DataFrames. Please consider copying the items with a copy-modify-return expression instead.",
+                getMetadata()
+        );
     }
 }
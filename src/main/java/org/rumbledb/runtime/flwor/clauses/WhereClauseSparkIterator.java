@@ -75,6 +75,7 @@ public class WhereClauseSparkIterator extends RuntimeTupleIterator {
     public void open(DynamicContext context) {
         super.open(context);
         if (this.child != null) {
+            setOrderByLimit(this.currentDynamicContext);
             this.child.open(this.currentDynamicContext);
             this.tupleContext = new DynamicContext(this.currentDynamicContext); // assign current context as parent
 
@@ -100,6 +101,7 @@ public class WhereClauseSparkIterator extends RuntimeTupleIterator {
     public void reset(DynamicContext context) {
         super.reset(context);
         if (this.child != null) {
+            setOrderByLimit(this.currentDynamicContext);
             this.child.reset(this.currentDynamicContext);
             this.tupleContext = new DynamicContext(this.currentDynamicContext); // assign current context as parent
 
@@ -193,9 +195,10 @@ public class WhereClauseSparkIterator extends RuntimeTupleIterator {
             null
         );
 
+        String udfName = FlworDataFrameUtils.createUDFName("whereClauseUDF");
         df.getUDFRegistration()
             .register(
-                "whereClauseUDF",
+                udfName,
                 new WhereClauseUDF(this.expression, context, UDFcolumns),
                 DataTypes.BooleanType
             );
@@ -205,14 +208,48 @@ public class WhereClauseSparkIterator extends RuntimeTupleIterator {
         String input = df.createTempView();
         return df.sql(
             String.format(
-                "select * from %s where whereClauseUDF(%s) = 'true'",
+                "select * from %s where %s(%s) = 'true'",
                 input,
+                udfName,
                 UDFParameters
             )
         );
     }
 
     private FlworDataFrame getDataFrameIfLimit(DynamicContext context) {
+        Long limit = getLimit(context);
+        if (limit == null) {
+            return null;
+        }
+        LogManager.getLogger("WhereClauseSparkIterator")
+            .info(
+                "Rumble detected a LIMIT in a count and where clause."
+            );
+        return ((CountClauseSparkIterator) this.child).getDataFrameUpTo(context, limit);
+    }
+
+    /**
+     * Lets an order by clause that precedes a count clause and this where clause only sort the tuples that are kept.
+     *
+     * @param context the dynamic context.
+     */
+    private void setOrderByLimit(DynamicContext context) {
+        if (
+            this.child instanceof CountClauseSparkIterator
+                && this.child.getChildIterator() instanceof OrderByClauseSparkIterator
+        ) {
+            Long limit = getLimit(context);
+            ((OrderByClauseSparkIterator) this.child.getChildIterator()).setLimit(limit == null ? -1 : limit);
+        }
+    }
+
+    /**
+     * Detects a where clause that only keeps the tuples up to a count, such as count $c where $c le 100.
+     *
+     * @param context the dynamic context.
+     * @return the greatest count that passes this where clause, or null if it does not have this form.
+     */
+    private Long getLimit(DynamicContext context) {
         if (!(this.child instanceof CountClauseSparkIterator)) {
             return null;
         }
@@ -222,10 +259,13 @@ public class WhereClauseSparkIterator extends RuntimeTupleIterator {
             return null;
         }
         ComparisonIterator comparisonIterator = (ComparisonIterator) this.expression;
+        ComparisonExpression.ComparisonOperator operator = comparisonIterator.getComparisonOperator();
+        boolean isStrict = operator.equals(ComparisonExpression.ComparisonOperator.VC_LT)
+            || operator.equals(ComparisonExpression.ComparisonOperator.GC_LT);
         if (
-            !comparisonIterator.getComparisonOperator().equals(ComparisonExpression.ComparisonOperator.VC_LE)
-                &&
-                !comparisonIterator.getComparisonOperator().equals(ComparisonExpression.ComparisonOperator.GC_LE)
+            !isStrict
+                && !operator.equals(ComparisonExpression.ComparisonOperator.VC_LE)
+                && !operator.equals(ComparisonExpression.ComparisonOperator.GC_LE)
         ) {
             return null;
         }
@@ -250,16 +290,14 @@ public class WhereClauseSparkIterator extends RuntimeTupleIterator {
             return null;
         }
         Item item = items.get(0);
-        if (!item.isInteger()) {
+        if (!item.isInteger() || item.getIntegerValue().bitLength() >= Long.SIZE - 1) {
             return null;
         }
-        LogManager.getLogger("WhereClauseSparkIterator")
-            .info(
-                "Rumble detected a LIMIT in a count and where clause."
-            );
-        FlworDataFrame df = this.child.getChildIterator().getDataFrame(context);
-        String input = df.createTempView();
-        return df.sql(String.format("SELECT * FROM %s LIMIT %s", input, item.getStringValue()));
+        long limit = item.getIntegerValue().longValue();
+        if (isStrict) {
+            --limit;
+        }
+        return Math.max(limit, 0);
     }
 
     private FlworDataFrame getDataFrameIfJoinPossible(DynamicContext context) {
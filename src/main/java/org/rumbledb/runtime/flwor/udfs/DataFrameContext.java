@@ -28,6 +28,7 @@ import org.apache.spark.sql.Row;
 import org.apache.spark.sql.types.ArrayType;
 import org.apache.spark.sql.types.DataType;
 import org.apache.spark.sql.types.DataTypes;
+import org.apache.spark.sql.types.StructType;
 import org.rumbledb.api.Item;
 import org.rumbledb.context.DynamicContext;
 import org.rumbledb.exceptions.ExceptionMetadata;
@@ -40,6 +41,7 @@ import org.rumbledb.types.ItemType;
 
 import java.io.IOException;
 import java.io.Serializable;
+import java.util.AbstractList;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
@@ -62,6 +64,11 @@ public class DataFrameContext implements Serializable {
     private transient Output output;
     private transient Input input;
 
+    // the layout of the rows, looked up on the first row of each partition.
+    private transient StructType schema;
+    private transient int[] ordinals;
+    private transient boolean[] nativeSequences;
+
     /**
      * Builds a new data frame context that only serves to pool Kryo objects.
      * The only allowed methods are getKryo, getInput and getOutput.
@@ -108,43 +115,56 @@ public class DataFrameContext implements Serializable {
     /**
      * Sets the context from a DataFrame row.
      *
+     * The ordinals and types of the columns are looked up on the first row of each partition only. Variables are bound
+     * to sequences that are only deserialized when the expression first reads them, and the variable maps keep the
+     * same keys from one row to the next so that binding overwrites their entries in place.
+     *
      * @param row An row, the column names and types of which must correspond to those passed in the constructor.
      * @param itemType the itemType to use for the conversion.
      *
      */
     public void setFromRow(Row row, ItemType itemType) {
-        this.context.getVariableValues().removeAllVariables();
+        if (row.schema() != this.schema) {
+            setSchema(row.schema());
+        }
 
         // Create dynamic context with deserialized data but only with dependencies
-        for (FlworDataFrameColumn column : this.columns) {
-            int columnIndex = row.fieldIndex(column.getColumnName());
-            if (column.isNativeSequence()) {
-                List<Item> i = readColumnAsSequenceOfItems(row, itemType, columnIndex);
-                this.context.getVariableValues()
-                    .addVariableValue(
-                        column.getVariableName(),
-                        i
-                    );
-            }
+        for (int i = 0; i < this.columns.size(); ++i) {
+            FlworDataFrameColumn column = this.columns.get(i);
             if (!column.isCount()) {
-                List<Item> i = readColumnAsSequenceOfItems(row, itemType, columnIndex);
                 this.context.getVariableValues()
                     .addVariableValue(
                         column.getVariableName(),
-                        i
+                        new LazyColumnSequence(this, row, itemType, i)
                     );
             } else {
-                long count = FlworDataFrameUtils.getCountOfField(row, columnIndex);
-                Item i = ItemFactory.getInstance().createLongItem(count);
+                long count = FlworDataFrameUtils.getCountOfField(row, this.ordinals[i]);
+                Item item = ItemFactory.getInstance().createLongItem(count);
                 this.context.getVariableValues()
                     .addVariableCount(
                         column.getVariableName(),
-                        i
+                        item
                     );
             }
         }
     }
 
+    private void setSchema(StructType schema) {
+        if (this.schema != null && this.schema.equals(schema)) {
+            this.schema = schema;
+            return;
+        }
+        this.schema = schema;
+        this.ordinals = new int[this.columns.size()];
+        this.nativeSequences = new boolean[this.columns.size()];
+        for (int i = 0; i < this.columns.size(); ++i) {
+            String columnName = this.columns.get(i).getColumnName();
+            this.ordinals[i] = schema.fieldIndex(columnName);
+            this.nativeSequences[i] = new FlworDataFrameColumn(columnName, schema).isNativeSequence();
+        }
+        this.context.getVariableValues().removeAllVariables();
+    }
+
     /**
      * Gets the currently populated dynamic context. It is a child of the context passed to the constructor,
      * populated with the current input tuple with one of the two set* functions.
@@ -195,9 +215,10 @@ public class DataFrameContext implements Serializable {
     }
 
     @SuppressWarnings("unchecked")
-    private List<Item> readColumnAsSequenceOfItems(Row row, ItemType itemType, int columnIndex) {
+    private List<Item> readColumnAsSequenceOfItems(Row row, ItemType itemType, int column) {
+        int columnIndex = this.ordinals[column];
         Object o = row.get(columnIndex);
-        DataType dt = row.schema().fields()[columnIndex].dataType();
+        DataType dt = this.schema.fields()[columnIndex].dataType();
         // There are three special cases:
         // - NULL: this is an empty sequence
         // - A binary value: this is a serialized sequence
@@ -213,7 +234,7 @@ public class DataFrameContext implements Serializable {
                 return (List<Item>) this.kryo.readClassAndObject(this.input);
             } catch (Exception e) {
                 RuntimeException ex = new OurBadException(
-                        "Error while deserializing column " + row.schema().fields()[columnIndex].name()
+                        "Error while deserializing column " + this.schema.fields()[columnIndex].name()
                 );
                 ex.initCause(e);
                 throw ex;
@@ -223,7 +244,7 @@ public class DataFrameContext implements Serializable {
             ArrayType arrayType = (ArrayType) dt;
             if (arrayType.elementType().equals(DataTypes.BinaryType)) {
                 List<Object> objects = row.getList(columnIndex);
-                List<Item> items = new ArrayList<>();
+                List<Item> items = new ArrayList<>(objects.size());
                 for (Object object : objects) {
                     byte[] bytes = (byte[]) object;
                     this.input.setBuffer(bytes);
@@ -232,18 +253,14 @@ public class DataFrameContext implements Serializable {
                 }
                 return items;
             }
-            FlworDataFrameColumn dfColumn = new FlworDataFrameColumn(
-                    row.schema().fields()[columnIndex].name(),
-                    row.schema()
-            );
 
-            if (dfColumn.isNativeSequence()) {
+            if (this.nativeSequences[column]) {
                 List<Object> objects = row.getList(columnIndex);
-                List<Item> items = new ArrayList<>();
+                List<Item> items = new ArrayList<>(objects.size());
                 for (Object object : objects) {
                     Item item = ItemParser.convertValueToItem(
                         object,
-                        ((ArrayType) dt).elementType(),
+                        arrayType.elementType(),
                         ExceptionMetadata.EMPTY_METADATA,
                         itemType == null ? null : itemType.getArrayContentFacet()
                     );
@@ -255,4 +272,72 @@ public class DataFrameContext implements Serializable {
         Item item = ItemParser.convertValueToItem(o, dt, ExceptionMetadata.EMPTY_METADATA, itemType);
         return Collections.singletonList(item);
     }
+
+    /**
+     * The value of a variable in a row, which is only deserialized when it is first read. It behaves like a list
+     * of the deserialized items, including when it is serialized, as it may end up in a function closure.
+     */
+    private static class LazyColumnSequence extends AbstractList<Item> implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        private transient DataFrameContext dataFrameContext;
+        private transient Row row;
+        private transient ItemType itemType;
+        private transient int column;
+        private List<Item> items;
+
+        /**
+         * Builds an empty sequence, for deserialization purposes.
+         */
+        public LazyColumnSequence() {
+            this.items = new ArrayList<>();
+        }
+
+        private LazyColumnSequence(DataFrameContext dataFrameContext, Row row, ItemType itemType, int column) {
+            this.dataFrameContext = dataFrameContext;
+            this.row = row;
+            this.itemType = itemType;
+            this.column = column;
+            this.items = null;
+        }
+
+        private List<Item> getItems() {
+            if (this.items == null) {
+                this.items = this.dataFrameContext.readColumnAsSequenceOfItems(this.row, this.itemType, this.column);
+                this.dataFrameContext = null;
+                this.row = null;
+            }
+            return this.items;
+        }
+
+        @Override
+        public Item get(int index) {
+            return getItems().get(index);
+        }
+
+        @Override
+        public int size() {
+            return getItems().size();
+        }
+
+        @Override
+        public Item set(int index, Item item) {
+            return getItems().set(index, item);
+        }
+
+        @Override
+        public void add(int index, Item item) {
+            getItems().add(index, item);
+        }
+
+        @Override
+        public Item remove(int index) {
+            return getItems().remove(index);
+        }
+
+        private Object writeReplace() {
+            return new ArrayList<>(getItems());
+        }
+    }
 }
@@ -172,7 +172,7 @@ public class FunctionItemCallIterator extends HybridRuntimeIterator {
             this.functionBodyIterator = generatePartiallyAppliedFunction(this.currentDynamicContextForLocalExecution);
         } else {
             if (this.functionBodyIterator == null) {
-                this.functionBodyIterator = this.functionItem.getBodyIterator().deepCopy();
+                this.functionBodyIterator = acquireFunctionBodyIterator();
             }
             this.populateDynamicContextWithArguments(
                 this.currentDynamicContextForLocalExecution
@@ -300,6 +300,20 @@ public class FunctionItemCallIterator extends HybridRuntimeIterator {
         if (this.functionBodyIterator != null && this.functionBodyIterator.isOpen()) {
             this.functionBodyIterator.close();
         }
+        // the body is given back so that the next call, including a sibling recursive call, can reuse it
+        if (!this.isPartialApplication && this.functionBodyIterator != null) {
+            if (this.functionItem instanceof FunctionItem) {
+                ((FunctionItem) this.functionItem).releaseBodyIterator(this.functionBodyIterator);
+            }
+            this.functionBodyIterator = null;
+        }
+    }
+
+    private RuntimeIterator acquireFunctionBodyIterator() {
+        if (this.functionItem instanceof FunctionItem) {
+            return ((FunctionItem) this.functionItem).acquireBodyIterator();
+        }
+        return this.functionItem.getBodyIterator().deepCopy();
     }
 
     public void setNextResult() {
@@ -325,8 +339,9 @@ public class FunctionItemCallIterator extends HybridRuntimeIterator {
         }
 
         this.populateDynamicContextWithArguments(dynamicContext);
-        this.functionBodyIterator = this.functionItem.getBodyIterator();
-        return this.functionBodyIterator.getRDD(this.dynamicContextForCalls);
+        // the returned RDD may still use the body lazily, so it gets its own copy rather than one from the pool
+        RuntimeIterator bodyIterator = this.functionItem.getBodyIterator().deepCopy();
+        return bodyIterator.getRDD(this.dynamicContextForCalls);
     }
 
     @Override
@@ -343,7 +358,7 @@ public class FunctionItemCallIterator extends HybridRuntimeIterator {
         }
 
         populateDynamicContextWithArguments(dynamicContext);
-        this.functionBodyIterator = this.functionItem.getBodyIterator();
-        return this.functionBodyIterator.getDataFrame(this.dynamicContextForCalls);
+        RuntimeIterator bodyIterator = this.functionItem.getBodyIterator().deepCopy();
+        return bodyIterator.getDataFrame(this.dynamicContextForCalls);
     }
 }
@@ -54,9 +54,8 @@ public class NamedFunctionRefRuntimeIterator extends AtMostOneItemLocalRuntimeIt
                     getMetadata()
             );
         }
-        FunctionItem function = dynamicContext.getNamedFunctions()
+        FunctionItem result = dynamicContext.getNamedFunctions()
             .getUserDefinedFunction(this.functionIdentifier);
-        FunctionItem result = ((FunctionItem) function).deepCopy();
         result.populateClosureFromDynamicContext(dynamicContext, getMetadata());
         return result;
     }
@@ -4,12 +4,15 @@ import org.apache.hadoop.HadoopIllegalArgumentException;
 import org.apache.hadoop.fs.CreateFlag;
 import org.apache.hadoop.fs.FSDataOutputStream;
 import org.apache.hadoop.fs.FileContext;
+import org.apache.hadoop.fs.FileStatus;
 import org.apache.hadoop.fs.Path;
 import org.apache.hadoop.fs.UnsupportedFileSystemException;
+import org.apache.http.Header;
 import org.apache.http.HttpEntity;
 import org.apache.http.client.ClientProtocolException;
 import org.apache.http.client.methods.CloseableHttpResponse;
 import org.apache.http.client.methods.HttpGet;
+import org.apache.http.client.methods.HttpHead;
 import org.apache.http.impl.client.CloseableHttpClient;
 import org.apache.http.impl.client.HttpClients;
 import org.rumbledb.config.RumbleRuntimeConfiguration;
@@ -19,9 +22,11 @@ import org.rumbledb.exceptions.OurBadException;
 import org.rumbledb.exceptions.RumbleException;
 
 import java.io.BufferedReader;
+import java.io.FilterInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.OutputStream;
 import java.lang.reflect.InvocationTargetException;
 import java.net.URI;
 import java.net.URISyntaxException;
@@ -125,6 +130,56 @@ public class FileSystemUtil {
         }
     }
 
+    /**
+     * Gets the length of a single file, without reading it.
+     *
+     * @param locator the resolved URI.
+     * @param conf the configuration.
+     * @param metadata the metadata to attach to errors.
+     * @return the length in bytes, or -1 if the URI is remote, contains wildcards, is not a regular file or cannot
+     *         be accessed.
+     */
+    public static long getFileLength(URI locator, RumbleRuntimeConfiguration conf, ExceptionMetadata metadata) {
+        FileStatus status = getFileStatus(locator, conf, metadata);
+        return status == null ? -1 : status.getLen();
+    }
+
+    /**
+     * Gets a version of a single file, which changes whenever the file is modified, without reading it.
+     *
+     * @param locator the resolved URI.
+     * @param conf the configuration.
+     * @param metadata the metadata to attach to errors.
+     * @return the version, made of the length and the modification time, or null if the URI is remote, contains
+     *         wildcards, is not a regular file or cannot be accessed.
+     */
+    public static String getFileVersion(URI locator, RumbleRuntimeConfiguration conf, ExceptionMetadata metadata) {
+        FileStatus status = getFileStatus(locator, conf, metadata);
+        return status == null ? null : status.getLen() + "@" + status.getModificationTime();
+    }
+
+    private static FileStatus getFileStatus(
+            URI locator,
+            RumbleRuntimeConfiguration conf,
+            ExceptionMetadata metadata
+    ) {
+        if (
+            !locator.isAbsolute()
+                || locator.toString().contains("*")
+                || locator.getScheme().equals("http")
+                || locator.getScheme().equals("https")
+        ) {
+            return null;
+        }
+        try {
+            checkAllowed(locator, conf, metadata);
+            FileStatus status = FileContext.getFileContext().getFileStatus(new Path(locator));
+            return status.isFile() ? status : null;
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
     public static boolean delete(URI locator, RumbleRuntimeConfiguration conf, ExceptionMetadata metadata) {
         checkForAbsoluteAndNoWildcards(locator, metadata);
         checkAllowed(locator, conf, metadata);
@@ -194,6 +249,173 @@ public class FileSystemUtil {
         return null;
     }
 
+    /**
+     * Asks an HTTP server whether a resource can be read by byte ranges.
+     *
+     * @param locator the http or https URI.
+     * @param conf the configuration.
+     * @param metadata the metadata to attach to errors.
+     * @return the length of the resource, or -1 if the server does not advertise byte ranges and a length.
+     */
+    public static long getHTTPRangeableLength(
+            URI locator,
+            RumbleRuntimeConfiguration conf,
+            ExceptionMetadata metadata
+    ) {
+        checkAllowed(locator, conf, metadata);
+        // ranges must apply to the identity encoding, so compression is not negotiated.
+        try (
+            CloseableHttpClient httpclient = HttpClients.custom().disableContentCompression().build();
+            CloseableHttpResponse response = httpclient.execute(new HttpHead(locator))
+        ) {
+            if (response.getStatusLine().getStatusCode() != 200) {
+                return -1;
+            }
+            Header acceptRanges = response.getFirstHeader("Accept-Ranges");
+            Header contentLength = response.getFirstHeader("Content-Length");
+            if (
+                acceptRanges == null
+                    || !acceptRanges.getValue().equalsIgnoreCase("bytes")
+                    || contentLength == null
+            ) {
+                return -1;
+            }
+            return Long.parseLong(contentLength.getValue().trim());
+        } catch (IOException | NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Opens an HTTP resource from the given byte offset. The bytes up to end (inclusive) are requested at once, and
+     * the bytes after end, if they are read (e.g., to finish the last line of a split), are requested lazily in
+     * ranges of HTTP_CONTINUATION_RANGE_SIZE bytes, so that the server is never asked for the rest of the resource.
+     * If the server ignores the range, the first bytes are skipped on the client side.
+     *
+     * @param locator the http or https URI.
+     * @param start the first byte to read.
+     * @param end the last byte that is known to be read.
+     * @param metadata the metadata to attach to errors.
+     * @return the stream. Closing it releases the connection.
+     */
+    public static InputStream getDataInputStreamHTMLForRange(
+            URI locator,
+            long start,
+            long end,
+            ExceptionMetadata metadata
+    ) {
+        return new HTTPRangeInputStream(locator, start, end, metadata);
+    }
+
+    private static final long HTTP_CONTINUATION_RANGE_SIZE = 1024 * 1024;
+
+    private static class HTTPRangeInputStream extends InputStream {
+
+        private final URI locator;
+        private final ExceptionMetadata metadata;
+        private InputStream current;
+        // the next byte to read, and the last byte of the current range (Long.MAX_VALUE if the server sent it all).
+        private long position;
+        private long rangeEnd;
+        private boolean exhausted;
+
+        HTTPRangeInputStream(URI locator, long start, long end, ExceptionMetadata metadata) {
+            this.locator = locator;
+            this.metadata = metadata;
+            this.position = start;
+            openRange(start, end);
+        }
+
+        private void openRange(long from, long to) {
+            CloseableHttpClient httpclient = HttpClients.custom().disableContentCompression().build();
+            HttpGet httpGet = new HttpGet(this.locator);
+            httpGet.setHeader("Range", "bytes=" + from + "-" + to);
+            try {
+                CloseableHttpResponse response = httpclient.execute(httpGet);
+                int statusCode = response.getStatusLine().getStatusCode();
+                if (statusCode == 416) {
+                    // the range starts after the end of the resource.
+                    response.close();
+                    httpclient.close();
+                    this.current = null;
+                    this.exhausted = true;
+                    return;
+                }
+                if (statusCode != 200 && statusCode != 206) {
+                    response.close();
+                    httpclient.close();
+                    throw new CannotRetrieveResourceException(
+                            "Unsuccessful status code: " + statusCode + " while requesting " + this.locator,
+                            this.metadata
+                    );
+                }
+                this.current = new FilterInputStream(response.getEntity().getContent()) {
+                    @Override
+                    public void close() throws IOException {
+                        // aborts rather than drains the rest of the body.
+                        response.close();
+                        httpclient.close();
+                    }
+                };
+                if (statusCode == 206) {
+                    this.rangeEnd = to;
+                    return;
+                }
+                this.rangeEnd = Long.MAX_VALUE;
+                long toSkip = from;
+                while (toSkip > 0) {
+                    long skipped = this.current.skip(toSkip);
+                    if (skipped <= 0) {
+                        break;
+                    }
+                    toSkip -= skipped;
+                }
+            } catch (IOException e) {
+                handleException(e, this.locator, this.metadata);
+            }
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] buffer = new byte[1];
+            return read(buffer, 0, 1) == -1 ? -1 : buffer[0] & 0xff;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            if (length == 0) {
+                return 0;
+            }
+            while (!this.exhausted) {
+                int read = this.current.read(buffer, offset, length);
+                if (read > 0) {
+                    this.position += read;
+                    return read;
+                }
+                if (read == -1) {
+                    this.current.close();
+                    this.current = null;
+                    if (this.rangeEnd == Long.MAX_VALUE || this.position <= this.rangeEnd) {
+                        // the resource ended before the range.
+                        this.exhausted = true;
+                    } else {
+                        openRange(this.position, this.position + HTTP_CONTINUATION_RANGE_SIZE - 1);
+                    }
+                }
+            }
+            return -1;
+        }
+
+        @Override
+        public void close() throws IOException {
+            this.exhausted = true;
+            if (this.current != null) {
+                this.current.close();
+                this.current = null;
+            }
+        }
+    }
+
     public static String readContent(URI locator, RumbleRuntimeConfiguration conf, ExceptionMetadata metadata) {
         checkForAbsoluteAndNoWildcards(locator, metadata);
         checkAllowed(locator, conf, metadata);
@@ -238,6 +460,34 @@ public class FileSystemUtil {
         }
     }
 
+    /**
+     * Creates (or overwrites) a file and returns a stream to write its content incrementally.
+     *
+     * @param locator the absolute URI of the file.
+     * @param conf the configuration.
+     * @param metadata the metadata to attach to errors.
+     * @return the stream, which the caller must close.
+     */
+    public static OutputStream getDataOutputStream(
+            URI locator,
+            RumbleRuntimeConfiguration conf,
+            ExceptionMetadata metadata
+    ) {
+        checkForAbsoluteAndNoWildcards(locator, metadata);
+        checkAllowed(locator, conf, metadata);
+        try {
+            FileContext fileContext = FileContext.getFileContext();
+            Path path = new Path(locator);
+            return fileContext.create(
+                path,
+                EnumSet.of(CreateFlag.CREATE, CreateFlag.OVERWRITE)
+            );
+        } catch (Exception e) {
+            handleException(e, locator, metadata);
+            return null;
+        }
+    }
+
     public static void append(
             URI locator,
             List<String> content,
@@ -0,0 +1,189 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Authors: Stefan Irimescu, Can Berker Cikis
+ *
+ */
+
+package org.rumbledb.runtime.functions.input;
+
+import org.apache.hadoop.io.Text;
+import org.apache.hadoop.util.LineReader;
+import org.apache.spark.SparkFiles;
+import org.apache.spark.api.java.function.FlatMapFunction;
+import org.rumbledb.api.Item;
+import org.rumbledb.exceptions.CannotRetrieveResourceException;
+import org.rumbledb.exceptions.ExceptionMetadata;
+import org.rumbledb.exceptions.RumbleException;
+import org.rumbledb.items.ObjectShapeDictionary;
+import org.rumbledb.items.parsing.JSONBytesParser;
+import org.rumbledb.items.parsing.JSONProjection;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Parses the JSON Lines of one byte range of a resource that is read remotely, either over HTTP with a ranged GET
+ * or from a copy shipped to every executor with SparkContext.addFile().
+ *
+ * Each partition receives the offset of its range. Like Hadoop's LineRecordReader, a range [start, end) owns the
+ * lines that begin after start (or at 0 for the first range) and at or before end, so that a line crossing a range
+ * boundary is read exactly once, by the range in which it begins.
+ */
+public class JSONLinesRangeMapper implements FlatMapFunction<Iterator<Long>, Item> {
+
+    private static final long serialVersionUID = 1L;
+    private final URI uri;
+    private final String sparkFileName;
+    private final long rangeSize;
+    private final ExceptionMetadata metadata;
+    private final JSONProjection projection;
+
+    /**
+     * Creates a mapper.
+     *
+     * @param uri the http or https URI to read with ranged requests, or null to read a file shipped with addFile().
+     * @param sparkFileName the name of the shipped file, if uri is null.
+     * @param rangeSize the number of bytes in each range.
+     * @param metadata the metadata to attach to errors.
+     * @param projection the paths to keep in each value, or null to keep everything.
+     */
+    public JSONLinesRangeMapper(
+            URI uri,
+            String sparkFileName,
+            long rangeSize,
+            ExceptionMetadata metadata,
+            JSONProjection projection
+    ) {
+        this.uri = uri;
+        this.sparkFileName = sparkFileName;
+        this.rangeSize = rangeSize;
+        this.metadata = metadata;
+        this.projection = projection;
+    }
+
+    @Override
+    public Iterator<Item> call(Iterator<Long> offsets) throws Exception {
+        if (!offsets.hasNext()) {
+            return new Iterator<Item>() {
+                @Override
+                public boolean hasNext() {
+                    return false;
+                }
+
+                @Override
+                public Item next() {
+                    throw new NoSuchElementException();
+                }
+            };
+        }
+        long start = offsets.next();
+        return new RangeIterator(start, start + this.rangeSize);
+    }
+
+    private InputStream open(long offset, long end) throws IOException {
+        if (this.uri != null) {
+            return FileSystemUtil.getDataInputStreamHTMLForRange(this.uri, offset, end, this.metadata);
+        }
+        InputStream stream = new FileInputStream(SparkFiles.get(this.sparkFileName));
+        long toSkip = offset;
+        while (toSkip > 0) {
+            long skipped = stream.skip(toSkip);
+            if (skipped <= 0) {
+                break;
+            }
+            toSkip -= skipped;
+        }
+        return stream;
+    }
+
+    private class RangeIterator implements Iterator<Item> {
+
+        private final long end;
+        private final JSONBytesParser parser;
+        private final Text line;
+        private LineReader reader;
+        private long position;
+        private boolean hasNext;
+
+        RangeIterator(long start, long end) {
+            this.end = end;
+            this.parser = new JSONBytesParser(
+                    JSONLinesRangeMapper.this.metadata,
+                    new ObjectShapeDictionary(),
+                    JSONLinesRangeMapper.this.projection
+            );
+            this.line = new Text();
+            try {
+                this.reader = new LineReader(open(start, end));
+                this.position = start;
+                if (start != 0) {
+                    // the first (partial) line belongs to the previous range.
+                    this.position += this.reader.readLine(new Text());
+                }
+            } catch (IOException e) {
+                throw error(e);
+            }
+            fetchNext();
+        }
+
+        private void fetchNext() {
+            try {
+                int consumed = this.position <= this.end ? this.reader.readLine(this.line) : 0;
+                this.position += consumed;
+                this.hasNext = consumed > 0;
+                if (!this.hasNext) {
+                    this.reader.close();
+                }
+            } catch (IOException e) {
+                throw error(e);
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return this.hasNext;
+        }
+
+        @Override
+        public Item next() {
+            if (!this.hasNext) {
+                throw new NoSuchElementException();
+            }
+            Item result = this.parser.parse(this.line.getBytes(), 0, this.line.getLength());
+            fetchNext();
+            return result;
+        }
+
+        private RumbleException error(IOException e) {
+            RumbleException rumbleException = new CannotRetrieveResourceException(
+                    "I/O error while reading "
+                        + (JSONLinesRangeMapper.this.uri != null
+                            ? JSONLinesRangeMapper.this.uri
+                            : JSONLinesRangeMapper.this.sparkFileName)
+                        + " Cause: "
+                        + e.getMessage(),
+                    JSONLinesRangeMapper.this.metadata
+            );
+            rumbleException.initCause(e);
+            return rumbleException;
+        }
+    }
+}
@@ -20,38 +20,53 @@
 
 package org.rumbledb.runtime.functions.input;
 
+import org.apache.hadoop.io.LongWritable;
+import org.apache.hadoop.io.Text;
+import org.apache.hadoop.mapred.TextInputFormat;
+import org.apache.spark.api.java.JavaPairRDD;
 import org.apache.spark.api.java.JavaRDD;
+import org.apache.spark.api.java.JavaSparkContext;
 import org.rumbledb.api.Item;
 import org.rumbledb.context.DynamicContext;
 import org.rumbledb.context.RuntimeStaticContext;
 import org.rumbledb.exceptions.CannotRetrieveResourceException;
 import org.rumbledb.exceptions.IteratorFlowException;
 import org.rumbledb.exceptions.RumbleException;
+import org.rumbledb.items.ObjectShapeDictionary;
 import org.rumbledb.items.parsing.ItemParser;
-import org.rumbledb.items.parsing.JSONSyntaxToItemMapper;
+import org.rumbledb.items.parsing.JSONProjection;
+import org.rumbledb.items.parsing.JSONTextToItemMapper;
 import org.rumbledb.runtime.HybridRuntimeIterator;
 import org.rumbledb.runtime.RuntimeIterator;
 
 import com.google.gson.stream.JsonReader;
 
+import sparksoniq.spark.QueryResources;
 import sparksoniq.spark.SparkSessionManager;
 
 import java.io.BufferedReader;
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.StringReader;
 import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 import java.util.ArrayList;
 import java.util.List;
 
 public class JsonFileFunctionIterator extends HybridRuntimeIterator {
 
     private static final long serialVersionUID = 1L;
+    // the default size of the byte ranges requested in parallel from http(s) sources.
+    private static final long HTTP_RANGE_SIZE = 32L * 1024 * 1024;
     RuntimeIterator iterator;
     BufferedReader reader;
     Item path;
     Item nextItem;
+    ObjectShapeDictionary shapes;
+    JSONProjection projection;
 
     public JsonFileFunctionIterator(
             List<RuntimeIterator> arguments,
@@ -62,6 +77,17 @@ public class JsonFileFunctionIterator extends HybridRuntimeIterator {
         this.reader = null;
         this.nextItem = null;
         this.path = null;
+        this.shapes = null;
+        this.projection = null;
+    }
+
+    /**
+     * Restricts parsing to the given paths of each value.
+     *
+     * @param projection the paths that are used downstream.
+     */
+    public void setProjection(JSONProjection projection) {
+        this.projection = projection;
     }
 
     @Override
@@ -75,59 +101,92 @@ public class JsonFileFunctionIterator extends HybridRuntimeIterator {
             partitions = this.children.get(1).materializeFirstItemOrNull(context).getIntValue();
         }
 
-        JavaRDD<String> strings;
         if (uri.getScheme().equals("http") || uri.getScheme().equals("https")) {
+            return getHTTPRDD(uri, partitions, context);
+        }
+
+        if (!FileSystemUtil.exists(uri, context.getRumbleRuntimeConfiguration(), getMetadata())) {
+            throw new CannotRetrieveResourceException("File " + uri + " not found.", getMetadata());
+        }
+
+        String path = uri.toString();
+        if (uri.getScheme().contentEquals("file")) {
+            path = path.replaceAll("%20", " ");
+        }
+
+        // lines are read as Hadoop Text and parsed from their UTF-8 bytes, like textFile() without the String.
+        JavaSparkContext sparkContext = SparkSessionManager.getInstance().getJavaSparkContext();
+        JavaPairRDD<LongWritable, Text> lines = sparkContext.hadoopFile(
+            path,
+            TextInputFormat.class,
+            LongWritable.class,
+            Text.class,
+            partitions == -1 ? sparkContext.defaultMinPartitions() : partitions
+        );
+        return lines.values().mapPartitions(new JSONTextToItemMapper(getMetadata(), this.projection));
+    }
+
+    private JavaRDD<Item> getHTTPRDD(URI uri, int partitions, DynamicContext context) {
+        JavaSparkContext sparkContext = SparkSessionManager.getInstance().getJavaSparkContext();
+        long length = FileSystemUtil.getHTTPRangeableLength(
+            uri,
+            context.getRumbleRuntimeConfiguration(),
+            getMetadata()
+        );
+        URI rangedURI = uri;
+        String sparkFileName = null;
+        if (length == -1) {
+            // without range support, the body is streamed once to a local file that is shipped to the executors.
+            File copy = downloadToTemporaryFile(uri, context);
+            sparkContext.addFile(copy.getAbsolutePath());
+            rangedURI = null;
+            sparkFileName = copy.getName();
+            length = copy.length();
+        }
+        int numberOfRanges = partitions;
+        if (numberOfRanges <= 0) {
+            numberOfRanges = (int) Math.max(
+                sparkContext.defaultMinPartitions(),
+                Math.min(Integer.MAX_VALUE, (length + HTTP_RANGE_SIZE - 1) / HTTP_RANGE_SIZE)
+            );
+        }
+        long rangeSize = Math.max(1, (length + numberOfRanges - 1) / numberOfRanges);
+        List<Long> offsets = new ArrayList<>();
+        for (long offset = 0; offset < length; offset += rangeSize) {
+            offsets.add(offset);
+        }
+        if (offsets.isEmpty()) {
+            return sparkContext.emptyRDD();
+        }
+        return sparkContext.parallelize(offsets, offsets.size())
+            .mapPartitions(
+                new JSONLinesRangeMapper(rangedURI, sparkFileName, rangeSize, getMetadata(), this.projection)
+            );
+    }
+
+    private File downloadToTemporaryFile(URI uri, DynamicContext context) {
+        try (
             InputStream is = FileSystemUtil.getDataInputStream(
                 uri,
                 context.getRumbleRuntimeConfiguration(),
                 getMetadata()
-            );
-            BufferedReader br = new BufferedReader(new InputStreamReader(is));
-            List<String> lines = new ArrayList<>();
-            String line = null;
-            try {
-                while ((line = br.readLine()) != null) {
-                    lines.add(line);
-                }
-            } catch (IOException e) {
-                throw new CannotRetrieveResourceException("Cannot read " + uri, getMetadata());
-            }
-            if (partitions == -1) {
-                strings = SparkSessionManager.getInstance()
-                    .getJavaSparkContext()
-                    .parallelize(lines);
-            } else {
-                strings = SparkSessionManager.getInstance()
-                    .getJavaSparkContext()
-                    .parallelize(
-                        lines,
-                        partitions
-                    );
-            }
-        } else {
-            if (!FileSystemUtil.exists(uri, context.getRumbleRuntimeConfiguration(), getMetadata())) {
-                throw new CannotRetrieveResourceException("File " + uri + " not found.", getMetadata());
-            }
-
-            String path = uri.toString();
-            if (uri.getScheme().contentEquals("file")) {
-                path = path.replaceAll("%20", " ");
-            }
-
-            if (partitions == -1) {
-                strings = SparkSessionManager.getInstance()
-                    .getJavaSparkContext()
-                    .textFile(path);
-            } else {
-                strings = SparkSessionManager.getInstance()
-                    .getJavaSparkContext()
-                    .textFile(
-                        path,
-                        partitions
-                    );
+            )
+        ) {
+            File copy = File.createTempFile("rumble-json-file-", ".json");
+            // the copy is deleted with the other resources of the query, or else when the JVM exits.
+            if (!QueryResources.registerTemporaryFile(copy)) {
+                copy.deleteOnExit();
             }
+            Files.copy(is, copy.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            return copy;
+        } catch (IOException e) {
+            RumbleException rumbleException = new CannotRetrieveResourceException(
+                    "Cannot read " + uri + " Cause: " + e.getMessage(),
+                    getMetadata()
+            );
+            rumbleException.initCause(e);
+            throw rumbleException;
         }
-        return strings.mapPartitions(new JSONSyntaxToItemMapper(getMetadata()));
     }
 
     protected void init() {
@@ -143,6 +202,7 @@ public class JsonFileFunctionIterator extends HybridRuntimeIterator {
                 getMetadata()
             );
             this.reader = new BufferedReader(new InputStreamReader(is));
+            this.shapes = new ObjectShapeDictionary();
             fetchNext();
         } catch (IteratorFlowException e) {
             throw new IteratorFlowException(e.getJSONiqErrorMessage(), getMetadata());
@@ -164,6 +224,7 @@ public class JsonFileFunctionIterator extends HybridRuntimeIterator {
         }
         this.reader = null;
         this.nextItem = null;
+        this.shapes = null;
     }
 
     @Override
@@ -195,7 +256,7 @@ public class JsonFileFunctionIterator extends HybridRuntimeIterator {
             this.hasNext = (line != null);
             if (this.hasNext) {
                 JsonReader object = new JsonReader(new StringReader(line));
-                this.nextItem = ItemParser.getItemFromObject(object, getMetadata());
+                this.nextItem = ItemParser.getItemFromObject(object, getMetadata(), this.shapes, this.projection);
             }
         } catch (IOException e) {
             handleException(e);
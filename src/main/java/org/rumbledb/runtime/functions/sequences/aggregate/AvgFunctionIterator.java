@@ -51,23 +51,40 @@ public class AvgFunctionIterator extends AtMostOneItemLocalRuntimeIterator {
 
     @Override
     public Item materializeFirstItemOrNull(DynamicContext context) {
-        Item count = CountFunctionIterator.computeCount(
-            this.children.get(0),
-            context,
-            getMetadata()
-        );
-        if (count.isInt() && count.getIntValue() == 0) {
-            return null;
-        }
-        if (count.isInteger() && count.getIntegerValue().equals(BigInteger.ZERO)) {
-            return null;
+        Item sum;
+        Item count;
+        if (this.children.get(0).isDataFrame()) {
+            count = CountFunctionIterator.computeCount(
+                this.children.get(0),
+                context,
+                getMetadata()
+            );
+            if (count.isInt() && count.getIntValue() == 0) {
+                return null;
+            }
+            if (count.isInteger() && count.getIntegerValue().equals(BigInteger.ZERO)) {
+                return null;
+            }
+            sum = SumFunctionIterator.computeSum(
+                ItemFactory.getInstance().createIntegerItem(BigInteger.ZERO),
+                this.children.get(0),
+                context,
+                getMetadata()
+            );
+        } else {
+            // the sum and the count are accumulated in the same pass.
+            SumAccumulator accumulator = SumFunctionIterator.accumulate(
+                ItemFactory.getInstance().createIntegerItem(BigInteger.ZERO),
+                this.children.get(0),
+                context,
+                getMetadata()
+            );
+            if (accumulator.getCount() == 0) {
+                return null;
+            }
+            sum = accumulator.getSum();
+            count = ItemFactory.getInstance().createLongItem(accumulator.getCount());
         }
-        Item sum = SumFunctionIterator.computeSum(
-            ItemFactory.getInstance().createIntegerItem(BigInteger.ZERO),
-            this.children.get(0),
-            context,
-            getMetadata()
-        );
         this.item = MultiplicativeOperationIterator.processItem(
             sum,
             count,
@@ -0,0 +1,213 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Authors: Stefan Irimescu, Can Berker Cikis
+ *
+ */
+
+package org.rumbledb.runtime.functions.sequences.aggregate;
+
+import org.rumbledb.api.Item;
+import org.rumbledb.exceptions.ExceptionMetadata;
+import org.rumbledb.exceptions.InvalidArgumentTypeException;
+import org.rumbledb.items.ItemFactory;
+import org.rumbledb.runtime.arithmetics.AdditiveOperationIterator;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+
+/**
+ * Accumulates the sum and the count of a sequence of items.
+ *
+ * As long as the items keep the type of the running sum, the sum is kept as a long (promoted to a BigInteger on
+ * overflow), a BigDecimal or a double, without creating an item per addition. Any other addition, such as the
+ * first one, one that changes the type of the sum or one on durations, goes through
+ * AdditiveOperationIterator.processItem, so that the result is the same as adding the items one by one.
+ */
+public class SumAccumulator implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private enum State {
+        EMPTY,
+        LONG,
+        INTEGER,
+        DECIMAL,
+        DOUBLE,
+        ITEM
+    }
+
+    private final Item zeroElement;
+    private final ExceptionMetadata metadata;
+    private State state;
+    private long count;
+    private long longSum;
+    private boolean isInt;
+    private BigInteger integerSum;
+    private BigDecimal decimalSum;
+    private double doubleSum;
+    private Item itemSum;
+
+    /**
+     * Creates an accumulator.
+     *
+     * @param zeroElement the item the first item is added to, and the sum of an empty sequence.
+     * @param metadata the metadata to attach to errors.
+     */
+    public SumAccumulator(Item zeroElement, ExceptionMetadata metadata) {
+        this.zeroElement = zeroElement;
+        this.metadata = metadata;
+        this.state = State.EMPTY;
+        this.count = 0;
+    }
+
+    public void add(Item item) {
+        ++this.count;
+        addValue(item);
+    }
+
+    /**
+     * Adds the items accumulated by another accumulator, e.g., on another partition.
+     *
+     * @param other the other accumulator, which must have been created with an integer zero element.
+     */
+    public void merge(SumAccumulator other) {
+        if (other.state == State.EMPTY) {
+            return;
+        }
+        addValue(other.getSum());
+        this.count += other.count;
+    }
+
+    private void addValue(Item item) {
+        switch (this.state) {
+            case LONG:
+                if (item.hasLongValue()) {
+                    long value = item.getLongValue();
+                    // like in processItem, an integer zero is neutral and keeps the type of the other operand.
+                    if (value == 0) {
+                        return;
+                    }
+                    if (this.longSum == 0) {
+                        this.longSum = value;
+                        this.isInt = item.isInt();
+                        return;
+                    }
+                    long sum = this.longSum + value;
+                    if (((this.longSum ^ sum) & (value ^ sum)) >= 0) {
+                        // int + int only stays an int away from the bounds, also like in processItem.
+                        this.isInt = this.isInt && item.isInt() && isHalfInt(this.longSum) && isHalfInt(value);
+                        this.longSum = sum;
+                        return;
+                    }
+                }
+                break;
+            case INTEGER:
+                if (item.isInteger()) {
+                    this.integerSum = this.integerSum.add(item.getIntegerValue());
+                    return;
+                }
+                break;
+            case DECIMAL:
+                if (item.isDecimal()) {
+                    this.decimalSum = this.decimalSum.add(item.getDecimalValue());
+                    return;
+                }
+                break;
+            case DOUBLE:
+                if (item.isDouble()) {
+                    this.doubleSum += item.getDoubleValue();
+                    return;
+                }
+                if (item.isNumeric()) {
+                    this.doubleSum += item.castToDoubleValue();
+                    return;
+                }
+                break;
+            default:
+                break;
+        }
+        Item left = this.state == State.EMPTY ? this.zeroElement : getSum();
+        Item sum = AdditiveOperationIterator.processItem(left, item, false);
+        if (sum == null) {
+            throw new InvalidArgumentTypeException(
+                    " \"+\": operation not possible with parameters of type \""
+                        + left.getDynamicType().toString()
+                        + "\" and \""
+                        + item.getDynamicType().toString()
+                        + "\"",
+                    this.metadata
+            );
+        }
+        setSum(sum);
+    }
+
+    /**
+     * Gets the sum of the items added so far.
+     *
+     * @return the sum, or the zero element if no item was added.
+     */
+    public Item getSum() {
+        switch (this.state) {
+            case EMPTY:
+                return this.zeroElement;
+            case LONG:
+                return this.isInt
+                    ? ItemFactory.getInstance().createIntItem((int) this.longSum)
+                    : ItemFactory.getInstance().createIntegerItem(this.longSum);
+            case INTEGER:
+                return ItemFactory.getInstance().createIntegerItem(this.integerSum);
+            case DECIMAL:
+                return ItemFactory.getInstance().createDecimalItem(this.decimalSum);
+            case DOUBLE:
+                return ItemFactory.getInstance().createDoubleItem(this.doubleSum);
+            default:
+                return this.itemSum;
+        }
+    }
+
+    public long getCount() {
+        return this.count;
+    }
+
+    private void setSum(Item sum) {
+        this.itemSum = null;
+        this.integerSum = null;
+        this.decimalSum = null;
+        if (sum.hasLongValue()) {
+            this.state = State.LONG;
+            this.longSum = sum.getLongValue();
+            this.isInt = sum.isInt();
+        } else if (sum.isInteger()) {
+            this.state = State.INTEGER;
+            this.integerSum = sum.getIntegerValue();
+        } else if (sum.isDecimal()) {
+            this.state = State.DECIMAL;
+            this.decimalSum = sum.getDecimalValue();
+        } else if (sum.isDouble()) {
+            this.state = State.DOUBLE;
+            this.doubleSum = sum.getDoubleValue();
+        } else {
+            this.state = State.ITEM;
+            this.itemSum = sum;
+        }
+    }
+
+    private static boolean isHalfInt(long value) {
+        return value < Integer.MAX_VALUE / 2 && value > -Integer.MAX_VALUE / 2;
+    }
+}
@@ -1,12 +1,17 @@
 package org.rumbledb.runtime.functions.sequences.aggregate;
 
-import org.apache.spark.api.java.function.Function2;
+import org.apache.spark.api.java.function.FlatMapFunction;
 import org.rumbledb.api.Item;
 import org.rumbledb.exceptions.ExceptionMetadata;
-import org.rumbledb.exceptions.InvalidArgumentTypeException;
-import org.rumbledb.runtime.arithmetics.AdditiveOperationIterator;
+import org.rumbledb.items.ItemFactory;
 
-public class SumClosure implements Function2<Item, Item, Item> {
+import java.util.Collections;
+import java.util.Iterator;
+
+/**
+ * Sums the items of a partition into one accumulator, which is then merged with those of the other partitions.
+ */
+public class SumClosure implements FlatMapFunction<Iterator<Item>, SumAccumulator> {
 
     private static final long serialVersionUID = 1L;
     private ExceptionMetadata metadata;
@@ -16,19 +21,15 @@ public class SumClosure implements Function2<Item, Item, Item> {
     }
 
     @Override
-    public Item call(Item v1, Item v2) throws Exception {
-        Item result = AdditiveOperationIterator.processItem(v1, v2, false);
-        if (result == null) {
-            throw new InvalidArgumentTypeException(
-                    " \"+\": operation not possible with parameters of type \""
-                        + v1.getDynamicType().toString()
-                        + "\" and \""
-                        + v2.getDynamicType().toString()
-                        + "\"",
-                    this.metadata
-            );
+    public Iterator<SumAccumulator> call(Iterator<Item> items) throws Exception {
+        SumAccumulator accumulator = new SumAccumulator(
+                ItemFactory.getInstance().createIntegerItem(0),
+                this.metadata
+        );
+        while (items.hasNext()) {
+            accumulator.add(items.next());
         }
-        return result;
+        return Collections.singletonList(accumulator).iterator();
     }
 
 }
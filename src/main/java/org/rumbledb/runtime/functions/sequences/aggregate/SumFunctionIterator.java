@@ -26,12 +26,10 @@ import org.rumbledb.context.DynamicContext;
 import org.rumbledb.context.Name;
 import org.rumbledb.context.RuntimeStaticContext;
 import org.rumbledb.exceptions.ExceptionMetadata;
-import org.rumbledb.exceptions.InvalidArgumentTypeException;
 import org.rumbledb.items.ItemFactory;
 import org.rumbledb.items.structured.JSoundDataFrame;
 import org.rumbledb.runtime.AtMostOneItemLocalRuntimeIterator;
 import org.rumbledb.runtime.RuntimeIterator;
-import org.rumbledb.runtime.arithmetics.AdditiveOperationIterator;
 import org.rumbledb.runtime.flwor.FlworDataFrameUtils;
 import org.rumbledb.runtime.primary.VariableReferenceIterator;
 
@@ -90,59 +88,74 @@ public class SumFunctionIterator extends AtMostOneItemLocalRuntimeIterator {
                 context,
                 metadata
             );
-        } else if (iterator.isRDDOrDataFrame()) {
-            return computeRDD(
+        } else {
+            return accumulate(
                 zeroElement,
                 iterator,
                 context,
                 metadata
-            );
-        } else {
-            return computeLocally(
+            ).getSum();
+        }
+    }
+
+    /**
+     * Accumulates the sum and the count of a local or RDD-based sequence in one pass.
+     *
+     * @param zeroElement the item the sum starts from.
+     * @param iterator the iterator of the sequence.
+     * @param context the dynamic context.
+     * @param metadata the metadata to attach to errors.
+     * @return the accumulator.
+     */
+    public static SumAccumulator accumulate(
+            Item zeroElement,
+            RuntimeIterator iterator,
+            DynamicContext context,
+            ExceptionMetadata metadata
+    ) {
+        if (iterator.isRDDOrDataFrame()) {
+            return accumulateRDD(
                 zeroElement,
                 iterator,
                 context,
                 metadata
             );
         }
+        return accumulateLocally(
+            zeroElement,
+            iterator,
+            context,
+            metadata
+        );
     }
 
-    private static Item computeLocally(
+    private static SumAccumulator accumulateLocally(
             Item zeroElement,
             RuntimeIterator iterator,
             DynamicContext context,
             ExceptionMetadata metadata
     ) {
+        SumAccumulator result = new SumAccumulator(zeroElement, metadata);
         iterator.open(context);
-
-        Item result = zeroElement;
         while (iterator.hasNext()) {
-            Item nextValue = iterator.next();
-            Item sum = AdditiveOperationIterator.processItem(result, nextValue, false);
-            if (sum == null) {
-                throw new InvalidArgumentTypeException(
-                        " \"+\": operation not possible with parameters of type \""
-                            + result.getDynamicType().toString()
-                            + "\" and \""
-                            + result.getDynamicType().toString()
-                            + "\"",
-                        metadata
-                );
-            }
-            result = sum;
+            result.add(iterator.next());
         }
         iterator.close();
         return result;
     }
 
-    private static Item computeRDD(
+    private static SumAccumulator accumulateRDD(
             Item zeroElement,
             RuntimeIterator iterator,
             DynamicContext context,
             ExceptionMetadata metadata
     ) {
         JavaRDD<Item> rdd = iterator.getRDD(context);
-        Item result = rdd.fold(zeroElement, new SumClosure(metadata));
+        List<SumAccumulator> partitionSums = rdd.mapPartitions(new SumClosure(metadata)).collect();
+        SumAccumulator result = new SumAccumulator(zeroElement, metadata);
+        for (SumAccumulator partitionSum : partitionSums) {
+            result.merge(partitionSum);
+        }
         return result;
     }
 
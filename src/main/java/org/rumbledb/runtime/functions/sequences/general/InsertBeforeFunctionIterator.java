@@ -29,6 +29,7 @@ import org.rumbledb.exceptions.IteratorFlowException;
 import org.rumbledb.runtime.HybridRuntimeIterator;
 import org.rumbledb.runtime.RuntimeIterator;
 import scala.Tuple2;
+import sparksoniq.spark.RDDPositionalIndex;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -60,19 +61,17 @@ public class InsertBeforeFunctionIterator extends HybridRuntimeIterator {
     protected JavaRDD<Item> getRDDAux(DynamicContext context) {
         init(context);
         JavaRDD<Item> childRDD = this.sequenceIterator.getRDD(context);
-        JavaPairRDD<Item, Long> zippedRDD = childRDD.zipWithIndex();
+        RDDPositionalIndex index = RDDPositionalIndex.of(childRDD);
 
         if (this.insertIterator.isRDDOrDataFrame()) {
             JavaRDD<Item> insertsRDD = this.insertIterator.getRDD(context);
-            JavaRDD<Item> beforeRDD = zippedRDD
-                .filter((item) -> item._2() < this.insertPosition - 1)
-                .map((item) -> item._1);
-            JavaRDD<Item> afterRDD = zippedRDD
-                .filter((item) -> item._2() >= this.insertPosition - 1)
-                .map((item) -> item._1);
+            JavaRDD<Item> beforeRDD = index.getRange(childRDD, 0, this.insertPosition - 1);
+            JavaRDD<Item> afterRDD = index.getRange(childRDD, this.insertPosition - 1, Long.MAX_VALUE);
             return beforeRDD.union(insertsRDD).union(afterRDD);
         }
 
+        JavaPairRDD<Item, Long> zippedRDD = index.zipWithIndex(childRDD);
+
         List<Item> inserts = this.insertIterator.materialize(context);
         int numPartitions = zippedRDD.partitions().size();
         int indexOfInsertion = this.insertPosition;
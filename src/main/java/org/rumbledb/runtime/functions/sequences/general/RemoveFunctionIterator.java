@@ -20,7 +20,6 @@
 
 package org.rumbledb.runtime.functions.sequences.general;
 
-import org.apache.spark.api.java.JavaPairRDD;
 import org.apache.spark.api.java.JavaRDD;
 import org.rumbledb.api.Item;
 import org.rumbledb.context.DynamicContext;
@@ -29,6 +28,8 @@ import org.rumbledb.exceptions.IteratorFlowException;
 import org.rumbledb.runtime.HybridRuntimeIterator;
 import org.rumbledb.runtime.RuntimeIterator;
 
+import sparksoniq.spark.RDDPositionalIndex;
+
 import java.util.List;
 
 public class RemoveFunctionIterator extends HybridRuntimeIterator {
@@ -56,9 +57,14 @@ public class RemoveFunctionIterator extends HybridRuntimeIterator {
         init(context);
         JavaRDD<Item> childRDD = this.sequenceIterator.getRDD(context);
 
-        JavaPairRDD<Item, Long> zippedRDD = childRDD.zipWithIndex();
-        JavaPairRDD<Item, Long> filteredRDD = zippedRDD.filter((item) -> item._2() != this.removePosition - 1);
-        return filteredRDD.map((item) -> item._1);
+        RDDPositionalIndex index = RDDPositionalIndex.of(childRDD);
+        long position = this.removePosition - 1;
+        if (position < 0 || position >= index.getCount()) {
+            return childRDD;
+        }
+        // only the partition that contains the removed item is filtered
+        return index.getRange(childRDD, 0, position)
+            .union(index.getRange(childRDD, position + 1, Long.MAX_VALUE));
     }
 
     @Override
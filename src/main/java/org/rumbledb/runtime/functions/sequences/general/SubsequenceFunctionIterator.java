@@ -20,7 +20,6 @@
 
 package org.rumbledb.runtime.functions.sequences.general;
 
-import org.apache.spark.api.java.JavaPairRDD;
 import org.apache.spark.api.java.JavaRDD;
 import org.apache.spark.sql.Dataset;
 import org.apache.spark.sql.Row;
@@ -34,7 +33,9 @@ import org.rumbledb.runtime.HybridRuntimeIterator;
 import org.rumbledb.runtime.RuntimeIterator;
 import org.rumbledb.runtime.flwor.FlworDataFrameColumn;
 import org.rumbledb.runtime.flwor.FlworDataFrameUtils;
+import org.rumbledb.runtime.flwor.clauses.ReturnClauseSparkIterator;
 
+import sparksoniq.spark.RDDPositionalIndex;
 import sparksoniq.spark.SparkSessionManager;
 
 import java.util.List;
@@ -65,22 +66,14 @@ public class SubsequenceFunctionIterator extends HybridRuntimeIterator {
 
     @Override
     protected JavaRDD<Item> getRDDAux(DynamicContext context) {
-        JavaRDD<Item> childRDD = this.sequenceIterator.getRDD(context);
         setInstanceVariables(context);
+        setSequenceLimit();
+        JavaRDD<Item> childRDD = this.sequenceIterator.getRDD(context);
 
-        if (!childRDD.isEmpty() || this.length == 0) {
-            JavaPairRDD<Item, Long> zippedRDD = childRDD.zipWithIndex();
-            JavaPairRDD<Item, Long> filteredRDD;
-            if (this.length < 0) {
-                filteredRDD = zippedRDD.filter((input) -> input._2() >= this.startPosition - 1);
-            } else {
-                filteredRDD = zippedRDD.filter(
-                    (input) -> input._2() >= this.startPosition - 1 && input._2() < this.startPosition - 1 + this.length
-                );
-            }
-            return filteredRDD.map(x -> x._1);
-        }
-        return SparkSessionManager.getInstance().getJavaSparkContext().emptyRDD();
+        // only the partitions that overlap with the requested positions are computed
+        long from = (long) this.startPosition - 1;
+        long to = this.length < 0 ? Long.MAX_VALUE : from + this.length;
+        return RDDPositionalIndex.of(childRDD).getRange(childRDD, from, to);
     }
 
     @Override
@@ -90,8 +83,9 @@ public class SubsequenceFunctionIterator extends HybridRuntimeIterator {
 
     @Override
     public JSoundDataFrame getDataFrame(DynamicContext dynamicContext) {
-        JSoundDataFrame df = this.sequenceIterator.getDataFrame(dynamicContext);
         setInstanceVariables(dynamicContext);
+        setSequenceLimit();
+        JSoundDataFrame df = this.sequenceIterator.getDataFrame(dynamicContext);
 
         List<FlworDataFrameColumn> allColumns = df.getColumns();
 
@@ -132,6 +126,7 @@ public class SubsequenceFunctionIterator extends HybridRuntimeIterator {
     @Override
     protected void openLocal() {
         setInstanceVariables(this.currentDynamicContextForLocalExecution);
+        setSequenceLimit();
         initializeLocal();
     }
 
@@ -212,6 +207,17 @@ public class SubsequenceFunctionIterator extends HybridRuntimeIterator {
         }
     }
 
+    /**
+     * Lets a FLWOR expression that ends with an order by clause only sort the tuples that this subsequence needs.
+     */
+    private void setSequenceLimit() {
+        if (this.sequenceIterator instanceof ReturnClauseSparkIterator) {
+            ((ReturnClauseSparkIterator) this.sequenceIterator).setLimit(
+                this.children.size() == 3 ? Math.max((long) this.startPosition + this.length - 1, 0) : -1
+            );
+        }
+    }
+
     private void setNextResult() {
         this.nextResult = null;
 
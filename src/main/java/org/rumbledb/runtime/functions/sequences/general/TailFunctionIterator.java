@@ -20,7 +20,6 @@
 
 package org.rumbledb.runtime.functions.sequences.general;
 
-import org.apache.spark.api.java.JavaPairRDD;
 import org.apache.spark.api.java.JavaRDD;
 import org.rumbledb.api.Item;
 import org.rumbledb.context.DynamicContext;
@@ -29,6 +28,8 @@ import org.rumbledb.exceptions.IteratorFlowException;
 import org.rumbledb.runtime.HybridRuntimeIterator;
 import org.rumbledb.runtime.RuntimeIterator;
 
+import sparksoniq.spark.RDDPositionalIndex;
+
 import java.util.List;
 
 public class TailFunctionIterator extends HybridRuntimeIterator {
@@ -107,11 +108,6 @@ public class TailFunctionIterator extends HybridRuntimeIterator {
     @Override
     protected JavaRDD<Item> getRDDAux(DynamicContext context) {
         JavaRDD<Item> childRDD = this.iterator.getRDD(context);
-        if (!childRDD.isEmpty()) {
-            JavaPairRDD<Item, Long> zippedRDD = childRDD.zipWithIndex();
-            JavaPairRDD<Item, Long> filteredRDD = zippedRDD.filter((input) -> input._2() != 0);
-            return filteredRDD.map(x -> x._1);
-        }
-        return childRDD;
+        return RDDPositionalIndex.of(childRDD).getRange(childRDD, 1, Long.MAX_VALUE);
     }
 }
@@ -32,6 +32,8 @@ import org.rumbledb.runtime.HybridRuntimeIterator;
 import org.rumbledb.runtime.RuntimeIterator;
 import org.rumbledb.runtime.misc.ComparisonIterator;
 
+import sparksoniq.spark.RDDPositionalIndex;
+
 import java.util.List;
 
 public class IndexOfFunctionIterator extends HybridRuntimeIterator {
@@ -70,7 +72,7 @@ public class IndexOfFunctionIterator extends HybridRuntimeIterator {
         JavaRDD<Item> childRDD = this.sequenceIterator.getRDD(context);
         this.search = this.searchIterator.materializeFirstItemOrNull(context);
 
-        JavaPairRDD<Item, Long> zippedRDD = childRDD.zipWithIndex();
+        JavaPairRDD<Item, Long> zippedRDD = RDDPositionalIndex.of(childRDD).zipWithIndex(childRDD);
         JavaPairRDD<Item, Long> filteredRDD = zippedRDD.filter((item) -> item._1().equals(this.search));
         return filteredRDD.map((item) -> ItemFactory.getInstance().createIntItem(item._2.intValue() + 1));
     }
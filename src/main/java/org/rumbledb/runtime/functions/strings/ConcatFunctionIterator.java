@@ -26,6 +26,9 @@ import org.rumbledb.context.RuntimeStaticContext;
 import org.rumbledb.items.ItemFactory;
 import org.rumbledb.runtime.AtMostOneItemLocalRuntimeIterator;
 import org.rumbledb.runtime.RuntimeIterator;
+import org.rumbledb.runtime.flwor.FlworDataFrameUtils;
+import org.rumbledb.runtime.flwor.NativeClauseContext;
+import org.rumbledb.types.SequenceType;
 
 import java.util.List;
 
@@ -56,4 +59,21 @@ public class ConcatFunctionIterator extends AtMostOneItemLocalRuntimeIterator {
         return ItemFactory.getInstance().createStringItem(builder.toString());
     }
 
+    @Override
+    public NativeClauseContext generateNativeQuery(NativeClauseContext nativeClauseContext) {
+        // other atomic values are serialized, which Spark does not do the same way, so only strings are supported.
+        StringBuilder resultingQuery = new StringBuilder("( CONCAT( ");
+        String separator = "";
+        for (RuntimeIterator child : this.children) {
+            String value = FlworDataFrameUtils.getNativeStringArgument(child, nativeClauseContext);
+            if (value == null) {
+                return NativeClauseContext.NoNativeQuery;
+            }
+            resultingQuery.append(separator);
+            resultingQuery.append(value);
+            separator = ", ";
+        }
+        resultingQuery.append(" ) )");
+        return new NativeClauseContext(nativeClauseContext, resultingQuery.toString(), SequenceType.STRING);
+    }
 }
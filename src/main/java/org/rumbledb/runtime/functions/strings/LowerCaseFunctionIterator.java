@@ -26,6 +26,9 @@ import org.rumbledb.context.RuntimeStaticContext;
 import org.rumbledb.items.ItemFactory;
 import org.rumbledb.runtime.AtMostOneItemLocalRuntimeIterator;
 import org.rumbledb.runtime.RuntimeIterator;
+import org.rumbledb.runtime.flwor.FlworDataFrameUtils;
+import org.rumbledb.runtime.flwor.NativeClauseContext;
+import org.rumbledb.types.SequenceType;
 
 import java.util.List;
 
@@ -53,4 +56,13 @@ public class LowerCaseFunctionIterator extends AtMostOneItemLocalRuntimeIterator
 
     }
 
+    @Override
+    public NativeClauseContext generateNativeQuery(NativeClauseContext nativeClauseContext) {
+        String value = FlworDataFrameUtils.getNativeStringArgument(this.children.get(0), nativeClauseContext);
+        if (value == null) {
+            return NativeClauseContext.NoNativeQuery;
+        }
+        String resultingQuery = "( LOWER( " + value + " ) )";
+        return new NativeClauseContext(nativeClauseContext, resultingQuery, SequenceType.STRING);
+    }
 }
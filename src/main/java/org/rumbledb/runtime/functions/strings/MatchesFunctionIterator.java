@@ -26,10 +26,15 @@ import org.rumbledb.context.RuntimeStaticContext;
 import org.rumbledb.items.ItemFactory;
 import org.rumbledb.runtime.AtMostOneItemLocalRuntimeIterator;
 import org.rumbledb.runtime.RuntimeIterator;
+import org.rumbledb.runtime.flwor.FlworDataFrameUtils;
+import org.rumbledb.runtime.flwor.NativeClauseContext;
+import org.rumbledb.runtime.primary.StringRuntimeIterator;
+import org.rumbledb.types.SequenceType;
 
 import java.util.List;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
 
 public class MatchesFunctionIterator extends AtMostOneItemLocalRuntimeIterator {
 
@@ -57,4 +62,26 @@ public class MatchesFunctionIterator extends AtMostOneItemLocalRuntimeIterator {
         return ItemFactory.getInstance().createBooleanItem(result);
 
     }
+
+    @Override
+    public NativeClauseContext generateNativeQuery(NativeClauseContext nativeClauseContext) {
+        // Spark also uses Java regular expressions, but only literal patterns can be checked here.
+        if (this.children.size() != 2 || !(this.children.get(1) instanceof StringRuntimeIterator)) {
+            return NativeClauseContext.NoNativeQuery;
+        }
+        String pattern = this.children.get(1)
+            .materializeFirstItemOrNull(nativeClauseContext.getContext())
+            .getStringValue();
+        try {
+            Pattern.compile(pattern);
+        } catch (PatternSyntaxException e) {
+            return NativeClauseContext.NoNativeQuery;
+        }
+        String value = FlworDataFrameUtils.getNativeStringArgument(this.children.get(0), nativeClauseContext);
+        if (value == null) {
+            return NativeClauseContext.NoNativeQuery;
+        }
+        String resultingQuery = "( " + value + " RLIKE " + FlworDataFrameUtils.getSQLStringLiteral(pattern) + " )";
+        return new NativeClauseContext(nativeClauseContext, resultingQuery, SequenceType.BOOLEAN);
+    }
 }
@@ -29,6 +29,10 @@ import org.rumbledb.exceptions.InvalidReplacementStringException;
 import org.rumbledb.items.ItemFactory;
 import org.rumbledb.runtime.AtMostOneItemLocalRuntimeIterator;
 import org.rumbledb.runtime.RuntimeIterator;
+import org.rumbledb.runtime.flwor.FlworDataFrameUtils;
+import org.rumbledb.runtime.flwor.NativeClauseContext;
+import org.rumbledb.runtime.primary.StringRuntimeIterator;
+import org.rumbledb.types.SequenceType;
 
 import java.util.List;
 import java.util.regex.Pattern;
@@ -117,4 +121,42 @@ public class ReplaceFunctionIterator extends AtMostOneItemLocalRuntimeIterator {
         }
         return true;
     }
+
+    @Override
+    public NativeClauseContext generateNativeQuery(NativeClauseContext nativeClauseContext) {
+        // Spark also uses Java regular expressions and replacements, but only literals can be checked here.
+        if (
+            this.children.size() != 3
+                || !(this.children.get(1) instanceof StringRuntimeIterator)
+                || !(this.children.get(2) instanceof StringRuntimeIterator)
+        ) {
+            return NativeClauseContext.NoNativeQuery;
+        }
+        String pattern = this.children.get(1)
+            .materializeFirstItemOrNull(nativeClauseContext.getContext())
+            .getStringValue();
+        String replacement = this.children.get(2)
+            .materializeFirstItemOrNull(nativeClauseContext.getContext())
+            .getStringValue();
+        try {
+            Pattern.compile(pattern);
+        } catch (PatternSyntaxException e) {
+            return NativeClauseContext.NoNativeQuery;
+        }
+        if ("".matches(pattern) || !checkReplacementStringForValidity(replacement)) {
+            return NativeClauseContext.NoNativeQuery;
+        }
+        String value = FlworDataFrameUtils.getNativeStringArgument(this.children.get(0), nativeClauseContext);
+        if (value == null) {
+            return NativeClauseContext.NoNativeQuery;
+        }
+        String resultingQuery = "( REGEXP_REPLACE( "
+            + value
+            + ", "
+            + FlworDataFrameUtils.getSQLStringLiteral(pattern)
+            + ", "
+            + FlworDataFrameUtils.getSQLStringLiteral(replacement)
+            + " ) )";
+        return new NativeClauseContext(nativeClauseContext, resultingQuery, SequenceType.STRING);
+    }
 }
@@ -27,6 +27,9 @@ import org.rumbledb.exceptions.UnsupportedCollationException;
 import org.rumbledb.items.ItemFactory;
 import org.rumbledb.runtime.AtMostOneItemLocalRuntimeIterator;
 import org.rumbledb.runtime.RuntimeIterator;
+import org.rumbledb.runtime.flwor.FlworDataFrameUtils;
+import org.rumbledb.runtime.flwor.NativeClauseContext;
+import org.rumbledb.types.SequenceType;
 
 import java.util.List;
 
@@ -67,4 +70,21 @@ public class StartsWithFunctionIterator extends AtMostOneItemLocalRuntimeIterato
         return ItemFactory.getInstance().createBooleanItem(result);
     }
 
+    @Override
+    public NativeClauseContext generateNativeQuery(NativeClauseContext nativeClauseContext) {
+        if (this.children.size() == 3) {
+            // only the default collation is supported natively.
+            return NativeClauseContext.NoNativeQuery;
+        }
+        String value = FlworDataFrameUtils.getNativeStringArgument(this.children.get(0), nativeClauseContext);
+        if (value == null) {
+            return NativeClauseContext.NoNativeQuery;
+        }
+        String substring = FlworDataFrameUtils.getNativeStringArgument(this.children.get(1), nativeClauseContext);
+        if (substring == null) {
+            return NativeClauseContext.NoNativeQuery;
+        }
+        String resultingQuery = "( STARTSWITH( " + value + ", " + substring + " ) )";
+        return new NativeClauseContext(nativeClauseContext, resultingQuery, SequenceType.BOOLEAN);
+    }
 }
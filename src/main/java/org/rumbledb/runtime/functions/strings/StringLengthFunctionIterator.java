@@ -27,6 +27,9 @@ import org.rumbledb.context.RuntimeStaticContext;
 import org.rumbledb.items.ItemFactory;
 import org.rumbledb.runtime.AtMostOneItemLocalRuntimeIterator;
 import org.rumbledb.runtime.RuntimeIterator;
+import org.rumbledb.runtime.flwor.FlworDataFrameUtils;
+import org.rumbledb.runtime.flwor.NativeClauseContext;
+import org.rumbledb.types.SequenceType;
 
 import java.util.List;
 
@@ -45,7 +48,7 @@ public class StringLengthFunctionIterator extends AtMostOneItemLocalRuntimeItera
     public Item materializeFirstItemOrNull(DynamicContext context) {
         if (this.children.size() == 0) {
             List<Item> items = context.getVariableValues().getLocalVariableValue(Name.CONTEXT_ITEM, getMetadata());
-            return ItemFactory.getInstance().createIntItem(items.get(0).getStringValue().length());
+            return ItemFactory.getInstance().createIntItem(getLength(items.get(0).getStringValue()));
         }
         Item stringItem = this.children.get(0)
             .materializeFirstItemOrNull(context);
@@ -54,7 +57,27 @@ public class StringLengthFunctionIterator extends AtMostOneItemLocalRuntimeItera
             return ItemFactory.getInstance().createIntItem(0);
         }
 
-        return ItemFactory.getInstance().createIntItem(stringItem.getStringValue().length());
+        return ItemFactory.getInstance().createIntItem(getLength(stringItem.getStringValue()));
     }
 
+    /**
+     * Counts the characters of a string as code points, like CHAR_LENGTH does in the native query, so that
+     * characters outside of the Basic Multilingual Plane count once.
+     */
+    private static int getLength(String value) {
+        return value.codePointCount(0, value.length());
+    }
+
+    @Override
+    public NativeClauseContext generateNativeQuery(NativeClauseContext nativeClauseContext) {
+        if (this.children.size() == 0) {
+            return NativeClauseContext.NoNativeQuery;
+        }
+        String value = FlworDataFrameUtils.getNativeStringArgument(this.children.get(0), nativeClauseContext);
+        if (value == null) {
+            return NativeClauseContext.NoNativeQuery;
+        }
+        String resultingQuery = "( CHAR_LENGTH( " + value + " ) )";
+        return new NativeClauseContext(nativeClauseContext, resultingQuery, SequenceType.INT);
+    }
 }
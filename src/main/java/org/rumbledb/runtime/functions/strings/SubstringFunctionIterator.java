@@ -27,6 +27,9 @@ import org.rumbledb.exceptions.UnexpectedTypeException;
 import org.rumbledb.items.ItemFactory;
 import org.rumbledb.runtime.AtMostOneItemLocalRuntimeIterator;
 import org.rumbledb.runtime.RuntimeIterator;
+import org.rumbledb.runtime.flwor.FlworDataFrameUtils;
+import org.rumbledb.runtime.flwor.NativeClauseContext;
+import org.rumbledb.types.SequenceType;
 
 import java.util.List;
 
@@ -90,4 +93,48 @@ public class SubstringFunctionIterator extends AtMostOneItemLocalRuntimeIterator
         // char indexing starts from 1 in JSONiq
         return Math.min(stringItem.getStringValue().length(), startIndex + endIndexItem.getDoubleValue());
     }
+
+    @Override
+    public NativeClauseContext generateNativeQuery(NativeClauseContext nativeClauseContext) {
+        String value = FlworDataFrameUtils.getNativeStringArgument(this.children.get(0), nativeClauseContext);
+        if (value == null) {
+            return NativeClauseContext.NoNativeQuery;
+        }
+        // rounding double positions is not supported natively.
+        NativeClauseContext start = this.children.get(1).generateNativeQuery(nativeClauseContext);
+        if (
+            start == NativeClauseContext.NoNativeQuery
+                || !start.getResultingType().isSubtypeOf(SequenceType.INTEGER_QM)
+        ) {
+            return NativeClauseContext.NoNativeQuery;
+        }
+        // positions before the first character are ignored, but still count in the length.
+        String startQuery = "CAST( " + start.getResultingQuery() + " AS INT )";
+        String firstQuery = "GREATEST( " + startQuery + ", 1 )";
+        String resultingQuery;
+        if (this.children.size() > 2) {
+            NativeClauseContext length = this.children.get(2).generateNativeQuery(nativeClauseContext);
+            if (
+                length == NativeClauseContext.NoNativeQuery
+                    || !length.getResultingType().isSubtypeOf(SequenceType.INTEGER_QM)
+            ) {
+                return NativeClauseContext.NoNativeQuery;
+            }
+            String lengthQuery = "CAST( " + length.getResultingQuery() + " AS INT )";
+            resultingQuery = "( SUBSTRING( "
+                + value
+                + ", "
+                + firstQuery
+                + ", GREATEST( "
+                + startQuery
+                + " + "
+                + lengthQuery
+                + " - "
+                + firstQuery
+                + ", 0 ) ) )";
+        } else {
+            resultingQuery = "( SUBSTRING( " + value + ", " + firstQuery + " ) )";
+        }
+        return new NativeClauseContext(nativeClauseContext, resultingQuery, SequenceType.STRING);
+    }
 }
@@ -214,6 +214,9 @@ public class ComparisonIterator extends AtMostOneItemLocalRuntimeIterator {
         ) {
             return processInt(left.getIntValue(), right.getIntValue());
         }
+        if (left.hasLongValue() && right.hasLongValue()) {
+            return Long.compare(left.getLongValue(), right.getLongValue());
+        }
 
         // General cases
         if (left.isDouble() && right.isNumeric()) {
@@ -47,6 +47,8 @@ import org.rumbledb.runtime.misc.ComparisonIterator;
 import org.rumbledb.runtime.primary.BooleanRuntimeIterator;
 
 import scala.Tuple2;
+import sparksoniq.spark.RDDPositionalIndex;
+import sparksoniq.spark.SparkSessionManager;
 
 import java.math.BigInteger;
 import java.util.ArrayList;
@@ -132,6 +134,12 @@ public class PredicateIterator extends HybridRuntimeIterator {
                 || this.filter instanceof ComparisonIterator);
     }
 
+    private boolean isContextIndependentFilter() {
+        return !this.filter.getVariableDependencies().containsKey(Name.CONTEXT_ITEM)
+            && !this.filter.getVariableDependencies().containsKey(Name.CONTEXT_POSITION)
+            && !this.filter.getVariableDependencies().containsKey(Name.CONTEXT_COUNT);
+    }
+
     @Override
     protected void openLocal() {
         if (this.children.size() < 2) {
@@ -222,10 +230,33 @@ public class PredicateIterator extends HybridRuntimeIterator {
             JavaRDD<Item> resultRDD = childRDD.filter(transformation);
             return resultRDD;
         } else {
-            JavaPairRDD<Item, Long> zippedChildRDD = childRDD.zipWithIndex();
+            RDDPositionalIndex index = RDDPositionalIndex.of(childRDD);
+            if (isContextIndependentFilter()) {
+                // a constant position, e.g., $seq[5], only needs the partition that contains it
+                Item position = null;
+                try {
+                    position = filter.materializeAtMostOneItemOrNull(dynamicContext);
+                } catch (MoreThanOneItemException e) {
+                    throw new InvalidArgumentTypeException(
+                            "Effective boolean value not defined for sequences of more than one atomic item. Sequence must be singleton.",
+                            filter.getMetadata()
+                    );
+                }
+                if (position != null && position.isInt()) {
+                    return index.getRange(childRDD, position.getIntValue() - 1L, position.getIntValue());
+                }
+                if (position != null && position.isInteger()) {
+                    BigInteger value = position.getIntegerValue();
+                    if (value.bitLength() >= 64) {
+                        return SparkSessionManager.getInstance().getJavaSparkContext().emptyRDD();
+                    }
+                    return index.getRange(childRDD, value.longValue() - 1, value.longValue());
+                }
+            }
+            JavaPairRDD<Item, Long> zippedChildRDD = index.zipWithIndex(childRDD);
             long last = 0;
             if (filter.getVariableDependencies().containsKey(Name.CONTEXT_COUNT)) {
-                last = childRDD.count();
+                last = index.getCount();
             }
             Function<Tuple2<Item, Long>, Boolean> transformation = new PredicateClosureZipped(
                     filter,
@@ -264,19 +295,21 @@ public class PredicateIterator extends HybridRuntimeIterator {
                     null
                 );
 
+                String udfName = FlworDataFrameUtils.createUDFName("predicate");
                 childDataFrame.getDataFrame()
                     .sparkSession()
                     .udf()
                     .register(
-                        "predicate",
+                        udfName,
                         new PredicateUDF(filter, context, getMetadata(), childDataFrame.getItemType()),
                         DataTypes.BooleanType
                     );
                 String UDFParameters = FlworDataFrameUtils.getUDFParametersFromColumns(UDFcolumns);
                 return childDataFrame.evaluateSQL(
                     String.format(
-                        "SELECT * FROM %s WHERE predicate(%s) = 'true'",
+                        "SELECT * FROM %s WHERE %s(%s) = 'true'",
                         left,
+                        udfName,
                         UDFParameters
                     ),
                     childDataFrame.getItemType()
@@ -301,11 +334,12 @@ public class PredicateIterator extends HybridRuntimeIterator {
                 );
 
                 long contextSize = childDataFrame.getDataFrame().count();
+                String udfName = FlworDataFrameUtils.createUDFName("predicate");
                 childDataFrame.getDataFrame()
                     .sparkSession()
                     .udf()
                     .register(
-                        "predicate",
+                        udfName,
                         new PredicateWithZipUDF(
                                 filter,
                                 context,
@@ -319,9 +353,10 @@ public class PredicateIterator extends HybridRuntimeIterator {
                 String projection = FlworDataFrameUtils.getSQLColumnProjection(originalcolumns, false);
                 return childDataFrame.evaluateSQL(
                     String.format(
-                        "SELECT %s FROM %s WHERE predicate(%s) = 'true'",
+                        "SELECT %s FROM %s WHERE %s(%s) = 'true'",
                         projection,
                         left,
+                        udfName,
                         UDFParameters
                     ),
                     childDataFrame.getItemType()
@@ -26,7 +26,7 @@ import org.rumbledb.api.Item;
 import org.rumbledb.context.DynamicContext;
 import org.rumbledb.context.Name;
 import org.rumbledb.exceptions.ExceptionMetadata;
-import org.rumbledb.items.parsing.ItemParser;
+import org.rumbledb.items.parsing.RowToItemConverter;
 import org.rumbledb.runtime.RuntimeIterator;
 import org.rumbledb.types.ItemType;
 
@@ -40,6 +40,7 @@ public class PredicateUDF implements UDF1<Row, Boolean> {
     private final DynamicContext dynamicContext;
     private final ExceptionMetadata metadata;
     private final ItemType itemType;
+    private transient RowToItemConverter converter;
     List<Item> currentItems = new ArrayList<>();
 
     public PredicateUDF(
@@ -58,7 +59,8 @@ public class PredicateUDF implements UDF1<Row, Boolean> {
     public Boolean call(Row row) {
         this.dynamicContext.getVariableValues().removeAllVariables();
         this.currentItems.clear();
-        Item item = ItemParser.getItemFromRow(row, this.metadata, this.itemType);
+        this.converter = RowToItemConverter.forRow(this.converter, row, this.itemType, this.metadata);
+        Item item = this.converter.convert(row);
         this.currentItems.add(item);
         this.dynamicContext.getVariableValues().addVariableValue(Name.CONTEXT_ITEM, this.currentItems);
 
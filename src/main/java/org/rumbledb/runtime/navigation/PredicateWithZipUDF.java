@@ -27,7 +27,7 @@ import org.rumbledb.context.DynamicContext;
 import org.rumbledb.context.Name;
 import org.rumbledb.exceptions.ExceptionMetadata;
 import org.rumbledb.exceptions.OurBadException;
-import org.rumbledb.items.parsing.ItemParser;
+import org.rumbledb.items.parsing.RowToItemConverter;
 import org.rumbledb.runtime.RuntimeIterator;
 import org.rumbledb.types.ItemType;
 
@@ -44,6 +44,7 @@ public class PredicateWithZipUDF implements UDF1<Row, Boolean> {
     private final DynamicContext dynamicContext;
     private final ExceptionMetadata metadata;
     private final ItemType itemType;
+    private transient RowToItemConverter converter;
     private final long contextSize;
     List<Item> currentItems = new ArrayList<>();
 
@@ -65,7 +66,8 @@ public class PredicateWithZipUDF implements UDF1<Row, Boolean> {
     public Boolean call(Row row) {
         this.dynamicContext.getVariableValues().removeAllVariables();
         this.currentItems.clear();
-        Item item = ItemParser.getItemFromRow(row, this.metadata, this.itemType);
+        this.converter = RowToItemConverter.forRow(this.converter, row, this.itemType, this.metadata);
+        Item item = this.converter.convert(row);
         this.currentItems.add(item);
         this.dynamicContext.getVariableValues().addVariableValue(Name.CONTEXT_ITEM, this.currentItems);
         Option<Object> opt = row.schema().getFieldIndex(SparkSessionManager.countColumnName);
@@ -47,6 +47,9 @@ public class SequenceLookupIterator extends AtMostOneItemLocalRuntimeIterator {
 
     @Override
     public Item materializeFirstItemOrNull(DynamicContext dynamicContext) {
+        if (this.position < 1) {
+            return null;
+        }
         List<Item> materializedItems = new ArrayList<>();
         this.iterator.materializeNFirstItems(
             dynamicContext,
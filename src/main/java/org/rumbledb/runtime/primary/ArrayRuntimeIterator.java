@@ -20,12 +20,19 @@
 
 package org.rumbledb.runtime.primary;
 
+import org.apache.spark.sql.types.DataType;
+import org.apache.spark.sql.types.DataTypes;
 import org.rumbledb.api.Item;
 import org.rumbledb.context.DynamicContext;
 import org.rumbledb.context.RuntimeStaticContext;
 import org.rumbledb.items.ItemFactory;
 import org.rumbledb.runtime.AtMostOneItemLocalRuntimeIterator;
+import org.rumbledb.runtime.CommaExpressionIterator;
 import org.rumbledb.runtime.RuntimeIterator;
+import org.rumbledb.runtime.flwor.FlworDataFrameUtils;
+import org.rumbledb.runtime.flwor.NativeClauseContext;
+import org.rumbledb.types.SequenceType;
+import org.rumbledb.types.TypeMappings;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -54,4 +61,47 @@ public class ArrayRuntimeIterator extends AtMostOneItemLocalRuntimeIterator {
         Item item = ItemFactory.getInstance().createArrayItem(result);
         return item;
     }
+
+    @Override
+    public NativeClauseContext generateNativeQuery(NativeClauseContext nativeClauseContext) {
+        if (this.children.isEmpty()) {
+            return NativeClauseContext.NoNativeQuery;
+        }
+        List<RuntimeIterator> members = this.children.get(0) instanceof CommaExpressionIterator
+            ? ((CommaExpressionIterator) this.children.get(0)).getChildIterators()
+            : this.children;
+        // members must have the same type, as Spark would otherwise coerce them.
+        DataType elementType = null;
+        SequenceType memberType = null;
+        StringBuilder resultingQuery = new StringBuilder("( FILTER( ARRAY( ");
+        String separator = "";
+        for (RuntimeIterator member : members) {
+            NativeClauseContext value = member.generateNativeQuery(nativeClauseContext);
+            if (value == NativeClauseContext.NoNativeQuery) {
+                return NativeClauseContext.NoNativeQuery;
+            }
+            DataType dataType = FlworDataFrameUtils.getNativeQueryDataType(value);
+            if (dataType == null || (elementType != null && !elementType.equals(dataType))) {
+                return NativeClauseContext.NoNativeQuery;
+            }
+            if (memberType != null && !memberType.getItemType().equals(value.getResultingType().getItemType())) {
+                return NativeClauseContext.NoNativeQuery;
+            }
+            elementType = dataType;
+            memberType = value.getResultingType();
+            resultingQuery.append(separator);
+            resultingQuery.append(value.getResultingQuery());
+            separator = ", ";
+        }
+        // empty members (NULL) are not part of the array.
+        resultingQuery.append(" ), member -> member IS NOT NULL ) )");
+        DataType arrayType = DataTypes.createArrayType(elementType);
+        NativeClauseContext result = new NativeClauseContext(
+                nativeClauseContext,
+                resultingQuery.toString(),
+                new SequenceType(TypeMappings.getItemTypeFromDataFrameDataType(arrayType), SequenceType.Arity.One)
+        );
+        result.setSchema(arrayType);
+        return result;
+    }
 }
@@ -20,6 +20,9 @@
 
 package org.rumbledb.runtime.primary;
 
+import org.apache.spark.sql.types.DataType;
+import org.apache.spark.sql.types.DataTypes;
+import org.apache.spark.sql.types.StructField;
 import org.rumbledb.api.Item;
 import org.rumbledb.context.DynamicContext;
 import org.rumbledb.context.RuntimeStaticContext;
@@ -29,6 +32,10 @@ import org.rumbledb.items.ItemFactory;
 import org.rumbledb.items.ObjectItem;
 import org.rumbledb.runtime.AtMostOneItemLocalRuntimeIterator;
 import org.rumbledb.runtime.RuntimeIterator;
+import org.rumbledb.runtime.flwor.FlworDataFrameUtils;
+import org.rumbledb.runtime.flwor.NativeClauseContext;
+import org.rumbledb.types.BuiltinTypesCatalogue;
+import org.rumbledb.types.SequenceType;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -124,4 +131,56 @@ public class ObjectConstructorRuntimeIterator extends AtMostOneItemLocalRuntimeI
                 .createObjectItem(keys, values, getMetadata());
         }
     }
+
+    @Override
+    public NativeClauseContext generateNativeQuery(NativeClauseContext nativeClauseContext) {
+        if (this.isMergedObject || this.keys.isEmpty()) {
+            return NativeClauseContext.NoNativeQuery;
+        }
+        // the object is built as a struct, which needs static keys. As for any struct, absent (NULL) values are
+        // dropped when the struct is converted back to an object, whereas an empty value gives a null value here, so
+        // that only values that are never empty are pushed down.
+        List<String> keys = new ArrayList<>();
+        List<StructField> fields = new ArrayList<>();
+        StringBuilder resultingQuery = new StringBuilder("( NAMED_STRUCT( ");
+        String separator = "";
+        for (int i = 0; i < this.keys.size(); ++i) {
+            if (!(this.keys.get(i) instanceof StringRuntimeIterator)) {
+                return NativeClauseContext.NoNativeQuery;
+            }
+            String key = this.keys.get(i).materializeFirstItemOrNull(nativeClauseContext.getContext()).getStringValue();
+            if (keys.contains(key) || key.contains("`")) {
+                return NativeClauseContext.NoNativeQuery;
+            }
+            NativeClauseContext value = this.values.get(i).generateNativeQuery(nativeClauseContext);
+            if (value == NativeClauseContext.NoNativeQuery) {
+                return NativeClauseContext.NoNativeQuery;
+            }
+            DataType dataType = FlworDataFrameUtils.getNativeQueryDataType(value);
+            if (dataType == null) {
+                return NativeClauseContext.NoNativeQuery;
+            }
+            if (
+                !value.getResultingType().getArity().equals(SequenceType.Arity.One)
+                    || FlworDataFrameUtils.isNullableNativeQuery(nativeClauseContext, value)
+            ) {
+                return NativeClauseContext.NoNativeQuery;
+            }
+            keys.add(key);
+            fields.add(DataTypes.createStructField(key, dataType, true));
+            resultingQuery.append(separator);
+            resultingQuery.append(FlworDataFrameUtils.getSQLStringLiteral(key));
+            resultingQuery.append(", ");
+            resultingQuery.append(value.getResultingQuery());
+            separator = ", ";
+        }
+        resultingQuery.append(" ) )");
+        NativeClauseContext result = new NativeClauseContext(
+                nativeClauseContext,
+                resultingQuery.toString(),
+                new SequenceType(BuiltinTypesCatalogue.objectItem, SequenceType.Arity.One)
+        );
+        result.setSchema(DataTypes.createStructType(fields));
+        return result;
+    }
 }
@@ -1,7 +1,6 @@
 package org.rumbledb.runtime.update.expression;
 
 import org.apache.spark.api.java.JavaRDD;
-import org.apache.commons.lang3.SerializationUtils;
 import org.rumbledb.api.Item;
 import org.rumbledb.context.DynamicContext;
 import org.rumbledb.context.Name;
@@ -84,8 +83,14 @@ public class TransformExpressionIterator extends HybridRuntimeIterator {
     @Override
     public PendingUpdateList getPendingUpdateList(DynamicContext context) {
         bindCopyDeclarations(context);
+        // a transform expression nested in a modify clause must not leave its mutability level to the enclosing one.
+        int enclosingMutabilityLevel = context.getCurrentMutabilityLevel();
         context.setCurrentMutabilityLevel(this.mutabilityLevel);
-        return modifyIterator.getPendingUpdateList(context);
+        try {
+            return modifyIterator.getPendingUpdateList(context);
+        } finally {
+            context.setCurrentMutabilityLevel(enclosingMutabilityLevel);
+        }
     }
 
     private void bindCopyDeclarations(DynamicContext context) {
@@ -93,11 +98,8 @@ public class TransformExpressionIterator extends HybridRuntimeIterator {
             RuntimeIterator copyIterator = copyDeclMap.get(copyVar);
             List<Item> toCopy = copyIterator.materialize(context);
             List<Item> copy = new ArrayList<>();
-            Item temp;
             for (Item item : toCopy) {
-                temp = (Item) SerializationUtils.clone(item);
-                temp.setMutabilityLevel(this.mutabilityLevel);
-                copy.add(temp);
+                copy.add(item.copyForUpdates(this.mutabilityLevel));
             }
             context.getVariableValues().addVariableValue(copyVar, copy);
         }
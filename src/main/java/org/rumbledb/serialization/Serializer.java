@@ -2,6 +2,7 @@ package org.rumbledb.serialization;
 
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 
 import org.apache.commons.text.StringEscapeUtils;
 import org.rumbledb.api.Item;
@@ -68,7 +69,8 @@ public class Serializer {
                 e.initCause(ioe);
                 throw e;
             }
-            sb.append(baos.toString());
+            // the generator encodes in UTF-8.
+            sb.append(new String(baos.toByteArray(), StandardCharsets.UTF_8));
             return;
         }
         if (item.isFunction()) {
@@ -0,0 +1,40 @@
+package org.rumbledb.server;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+import org.rumbledb.api.Item;
+import org.rumbledb.compiler.CompiledQueryCache;
+import org.rumbledb.items.ItemFactory;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+
+/**
+ * Reports the size, hits and misses of the server's cache of compiled queries as a JSON object.
+ */
+@SuppressWarnings("restriction")
+public class QueryCacheHandler implements HttpHandler {
+
+    private CompiledQueryCache queryCache;
+
+    public QueryCacheHandler(CompiledQueryCache queryCache) {
+        this.queryCache = queryCache;
+    }
+
+    @Override
+    public void handle(HttpExchange exchange) throws IOException {
+        Item output = ItemFactory.getInstance().createObjectItem();
+        output.putItemByKey("capacity", ItemFactory.getInstance().createIntItem(this.queryCache.getCapacity()));
+        output.putItemByKey("size", ItemFactory.getInstance().createIntItem(this.queryCache.size()));
+        output.putItemByKey("hits", ItemFactory.getInstance().createLongItem(this.queryCache.getHits()));
+        output.putItemByKey("misses", ItemFactory.getInstance().createLongItem(this.queryCache.getMisses()));
+        byte[] response = output.serialize().getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, response.length);
+        OutputStream stream = exchange.getResponseBody();
+        stream.write(response);
+        stream.close();
+    }
+}
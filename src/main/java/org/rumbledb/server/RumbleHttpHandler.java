@@ -1,22 +1,32 @@
 package org.rumbledb.server;
 
 import java.io.BufferedReader;
+import java.io.BufferedWriter;
 import java.io.IOException;
 import java.io.InputStreamReader;
 import java.io.OutputStream;
+import java.io.OutputStreamWriter;
 import java.io.UnsupportedEncodingException;
+import java.io.Writer;
 import java.net.ConnectException;
 import java.net.URI;
 import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
 
 import javassist.CannotCompileException;
+import org.apache.commons.text.StringEscapeUtils;
 import org.apache.spark.SparkException;
+import org.apache.spark.api.java.JavaSparkContext;
 import org.rumbledb.api.Item;
+import org.rumbledb.api.SequenceOfItems;
 import org.rumbledb.cli.JsoniqQueryExecutor;
+import org.rumbledb.compiler.CompiledQueryCache;
 import org.rumbledb.config.RumbleRuntimeConfiguration;
 import org.rumbledb.errorcodes.ErrorCode;
 import org.rumbledb.exceptions.OurBadException;
@@ -32,6 +42,8 @@ import sparksoniq.spark.SparkSessionManager;
 public class RumbleHttpHandler implements HttpHandler {
 
     private RumbleRuntimeConfiguration rumbleRuntimeConfiguration;
+    private CompiledQueryCache queryCache;
+    private final AtomicLong queryCounter = new AtomicLong();
 
     private enum StatusCode {
         SUCCESS(200),
@@ -49,17 +61,125 @@ public class RumbleHttpHandler implements HttpHandler {
         }
     }
 
-    public RumbleHttpHandler(RumbleRuntimeConfiguration rumbleRuntimeConfiguration) {
+    public RumbleHttpHandler(RumbleRuntimeConfiguration rumbleRuntimeConfiguration, CompiledQueryCache queryCache) {
         this.rumbleRuntimeConfiguration = rumbleRuntimeConfiguration;
+        this.queryCache = queryCache;
     }
 
     private void sendResponse(HttpExchange exchange, StatusCode code, String response) throws IOException {
-        exchange.sendResponseHeaders(code.getCode(), response.getBytes().length);
+        byte[] bytes = response.getBytes();
+        exchange.sendResponseHeaders(code.getCode(), bytes.length);
         OutputStream stream = exchange.getResponseBody();
-        stream.write(response.getBytes());
+        stream.write(bytes);
         stream.close();
     }
 
+    /**
+     * Sends the results of a query as they are computed, with chunked transfer encoding, so that neither the
+     * sequence nor its serialization is ever held in memory as a whole.
+     *
+     * In the json format, the response is the same object as when it is sent in one piece, with the values capped at
+     * the materialization cap, followed by a warning if the cap was reached. In the ndjson format, each value is
+     * written on its own line and all values are sent. As the response has already begun, an error that happens
+     * while evaluating the query is reported in the same object (json) or as a last line (ndjson). If the response
+     * itself cannot be written (e.g., the client went away), the exchange is closed and the exception is thrown.
+     */
+    private void streamResponse(
+            HttpExchange exchange,
+            RumbleRuntimeConfiguration configuration,
+            SequenceOfItems sequence,
+            String format
+    ) throws IOException {
+        boolean ndjson = format.equals("ndjson");
+        try {
+            exchange.getResponseHeaders().set("Content-Type", ndjson ? "application/x-ndjson" : "application/json");
+            // a response length of 0 means chunked transfer encoding.
+            exchange.sendResponseHeaders(StatusCode.SUCCESS.getCode(), 0);
+            try (
+                Writer writer = new BufferedWriter(
+                        new OutputStreamWriter(exchange.getResponseBody(), StandardCharsets.UTF_8)
+                )
+            ) {
+                writeStreamedResponse(writer, configuration, sequence, ndjson);
+            }
+        } catch (IOException e) {
+            exchange.close();
+            throw e;
+        } finally {
+            if (sequence.isOpen()) {
+                sequence.close();
+            } else {
+                sequence.releaseResources();
+            }
+        }
+    }
+
+    private static void writeStreamedResponse(
+            Writer writer,
+            RumbleRuntimeConfiguration configuration,
+            SequenceOfItems sequence,
+            boolean ndjson
+    ) throws IOException {
+        int cap = ndjson ? 0 : configuration.getResultSizeCap();
+        long itemCount = 0;
+        boolean capReached = false;
+        Item error = null;
+        if (!ndjson) {
+            writer.write("{ \"values\" : [");
+        }
+        try {
+            Iterator<Item> items = sequence.getLocalIterator();
+            while (items.hasNext()) {
+                if (cap > 0 && itemCount == cap) {
+                    capReached = true;
+                    break;
+                }
+                Item item = items.next();
+                if (ndjson) {
+                    writer.write(item.serialize());
+                    writer.write("\n");
+                } else {
+                    writer.write(itemCount == 0 ? " " : ", ");
+                    writer.write(item.serialize());
+                }
+                ++itemCount;
+            }
+        } catch (IOException e) {
+            // only the writer throws checked exceptions: the response cannot be completed.
+            throw e;
+        } catch (Exception e) {
+            error = handleException(e);
+        }
+        if (ndjson) {
+            if (error != null) {
+                writer.write(error.serialize());
+                writer.write("\n");
+            }
+            return;
+        }
+        writer.write(" ]");
+        if (capReached) {
+            writeStreamedKey(
+                writer,
+                "warning",
+                ItemFactory.getInstance().createStringItem(getMaterializationWarning(configuration, Long.MAX_VALUE))
+            );
+        }
+        if (error != null) {
+            for (String key : error.getKeys()) {
+                writeStreamedKey(writer, key, error.getItemByKey(key));
+            }
+        }
+        writer.write(" }");
+    }
+
+    private static void writeStreamedKey(Writer writer, String key, Item value) throws IOException {
+        writer.write(", \"");
+        writer.write(StringEscapeUtils.escapeJson(key));
+        writer.write("\" : ");
+        writer.write(value.serialize());
+    }
+
     private String[] getCLIArguments(String query) throws UnsupportedEncodingException {
         Map<String, String> queryParameters = new HashMap<String, String>();
         if (query == null) {
@@ -83,24 +203,52 @@ public class RumbleHttpHandler implements HttpHandler {
         return args;
     }
 
+    /**
+     * Handles a request on one of the server's worker threads. Requests run concurrently: everything that is
+     * specific to a query is in its own configuration, and its Spark jobs are tagged with their own job group (so
+     * that they can be cancelled from the Spark UI) and scheduler pool (so that queries share the cluster fairly if
+     * spark.scheduler.mode is FAIR).
+     */
     @Override
     public void handle(HttpExchange exchange) throws IOException {
+        JavaSparkContext sparkContext = SparkSessionManager.getInstance().getJavaSparkContext();
+        String jobGroup = "rumble-query-" + this.queryCounter.incrementAndGet();
+        sparkContext.setJobGroup(jobGroup, "Query " + exchange.getRequestURI(), true);
+        sparkContext.setLocalProperty("spark.scheduler.pool", Thread.currentThread().getName());
+        try {
+            handleQuery(exchange);
+        } catch (IOException e) {
+            sparkContext.cancelJobGroup(jobGroup);
+            throw e;
+        } finally {
+            sparkContext.clearJobGroup();
+            sparkContext.setLocalProperty("spark.scheduler.pool", null);
+        }
+    }
+
+    private void handleQuery(HttpExchange exchange) throws IOException {
+        RumbleRuntimeConfiguration configuration = null;
+        SequenceOfItems streamedSequence = null;
         try {
             URI uri = exchange.getRequestURI();
             validateRequest(exchange);
             String queryString = uri.getQuery();
             String[] args = getCLIArguments(queryString);
 
-            RumbleRuntimeConfiguration configuration = new RumbleRuntimeConfiguration(args);
+            configuration = new RumbleRuntimeConfiguration(args);
             configuration.setAllowedURIPrefixes(this.rumbleRuntimeConfiguration.getAllowedURIPrefixes());
             validateConfiguration(exchange, configuration);
-            SparkSessionManager.COLLECT_ITEM_LIMIT = configuration.getResultSizeCap();
 
-            JsoniqQueryExecutor translator = new JsoniqQueryExecutor(configuration);
+            JsoniqQueryExecutor translator = new JsoniqQueryExecutor(configuration, this.queryCache);
+            boolean streaming = configuration.getStreamingFormat() != null && configuration.getOutputPath() == null;
             List<Item> items = null;
             long count = -1;
             if (configuration.getQueryPath() != null) {
-                items = translator.runQuery();
+                if (streaming) {
+                    streamedSequence = translator.runQueryLazily();
+                } else {
+                    items = translator.runQuery();
+                }
             } else {
                 InputStreamReader r = new InputStreamReader(exchange.getRequestBody());
                 BufferedReader r2 = new BufferedReader(r);
@@ -111,20 +259,28 @@ public class RumbleHttpHandler implements HttpHandler {
                     sb.append("\n");
                 }
                 String JSONiqQuery = sb.toString();
-                items = new ArrayList<Item>();
-                count = translator.runInteractive(JSONiqQuery, items);
+                if (streaming) {
+                    streamedSequence = translator.runInteractiveLazily(JSONiqQuery);
+                } else {
+                    items = new ArrayList<Item>();
+                    count = translator.runInteractive(JSONiqQuery, items);
+                }
             }
 
-            Item output = assembleResponse(configuration, items, count);
-
-            this.sendResponse(exchange, StatusCode.SUCCESS, output.serialize());
+            if (streamedSequence == null) {
+                Item output = assembleResponse(configuration, items, count);
+                this.sendResponse(exchange, StatusCode.SUCCESS, output.serialize());
+                return;
+            }
         } catch (Exception e) {
             Item output = handleException(e);
             this.sendResponse(exchange, StatusCode.SUCCESS, output.serialize());
+            return;
         }
+        // outside of the try block: once streaming has begun, the headers are sent and errors are handled there.
+        this.streamResponse(exchange, configuration, streamedSequence, configuration.getStreamingFormat());
     }
 
-
     private void validateRequest(HttpExchange exchange) throws IOException {
         if (!exchange.getRequestMethod().equals("GET") && !exchange.getRequestMethod().equals("POST")) {
             this.sendResponse(
@@ -166,18 +322,22 @@ public class RumbleHttpHandler implements HttpHandler {
             output.putItemByKey(
                 "warning",
                 ItemFactory.getInstance()
-                    .createStringItem(
-                        "Warning! The output sequence contains "
-                            + count
-                            + " items but its materialization was capped at "
-                            + SparkSessionManager.COLLECT_ITEM_LIMIT
-                            + " items. This value can be configured with the result-size parameter in the query string of the HTTP request."
-                    )
+                    .createStringItem(getMaterializationWarning(configuration, count))
             );
         }
         return output;
     }
 
+    private static String getMaterializationWarning(RumbleRuntimeConfiguration configuration, long count) {
+        return "Warning! The output sequence contains "
+            + (count == Long.MAX_VALUE
+                ? "more than " + configuration.getResultSizeCap()
+                : String.valueOf(count))
+            + " items but its materialization was capped at "
+            + configuration.getResultSizeCap()
+            + " items. This value can be configured with the result-size parameter in the query string of the HTTP request.";
+    }
+
     private static Item assembleErrorReponse(String message, String code, StackTraceElement[] stackTraceElements) {
         Item output = ItemFactory.getInstance().createObjectItem();
         output.putItemByKey("error-message", ItemFactory.getInstance().createStringItem(message));
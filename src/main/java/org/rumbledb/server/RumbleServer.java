@@ -2,7 +2,11 @@ package org.rumbledb.server;
 
 import java.io.IOException;
 import java.net.InetSocketAddress;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
 
+import org.rumbledb.compiler.CompiledQueryCache;
 import org.rumbledb.config.RumbleRuntimeConfiguration;
 import org.rumbledb.exceptions.ExceptionMetadata;
 import org.rumbledb.exceptions.OurBadException;
@@ -31,8 +35,24 @@ public class RumbleServer {
                 ),
                 0
             );
+            // queries mostly wait on Spark jobs, so several of them are handled at the same time.
+            AtomicInteger workerCounter = new AtomicInteger();
+            ExecutorService workers = Executors.newFixedThreadPool(
+                this.rumbleRuntimeConfiguration.getServerThreads(),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "rumble-worker-" + workerCounter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            );
+            server.setExecutor(workers);
+            CompiledQueryCache queryCache = new CompiledQueryCache(this.rumbleRuntimeConfiguration.getQueryCacheSize());
             HttpContext context = server.createContext("/jsoniq");
-            context.setHandler(new RumbleHttpHandler(this.rumbleRuntimeConfiguration));
+            context.setHandler(new RumbleHttpHandler(this.rumbleRuntimeConfiguration, queryCache));
+            context = server.createContext("/query-cache");
+            context.setHandler(new QueryCacheHandler(queryCache));
+            context = server.createContext("/spark-resources");
+            context.setHandler(new SparkResourcesHandler());
             context = server.createContext("/public.html");
             context.setHandler(new MainPageHandler());
             context = server.createContext("/jsound-validator.html");
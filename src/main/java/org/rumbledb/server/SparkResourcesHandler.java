@@ -0,0 +1,40 @@
+package org.rumbledb.server;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+import org.rumbledb.api.Item;
+import org.rumbledb.items.ItemFactory;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+
+import sparksoniq.spark.QueryResources;
+
+/**
+ * Reports the number of temporary views in the Spark session and the number of bytes cached by Spark as a JSON
+ * object, so that resources left behind by queries can be monitored.
+ */
+@SuppressWarnings("restriction")
+public class SparkResourcesHandler implements HttpHandler {
+
+    @Override
+    public void handle(HttpExchange exchange) throws IOException {
+        Item output = ItemFactory.getInstance().createObjectItem();
+        output.putItemByKey(
+            "temporary-views",
+            ItemFactory.getInstance().createLongItem(QueryResources.getNumberOfTemporaryViews())
+        );
+        output.putItemByKey(
+            "cached-bytes",
+            ItemFactory.getInstance().createLongItem(QueryResources.getCachedBytes())
+        );
+        byte[] response = output.serialize().getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, response.length);
+        OutputStream stream = exchange.getResponseBody();
+        stream.write(response);
+        stream.close();
+    }
+}
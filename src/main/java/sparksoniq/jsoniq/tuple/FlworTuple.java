@@ -27,6 +27,7 @@ import com.esotericsoftware.kryo.io.Output;
 import org.apache.spark.api.java.JavaRDD;
 import org.apache.spark.sql.Row;
 import org.rumbledb.api.Item;
+import org.rumbledb.config.RumbleRuntimeConfiguration;
 import org.rumbledb.context.Name;
 import org.rumbledb.exceptions.ExceptionMetadata;
 import org.rumbledb.exceptions.OurBadException;
@@ -111,13 +112,13 @@ public class FlworTuple implements Serializable, KryoSerializable {
         return this.dataFrameVariables.containsKey(key);
     }
 
-    public List<Item> getLocalValue(Name key, ExceptionMetadata metadata) {
+    public List<Item> getLocalValue(Name key, RumbleRuntimeConfiguration configuration, ExceptionMetadata metadata) {
         if (this.localVariables.containsKey(key)) {
             return this.localVariables.get(key);
         }
         if (this.rddVariables.containsKey(key)) {
             JavaRDD<Item> rdd = this.getRDDValue(key, metadata);
-            return SparkSessionManager.collectRDDwithLimit(rdd, metadata);
+            return SparkSessionManager.collectRDDwithLimit(rdd, configuration, metadata);
         }
 
         throw new OurBadException("Undeclared FLOWR variable", metadata);
@@ -0,0 +1,80 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package sparksoniq.jsoniq.tuple;
+
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+import org.rumbledb.runtime.flwor.FlworDataFrameUtils;
+
+/**
+ * Holds the input tuples of a locally executed clause that needs all of them before it can output any, within a
+ * memory budget. Tuples are kept serialized with Kryo, which is more compact than their object graphs and gives their
+ * size. Subclasses spill them to temporary files when the budget is exceeded.
+ */
+public abstract class SpillingTupleBuffer implements AutoCloseable {
+
+    protected final long threshold;
+    protected final Kryo kryo;
+    private final Output output;
+    private final Input input;
+    protected long bufferedBytes;
+
+    /**
+     * Creates an empty buffer.
+     *
+     * @param threshold the number of bytes of serialized tuples beyond which they are spilled.
+     */
+    protected SpillingTupleBuffer(long threshold) {
+        this.threshold = threshold;
+        this.kryo = new Kryo();
+        this.kryo.setReferences(false);
+        FlworDataFrameUtils.registerKryoClassesKryo(this.kryo);
+        this.output = new Output(128, -1);
+        this.input = new Input();
+        this.bufferedBytes = 0;
+    }
+
+    /**
+     * Says whether a tuple can be spilled, i.e., whether all its variables are bound to local sequences of items.
+     *
+     * @param tuple the tuple.
+     * @return true if it can be serialized, false otherwise.
+     */
+    public static boolean isSpillable(FlworTuple tuple) {
+        return tuple.getRDDKeys().isEmpty() && tuple.getDataFrameKeys().isEmpty();
+    }
+
+    protected byte[] serialize(FlworTuple tuple) {
+        this.output.clear();
+        this.kryo.writeObject(this.output, tuple);
+        return this.output.toBytes();
+    }
+
+    protected FlworTuple deserialize(byte[] bytes) {
+        this.input.setBuffer(bytes);
+        return this.kryo.readObject(this.input, FlworTuple.class);
+    }
+
+    /**
+     * Deletes the temporary files, if any. The buffer cannot be used afterwards.
+     */
+    @Override
+    public abstract void close();
+}
@@ -0,0 +1,165 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package sparksoniq.jsoniq.tuple;
+
+import org.apache.log4j.LogManager;
+
+import sparksoniq.jsoniq.tuple.TupleSpillFile.Record;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * Groups tuples by key within a memory budget (hash grouping with spilling): when the serialized tuples exceed the
+ * budget, they are written, together with all tuples added afterwards, to temporary files that partition them by the
+ * hash of their keys. The partitions are then grouped one after the other when the groups are read, so that only one
+ * partition is held in memory at a time. Tuples are returned in the order in which they were added within each group.
+ */
+public class SpillingTupleGrouper extends SpillingTupleBuffer {
+
+    private static final int numberOfPartitions = 16;
+
+    private Map<FlworKey, List<byte[]>> groups;
+    private TupleSpillFile[] partitions;
+    private long numberOfTuples;
+
+    /**
+     * Creates an empty grouper.
+     *
+     * @param threshold the number of bytes of serialized tuples beyond which they are spilled.
+     */
+    public SpillingTupleGrouper(long threshold) {
+        super(threshold);
+        this.groups = new HashMap<>();
+        this.partitions = null;
+        this.numberOfTuples = 0;
+    }
+
+    /**
+     * Adds a tuple, which must be spillable.
+     *
+     * @param key the key of the tuple.
+     * @param tuple the tuple.
+     */
+    public void add(FlworKey key, FlworTuple tuple) {
+        byte[] bytes = serialize(tuple);
+        ++this.numberOfTuples;
+        if (this.partitions != null) {
+            writeToPartition(new Record(key, 0, bytes));
+            return;
+        }
+        this.groups.computeIfAbsent(key, k -> new ArrayList<>()).add(bytes);
+        this.bufferedBytes += bytes.length;
+        if (this.bufferedBytes > this.threshold) {
+            spill();
+        }
+    }
+
+    private void spill() {
+        LogManager.getLogger("SpillingTupleGrouper")
+            .info(
+                "Rumble spilled the "
+                    + this.numberOfTuples
+                    + " tuples ("
+                    + this.bufferedBytes
+                    + " bytes) of a group-by clause seen so far to disk, and will spill the next ones as well."
+            );
+        this.partitions = new TupleSpillFile[numberOfPartitions];
+        for (int i = 0; i < numberOfPartitions; ++i) {
+            this.partitions[i] = new TupleSpillFile(this.kryo);
+        }
+        for (Map.Entry<FlworKey, List<byte[]>> group : this.groups.entrySet()) {
+            for (byte[] tuple : group.getValue()) {
+                writeToPartition(new Record(group.getKey(), 0, tuple));
+            }
+        }
+        this.groups = null;
+        this.bufferedBytes = 0;
+    }
+
+    private void writeToPartition(Record record) {
+        this.partitions[Math.floorMod(record.getKey().hashCode(), numberOfPartitions)].write(record);
+    }
+
+    /**
+     * Gets the groups of tuples, in no particular order. It can only be called once, after all tuples have been added.
+     *
+     * @return an iterator over the groups, each of which is a non-empty list of tuples.
+     */
+    public Iterator<List<FlworTuple>> groups() {
+        return new Iterator<List<FlworTuple>>() {
+            private int nextPartition = 0;
+            private Iterator<List<byte[]>> currentGroups = SpillingTupleGrouper.this.partitions == null
+                ? SpillingTupleGrouper.this.groups.values().iterator()
+                : Collections.emptyIterator();
+
+            @Override
+            public boolean hasNext() {
+                while (!this.currentGroups.hasNext()) {
+                    TupleSpillFile[] partitions = SpillingTupleGrouper.this.partitions;
+                    if (partitions == null || this.nextPartition == partitions.length) {
+                        close();
+                        return false;
+                    }
+                    this.currentGroups = readPartition(partitions[this.nextPartition++]);
+                }
+                return true;
+            }
+
+            @Override
+            public List<FlworTuple> next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                List<byte[]> group = this.currentGroups.next();
+                List<FlworTuple> result = new ArrayList<>(group.size());
+                for (byte[] tuple : group) {
+                    result.add(deserialize(tuple));
+                }
+                return result;
+            }
+        };
+    }
+
+    private Iterator<List<byte[]>> readPartition(TupleSpillFile partition) {
+        Map<FlworKey, List<byte[]>> partitionGroups = new HashMap<>();
+        Iterator<Record> records = partition.read();
+        while (records.hasNext()) {
+            Record record = records.next();
+            partitionGroups.computeIfAbsent(record.getKey(), k -> new ArrayList<>()).add(record.getTuple());
+        }
+        partition.close();
+        return partitionGroups.values().iterator();
+    }
+
+    @Override
+    public void close() {
+        if (this.partitions != null) {
+            for (TupleSpillFile partition : this.partitions) {
+                partition.close();
+            }
+        }
+        this.groups = null;
+    }
+}
@@ -0,0 +1,176 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package sparksoniq.jsoniq.tuple;
+
+import org.apache.log4j.LogManager;
+
+import sparksoniq.jsoniq.tuple.TupleSpillFile.Record;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+
+/**
+ * Sorts tuples by key within a memory budget (external merge sort): when the serialized tuples exceed the budget,
+ * they are sorted and written to a temporary file as a sorted run, and the runs are merged when the tuples are read.
+ * Tuples with equal keys are returned in the order in which they were added.
+ */
+public class SpillingTupleSorter extends SpillingTupleBuffer {
+
+    private final Comparator<Record> recordComparator;
+    private final List<Record> buffer;
+    private final List<TupleSpillFile> runs;
+    private long rank;
+
+    /**
+     * Creates an empty sorter.
+     *
+     * @param keyComparator the order of the keys.
+     * @param threshold the number of bytes of serialized tuples beyond which they are spilled.
+     */
+    public SpillingTupleSorter(Comparator<FlworKey> keyComparator, long threshold) {
+        super(threshold);
+        this.recordComparator = (record1, record2) -> {
+            int result = keyComparator.compare(record1.getKey(), record2.getKey());
+            return result != 0 ? result : Long.compare(record1.getRank(), record2.getRank());
+        };
+        this.buffer = new ArrayList<>();
+        this.runs = new ArrayList<>();
+        this.rank = 0;
+    }
+
+    /**
+     * Adds a tuple, which must be spillable.
+     *
+     * @param key the key of the tuple.
+     * @param tuple the tuple.
+     */
+    public void add(FlworKey key, FlworTuple tuple) {
+        byte[] bytes = serialize(tuple);
+        this.buffer.add(new Record(key, this.rank++, bytes));
+        this.bufferedBytes += bytes.length;
+        if (this.bufferedBytes > this.threshold) {
+            spill();
+        }
+    }
+
+    private void spill() {
+        this.buffer.sort(this.recordComparator);
+        TupleSpillFile run = new TupleSpillFile(this.kryo);
+        this.runs.add(run);
+        for (Record record : this.buffer) {
+            run.write(record);
+        }
+        LogManager.getLogger("SpillingTupleSorter")
+            .info(
+                "Rumble spilled a sorted run of "
+                    + this.buffer.size()
+                    + " tuples ("
+                    + this.bufferedBytes
+                    + " bytes) of an order-by clause to disk."
+            );
+        this.buffer.clear();
+        this.bufferedBytes = 0;
+    }
+
+    /**
+     * Gets the tuples in the order of their keys. It can only be called once, after all tuples have been added.
+     *
+     * @return an iterator over the sorted tuples.
+     */
+    public Iterator<FlworTuple> iterator() {
+        this.buffer.sort(this.recordComparator);
+        List<Iterator<Record>> sources = new ArrayList<>();
+        for (TupleSpillFile run : this.runs) {
+            sources.add(run.read());
+        }
+        sources.add(this.buffer.iterator());
+        if (sources.size() == 1) {
+            Iterator<Record> records = sources.get(0);
+            return new Iterator<FlworTuple>() {
+                @Override
+                public boolean hasNext() {
+                    return records.hasNext();
+                }
+
+                @Override
+                public FlworTuple next() {
+                    return deserialize(records.next().getTuple());
+                }
+            };
+        }
+
+        // each source is sorted, so the next record is the smallest of their first records.
+        PriorityQueue<MergeSource> queue = new PriorityQueue<>(
+                sources.size(),
+                (source1, source2) -> this.recordComparator.compare(source1.head, source2.head)
+        );
+        for (Iterator<Record> source : sources) {
+            if (source.hasNext()) {
+                queue.add(new MergeSource(source));
+            }
+        }
+        return new Iterator<FlworTuple>() {
+            @Override
+            public boolean hasNext() {
+                if (queue.isEmpty()) {
+                    close();
+                    return false;
+                }
+                return true;
+            }
+
+            @Override
+            public FlworTuple next() {
+                MergeSource source = queue.poll();
+                if (source == null) {
+                    throw new NoSuchElementException();
+                }
+                Record record = source.head;
+                if (source.records.hasNext()) {
+                    source.head = source.records.next();
+                    queue.add(source);
+                }
+                return deserialize(record.getTuple());
+            }
+        };
+    }
+
+    @Override
+    public void close() {
+        for (TupleSpillFile run : this.runs) {
+            run.close();
+        }
+        this.runs.clear();
+        this.buffer.clear();
+    }
+
+    private static class MergeSource {
+        private final Iterator<Record> records;
+        private Record head;
+
+        private MergeSource(Iterator<Record> records) {
+            this.records = records;
+            this.head = records.next();
+        }
+    }
+}
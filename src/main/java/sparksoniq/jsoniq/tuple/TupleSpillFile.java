@@ -0,0 +1,185 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package sparksoniq.jsoniq.tuple;
+
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+import org.rumbledb.api.Item;
+import org.rumbledb.exceptions.OurBadException;
+import sparksoniq.spark.QueryResources;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * A temporary file to which a locally executed clause spills serialized tuples together with their keys. It is
+ * written first, then read once, and deleted when it is closed.
+ *
+ * The number of bytes spilled and the time spent spilling and reading back are added to the statistics of the query
+ * that creates the file, for its log.
+ */
+public class TupleSpillFile implements AutoCloseable {
+
+    private static final int bufferSize = 1 << 16;
+
+    private final Kryo kryo;
+    private final File file;
+    private final QueryResources resources;
+    private Output output;
+    private Input input;
+    private long numberOfRecords;
+    private long spilledBytes;
+    private long spillTime;
+
+    /**
+     * Creates an empty file, ready for writing.
+     *
+     * @param kryo the Kryo object with which keys are serialized.
+     */
+    public TupleSpillFile(Kryo kryo) {
+        this.kryo = kryo;
+        this.resources = QueryResources.getBound();
+        this.numberOfRecords = 0;
+        try {
+            this.file = File.createTempFile("rumbledb-spill-", ".bin");
+            this.file.deleteOnExit();
+            this.output = new Output(new FileOutputStream(this.file), bufferSize);
+        } catch (IOException e) {
+            throw spillError(e);
+        }
+    }
+
+    /**
+     * Appends a record.
+     *
+     * @param record the record.
+     */
+    public void write(Record record) {
+        long start = System.nanoTime();
+        this.kryo.writeClassAndObject(this.output, record.key.getKeyItems());
+        this.output.writeLong(record.rank, true);
+        this.output.writeInt(record.tuple.length, true);
+        this.output.writeBytes(record.tuple);
+        ++this.numberOfRecords;
+        this.spillTime += System.nanoTime() - start;
+    }
+
+    /**
+     * Reads the records back, in the order in which they were written. No record can be written afterwards.
+     *
+     * @return an iterator over the records.
+     */
+    public Iterator<Record> read() {
+        long start = System.nanoTime();
+        this.spilledBytes = this.output.total();
+        this.output.close();
+        this.output = null;
+        try {
+            this.input = new Input(new FileInputStream(this.file), bufferSize);
+        } catch (IOException e) {
+            throw spillError(e);
+        }
+        this.spillTime += System.nanoTime() - start;
+        return new Iterator<Record>() {
+            private long remaining = TupleSpillFile.this.numberOfRecords;
+
+            @Override
+            public boolean hasNext() {
+                return this.remaining > 0;
+            }
+
+            @Override
+            @SuppressWarnings("unchecked")
+            public Record next() {
+                if (this.remaining == 0) {
+                    throw new NoSuchElementException();
+                }
+                --this.remaining;
+                long start = System.nanoTime();
+                Input input = TupleSpillFile.this.input;
+                List<Item> keyItems = (List<Item>) TupleSpillFile.this.kryo.readClassAndObject(input);
+                long rank = input.readLong(true);
+                byte[] tuple = input.readBytes(input.readInt(true));
+                TupleSpillFile.this.spillTime += System.nanoTime() - start;
+                return new Record(new FlworKey(keyItems), rank, tuple);
+            }
+        };
+    }
+
+    /**
+     * Closes and deletes the file, and adds its statistics to those of its query.
+     */
+    @Override
+    public void close() {
+        if (this.resources != null) {
+            this.resources.addSpillStatistics(this.spilledBytes, this.spillTime);
+            this.spilledBytes = 0;
+            this.spillTime = 0;
+        }
+        if (this.output != null) {
+            this.output.close();
+            this.output = null;
+        }
+        if (this.input != null) {
+            this.input.close();
+            this.input = null;
+        }
+        this.file.delete();
+    }
+
+    private static RuntimeException spillError(IOException e) {
+        RuntimeException exception = new OurBadException("Error while spilling tuples to a temporary file.");
+        exception.initCause(e);
+        return exception;
+    }
+
+    /**
+     * A serialized tuple, with its key and its position in the input of the clause.
+     */
+    public static class Record {
+
+        private final FlworKey key;
+        private final long rank;
+        private final byte[] tuple;
+
+        public Record(FlworKey key, long rank, byte[] tuple) {
+            this.key = key;
+            this.rank = rank;
+            this.tuple = tuple;
+        }
+
+        public FlworKey getKey() {
+            return this.key;
+        }
+
+        public long getRank() {
+            return this.rank;
+        }
+
+        public byte[] getTuple() {
+            return this.tuple;
+        }
+    }
+}
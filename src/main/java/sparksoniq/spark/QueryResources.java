@@ -0,0 +1,229 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Authors: Stefan Irimescu, Can Berker Cikis
+ *
+ */
+
+package sparksoniq.spark;
+
+import org.apache.spark.sql.Dataset;
+import org.apache.spark.sql.SparkSession;
+import org.apache.spark.sql.catalog.Table;
+import org.apache.spark.sql.catalyst.FunctionIdentifier;
+import org.apache.spark.storage.RDDInfo;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Keeps track of the temporary views, UDFs and persisted datasets that the execution of one query creates in the shared
+ * Spark session, as well as its temporary local files, so that they are dropped, unpersisted and deleted once the
+ * results of the query are no longer needed, rather than piling up in long-running shell and server sessions.
+ *
+ * Resources are attributed to the query whose resources are bound to the current thread, as queries are executed
+ * in the thread that consumes their results. Resources created while none is bound are not tracked. The statistics
+ * of the tuples that the query spills to local files are kept here too, for its log.
+ */
+public class QueryResources {
+
+    private static final ThreadLocal<QueryResources> current = new ThreadLocal<>();
+
+    private final List<String> temporaryViews;
+    private final List<String> udfs;
+    private final List<Dataset<?>> persistedDatasets;
+    private final List<File> temporaryFiles;
+    private long spilledBytes;
+    private long spillTime;
+
+    public QueryResources() {
+        this.temporaryViews = new ArrayList<>();
+        this.udfs = new ArrayList<>();
+        this.persistedDatasets = new ArrayList<>();
+        this.temporaryFiles = new ArrayList<>();
+    }
+
+    /**
+     * Attributes the resources that the current thread creates from now on to this query.
+     */
+    public void bind() {
+        current.set(this);
+    }
+
+    /**
+     * Gets the resources of the query bound to the current thread.
+     *
+     * @return the resources, or null if no query is bound.
+     */
+    public static QueryResources getBound() {
+        return current.get();
+    }
+
+    /**
+     * Records a temporary view created by the query bound to the current thread, if any.
+     *
+     * @param name the name of the view.
+     */
+    public static void registerTemporaryView(String name) {
+        QueryResources resources = current.get();
+        if (resources != null) {
+            resources.add(name, null);
+        }
+    }
+
+    /**
+     * Records a UDF registered by the query bound to the current thread, if any.
+     *
+     * @param name the name of the UDF.
+     */
+    public static void registerUDF(String name) {
+        QueryResources resources = current.get();
+        if (resources != null) {
+            synchronized (resources) {
+                resources.udfs.add(name);
+            }
+        }
+    }
+
+    /**
+     * Records a dataset persisted by the query bound to the current thread, if any.
+     *
+     * @param dataset the persisted dataset.
+     */
+    public static void registerPersistedDataset(Dataset<?> dataset) {
+        QueryResources resources = current.get();
+        if (resources != null) {
+            resources.add(null, dataset);
+        }
+    }
+
+    /**
+     * Records a temporary file created by the query bound to the current thread, if any.
+     *
+     * @param file the temporary file.
+     * @return true if the file will be deleted when the query's resources are released, false if no query is bound.
+     */
+    public static boolean registerTemporaryFile(File file) {
+        QueryResources resources = current.get();
+        if (resources == null) {
+            return false;
+        }
+        synchronized (resources) {
+            resources.temporaryFiles.add(file);
+        }
+        return true;
+    }
+
+    /**
+     * Adds the statistics of a spill file of the query.
+     *
+     * @param bytes the number of bytes spilled.
+     * @param time the time spent writing and reading them, in nanoseconds.
+     */
+    public synchronized void addSpillStatistics(long bytes, long time) {
+        this.spilledBytes += bytes;
+        this.spillTime += time;
+    }
+
+    /**
+     * Gets the number of bytes that the query spilled to temporary files.
+     *
+     * @return the number of bytes.
+     */
+    public synchronized long getSpilledBytes() {
+        return this.spilledBytes;
+    }
+
+    /**
+     * Gets the time that the query spent writing and reading temporary files.
+     *
+     * @return the time in milliseconds.
+     */
+    public synchronized long getSpillTime() {
+        return this.spillTime / 1000000;
+    }
+
+    private synchronized void add(String temporaryView, Dataset<?> persistedDataset) {
+        if (temporaryView != null) {
+            this.temporaryViews.add(temporaryView);
+        }
+        if (persistedDataset != null) {
+            this.persistedDatasets.add(persistedDataset);
+        }
+    }
+
+    /**
+     * Drops the temporary views and UDFs, unpersists the datasets and deletes the temporary files of the query. Data
+     * frames and RDDs obtained from the query must not be used afterwards. Resources that the query creates later on,
+     * e.g., if it is iterated again, are tracked again.
+     */
+    public synchronized void release() {
+        if (current.get() == this) {
+            current.remove();
+        }
+        for (File file : this.temporaryFiles) {
+            file.delete();
+        }
+        this.temporaryFiles.clear();
+        if (this.temporaryViews.isEmpty() && this.udfs.isEmpty() && this.persistedDatasets.isEmpty()) {
+            return;
+        }
+        SparkSession session = SparkSessionManager.getInstance().getOrCreateSession();
+        for (String view : this.temporaryViews) {
+            session.catalog().dropTempView(view);
+        }
+        // data frames resolve UDFs when they are created, so that they can still be evaluated without them.
+        for (String udf : this.udfs) {
+            session.sessionState().functionRegistry().dropFunction(new FunctionIdentifier(udf));
+        }
+        for (Dataset<?> dataset : this.persistedDatasets) {
+            dataset.unpersist(false);
+        }
+        this.temporaryViews.clear();
+        this.udfs.clear();
+        this.persistedDatasets.clear();
+    }
+
+    /**
+     * Counts the temporary views in the Spark session, including those that are not tracked.
+     *
+     * @return the number of temporary views.
+     */
+    public static long getNumberOfTemporaryViews() {
+        SparkSession session = SparkSessionManager.getInstance().getOrCreateSession();
+        long result = 0;
+        for (Table table : session.catalog().listTables().collectAsList()) {
+            if (table.isTemporary()) {
+                ++result;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Sums the memory and disk sizes of the RDDs and datasets cached by the Spark context.
+     *
+     * @return the number of cached bytes.
+     */
+    public static long getCachedBytes() {
+        long result = 0;
+        for (RDDInfo info : SparkSessionManager.getInstance().getJavaSparkContext().sc().getRDDStorageInfo()) {
+            result += info.memSize() + info.diskSize();
+        }
+        return result;
+    }
+}
@@ -0,0 +1,232 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package sparksoniq.spark;
+
+import org.apache.spark.api.java.JavaPairRDD;
+import org.apache.spark.api.java.JavaRDD;
+import org.apache.spark.api.java.function.Function2;
+import org.apache.spark.rdd.PartitionPruningRDD;
+import org.apache.spark.rdd.RDD;
+
+import scala.Tuple2;
+import scala.runtime.AbstractFunction1;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * The number of items in each partition of an RDD, from which the position of every item follows without zipping the
+ * RDD with its indices. Positional accesses (subsequences, predicates, tail, etc.) use it to only compute the
+ * partitions that contain the positions they need.
+ *
+ * The counts are computed with one Spark job the first time they are needed, and are then cached for as long as the
+ * RDD is alive, so that accessing several positions of the same RDD, e.g., of a variable, only counts it once.
+ */
+public class RDDPositionalIndex {
+
+    private static final Map<RDD<?>, RDDPositionalIndex> cache = Collections.synchronizedMap(new WeakHashMap<>());
+
+    // the number of items in the partitions before each partition, followed by the total number of items.
+    private final long[] offsets;
+
+    private RDDPositionalIndex(long[] offsets) {
+        this.offsets = offsets;
+    }
+
+    /**
+     * Gets the positional index of an RDD, counting the items of its partitions if they have not been counted yet.
+     *
+     * @param rdd the RDD.
+     * @return its positional index.
+     */
+    public static RDDPositionalIndex of(JavaRDD<?> rdd) {
+        RDDPositionalIndex index = cache.get(rdd.rdd());
+        if (index == null) {
+            index = new RDDPositionalIndex(countPartitions(rdd));
+            cache.put(rdd.rdd(), index);
+        }
+        return index;
+    }
+
+    private static <T> long[] countPartitions(JavaRDD<T> rdd) {
+        List<Long> counts = rdd.mapPartitions(iterator -> {
+            long count = 0;
+            while (iterator.hasNext()) {
+                iterator.next();
+                ++count;
+            }
+            return Collections.singletonList(count).iterator();
+        }).collect();
+        long[] offsets = new long[counts.size() + 1];
+        for (int i = 0; i < counts.size(); ++i) {
+            offsets[i + 1] = offsets[i] + counts.get(i);
+        }
+        return offsets;
+    }
+
+    /**
+     * Gets the number of items of the RDD.
+     *
+     * @return the number of items.
+     */
+    public long getCount() {
+        return this.offsets[this.offsets.length - 1];
+    }
+
+    /**
+     * Gets the items of the RDD between two positions, counted from 0. The partitions that contain none of them are
+     * pruned from the result, so that they are not computed at all.
+     *
+     * @param rdd the RDD, which must be the one that was indexed.
+     * @param from the position of the first item (included).
+     * @param to the position of the last item (excluded), or Long.MAX_VALUE for all remaining items.
+     * @param <T> the type of the items.
+     * @return the items between the two positions.
+     */
+    public <T> JavaRDD<T> getRange(JavaRDD<T> rdd, long from, long to) {
+        int numberOfPartitions = this.offsets.length - 1;
+        int first = -1;
+        int last = -1;
+        for (int i = 0; i < numberOfPartitions; ++i) {
+            if (this.offsets[i] < this.offsets[i + 1] && this.offsets[i] < to && this.offsets[i + 1] > from) {
+                if (first == -1) {
+                    first = i;
+                }
+                last = i;
+            }
+        }
+        if (first == -1 || from >= to) {
+            return SparkSessionManager.getInstance().getJavaSparkContext().emptyRDD();
+        }
+        if (from <= 0 && to >= getCount()) {
+            return rdd;
+        }
+        long[] offsets = Arrays.copyOfRange(this.offsets, first, last + 1);
+        JavaRDD<T> prunedRDD = JavaRDD.fromRDD(
+            PartitionPruningRDD.create(rdd.rdd(), new PartitionRange(first, last)),
+            rdd.classTag()
+        );
+        return prunedRDD.mapPartitionsWithIndex(new SliceClosure<>(offsets, from, to), true);
+    }
+
+    /**
+     * Pairs the items of the RDD with their positions, counted from 0, like JavaRDD.zipWithIndex() but without
+     * another job to count the items of the partitions.
+     *
+     * @param rdd the RDD, which must be the one that was indexed.
+     * @param <T> the type of the items.
+     * @return the items with their positions.
+     */
+    public <T> JavaPairRDD<T, Long> zipWithIndex(JavaRDD<T> rdd) {
+        JavaRDD<Tuple2<T, Long>> zippedRDD = rdd.mapPartitionsWithIndex(new ZipClosure<>(this.offsets), true);
+        return JavaPairRDD.fromJavaRDD(zippedRDD);
+    }
+
+    // closures are static classes so that they do not capture the (non serializable) index.
+    private static class SliceClosure<T> implements Function2<Integer, Iterator<T>, Iterator<T>> {
+
+        private static final long serialVersionUID = 1L;
+        private final long[] offsets;
+        private final long from;
+        private final long to;
+
+        private SliceClosure(long[] offsets, long from, long to) {
+            this.offsets = offsets;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        public Iterator<T> call(Integer index, Iterator<T> iterator) {
+            long start = this.from - this.offsets[index];
+            long end = this.to - this.offsets[index];
+            long skipped = 0;
+            while (skipped < start && iterator.hasNext()) {
+                iterator.next();
+                ++skipped;
+            }
+            long first = skipped;
+            return new Iterator<T>() {
+                private long position = first;
+
+                @Override
+                public boolean hasNext() {
+                    return this.position < end && iterator.hasNext();
+                }
+
+                @Override
+                public T next() {
+                    ++this.position;
+                    return iterator.next();
+                }
+            };
+        }
+    }
+
+    private static class ZipClosure<T> implements Function2<Integer, Iterator<T>, Iterator<Tuple2<T, Long>>> {
+
+        private static final long serialVersionUID = 1L;
+        private final long[] offsets;
+
+        private ZipClosure(long[] offsets) {
+            this.offsets = offsets;
+        }
+
+        @Override
+        public Iterator<Tuple2<T, Long>> call(Integer index, Iterator<T> iterator) {
+            long start = this.offsets[index];
+            return new Iterator<Tuple2<T, Long>>() {
+                private long position = start;
+
+                @Override
+                public boolean hasNext() {
+                    return iterator.hasNext();
+                }
+
+                @Override
+                public Tuple2<T, Long> next() {
+                    return new Tuple2<>(iterator.next(), this.position++);
+                }
+            };
+        }
+    }
+
+    private static class PartitionRange extends AbstractFunction1<Object, Object> implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+        private final int first;
+        private final int last;
+
+        private PartitionRange(int first, int last) {
+            this.first = first;
+            this.last = last;
+        }
+
+        @Override
+        public Object apply(Object index) {
+            int partition = (Integer) index;
+            return partition >= this.first && partition <= this.last;
+        }
+    }
+}
@@ -34,6 +34,8 @@ import org.apache.spark.sql.types.FloatType;
 import org.apache.spark.sql.types.StructField;
 import org.apache.spark.sql.types.StructType;
 import org.rumbledb.api.Item;
+import org.rumbledb.config.RumbleRuntimeConfiguration;
+import org.rumbledb.config.RumbleRuntimeConfiguration.MaterializationCountMode;
 import org.rumbledb.context.DynamicContext;
 import org.rumbledb.context.FunctionIdentifier;
 import org.rumbledb.context.Name;
@@ -57,6 +59,7 @@ import org.rumbledb.items.FunctionItem;
 import org.rumbledb.items.HexBinaryItem;
 import org.rumbledb.items.IntItem;
 import org.rumbledb.items.IntegerItem;
+import org.rumbledb.items.LongIntegerItem;
 import org.rumbledb.items.NullItem;
 import org.rumbledb.items.ObjectItem;
 import org.rumbledb.items.StringItem;
@@ -69,14 +72,15 @@ import org.rumbledb.types.SequenceType;
 
 import sparksoniq.jsoniq.tuple.FlworKey;
 import sparksoniq.jsoniq.tuple.FlworTuple;
+import scala.Tuple2;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
-import java.util.stream.Collectors;
 
 public class SparkSessionManager {
 
     private static final String APP_NAME = "Rumble application";
-    public static int COLLECT_ITEM_LIMIT = 0;
     private static SparkSessionManager instance;
     private static Level LOG_LEVEL = Level.FATAL;
     private SparkConf configuration;
@@ -93,18 +97,14 @@ public class SparkSessionManager {
     private SparkSessionManager() {
     }
 
-    public static boolean LIMIT_COLLECT() {
-        return COLLECT_ITEM_LIMIT > 0;
-    }
-
-    public static SparkSessionManager getInstance() {
+    public static synchronized SparkSessionManager getInstance() {
         if (instance == null) {
             instance = new SparkSessionManager();
         }
         return instance;
     }
 
-    public SparkSession getOrCreateSession() {
+    public synchronized SparkSession getOrCreateSession() {
         if (this.configuration == null) {
             setDefaultConfiguration();
         }
@@ -171,6 +171,7 @@ public class SparkSessionManager {
                 HexBinaryItem.class,
                 IntegerItem.class,
                 IntItem.class,
+                LongIntegerItem.class,
                 NullItem.class,
                 StringItem.class,
                 TimeItem.class,
@@ -213,7 +214,7 @@ public class SparkSessionManager {
         initializeSession();
     }
 
-    public JavaSparkContext getJavaSparkContext() {
+    public synchronized JavaSparkContext getJavaSparkContext() {
         if (this.configuration == null) {
             setDefaultConfiguration();
         }
@@ -226,16 +227,21 @@ public class SparkSessionManager {
         return this.javaSparkContext;
     }
 
-    public static <T> List<T> collectRDDwithLimit(JavaRDD<T> rdd, ExceptionMetadata metadata) {
-        if (SparkSessionManager.LIMIT_COLLECT()) {
-            List<T> result = rdd.take(SparkSessionManager.COLLECT_ITEM_LIMIT + 1);
-            if (result.size() == SparkSessionManager.COLLECT_ITEM_LIMIT + 1) {
-                long count = rdd.count();
+    public static <T> List<T> collectRDDwithLimit(
+            JavaRDD<T> rdd,
+            RumbleRuntimeConfiguration configuration,
+            ExceptionMetadata metadata
+    ) {
+        int limit = configuration.getResultSizeCap();
+        if (limit > 0) {
+            List<T> result = new ArrayList<>();
+            long count = takeWithLimit(rdd, limit, configuration.getMaterializationCountMode(), result);
+            if (count != -1) {
                 throw new CannotMaterializeException(
                         "Cannot materialize a sequence of "
-                            + count
+                            + (count == Long.MAX_VALUE ? "more than " + limit : String.valueOf(count))
                             + " items because the limit is set to "
-                            + SparkSessionManager.COLLECT_ITEM_LIMIT
+                            + limit
                             + ". This value can be configured with the --materialization-cap parameter at startup",
                         metadata
                 );
@@ -246,22 +252,97 @@ public class SparkSessionManager {
         }
     }
 
-    public static <T> long collectRDDwithLimitWarningOnly(JavaRDD<T> rdd, List<T> outputList) {
+    public static <T> long collectRDDwithLimitWarningOnly(
+            JavaRDD<T> rdd,
+            RumbleRuntimeConfiguration configuration,
+            List<T> outputList
+    ) {
         outputList.clear();
-        long count = -1;
-        if (SparkSessionManager.LIMIT_COLLECT()) {
-            List<T> result = rdd.take(SparkSessionManager.COLLECT_ITEM_LIMIT + 1);
-            if (result.size() == SparkSessionManager.COLLECT_ITEM_LIMIT + 1) {
-                count = rdd.count();
+        int limit = configuration.getResultSizeCap();
+        if (limit > 0) {
+            long count = takeWithLimit(rdd, limit, configuration.getMaterializationCountMode(), outputList);
+            if (count != -1) {
+                outputList.subList(limit, outputList.size()).clear();
             }
-            result.stream()
-                .limit(SparkSessionManager.COLLECT_ITEM_LIMIT)
-                .collect(Collectors.toCollection(() -> outputList));
             return count;
         } else {
             outputList.addAll(rdd.collect());
-            return count;
+            return -1;
+        }
+    }
+
+    /**
+     * Takes the first limit + 1 items of an RDD, and counts it if there are more than limit, as specified by the
+     * count mode.
+     *
+     * @param rdd the RDD.
+     * @param limit the materialization cap.
+     * @param mode how to count the RDD if it exceeds the cap.
+     * @param outputList the list to which the items are added.
+     * @return -1 if the RDD does not exceed the limit, its number of items if it does, or Long.MAX_VALUE if it does
+     *         and was not counted.
+     */
+    private static <T> long takeWithLimit(
+            JavaRDD<T> rdd,
+            int limit,
+            MaterializationCountMode mode,
+            List<T> outputList
+    ) {
+        if (mode == MaterializationCountMode.SINGLE_PASS) {
+            // as with take, partitions are scanned in batches of growing size, and each partition of a batch returns
+            // its count and at most the items still missing from the first limit + 1. Once these are all taken, the
+            // remaining partitions are counted in one last batch. Partitions outside of a batch are not iterated, so
+            // that each of them is still computed only once.
+            int numberOfPartitions = rdd.getNumPartitions();
+            long count = 0;
+            int scannedPartitions = 0;
+            int batchSize = 1;
+            while (scannedPartitions < numberOfPartitions) {
+                int missingItems = limit + 1 - outputList.size();
+                int from = scannedPartitions;
+                int to = missingItems > 0
+                    ? Math.min(scannedPartitions + batchSize, numberOfPartitions)
+                    : numberOfPartitions;
+                List<Tuple2<Long, List<T>>> partitionResults = rdd.mapPartitionsWithIndex(
+                    (index, iterator) -> {
+                        if (index < from || index >= to) {
+                            return Collections.<Tuple2<Long, List<T>>>emptyIterator();
+                        }
+                        List<T> head = new ArrayList<>();
+                        long partitionCount = 0;
+                        while (iterator.hasNext()) {
+                            T item = iterator.next();
+                            if (head.size() < missingItems) {
+                                head.add(item);
+                            }
+                            ++partitionCount;
+                        }
+                        return Collections.singletonList(new Tuple2<>(partitionCount, head)).iterator();
+                    },
+                    true
+                ).collect();
+                for (Tuple2<Long, List<T>> partitionResult : partitionResults) {
+                    count += partitionResult._1();
+                    for (T item : partitionResult._2()) {
+                        if (outputList.size() > limit) {
+                            break;
+                        }
+                        outputList.add(item);
+                    }
+                }
+                scannedPartitions = to;
+                batchSize *= 4;
+            }
+            return count > limit ? count : -1;
+        }
+        outputList.addAll(rdd.take(limit + 1));
+        if (outputList.size() <= limit) {
+            return -1;
+        }
+        if (mode == MaterializationCountMode.NONE) {
+            return Long.MAX_VALUE;
         }
+        return rdd.count();
     }
 
 }
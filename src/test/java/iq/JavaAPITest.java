@@ -28,10 +28,18 @@ import org.junit.Test;
 import org.rumbledb.api.Item;
 import org.rumbledb.api.Rumble;
 import org.rumbledb.api.SequenceOfItems;
+import org.rumbledb.compiler.CompiledQueryCache;
 import org.rumbledb.config.RumbleRuntimeConfiguration;
 
 import sparksoniq.spark.SparkSessionManager;
 
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
 import java.util.List;
 
 public class JavaAPITest {
@@ -122,4 +130,130 @@ public class JavaAPITest {
             Assert.assertTrue(value.getIntValue() == i);
         }
     }
+
+    @Test(timeout = 1000000)
+    public void testLocalExecutionThreshold() throws Throwable {
+        File file = File.createTempFile("rumble-local-execution-", ".json");
+        file.deleteOnExit();
+        Files.write(file.toPath(), "{ \"foo\" : 1 }\n{ \"foo\" : 2 }\n".getBytes(StandardCharsets.UTF_8));
+        RumbleRuntimeConfiguration configuration = new RumbleRuntimeConfiguration(
+                new String[] { "--local-execution-threshold", "1000", "--print-iterator-tree", "yes" }
+        );
+        Rumble rumble = new Rumble(configuration, new CompiledQueryCache(10));
+        String query = "for $x in json-file(\"" + file.toURI() + "\") return $x.foo";
+
+        // the file is under the threshold: json-file() runs locally, which shows in the iterator tree.
+        PrintStream standardError = System.err;
+        ByteArrayOutputStream tree = new ByteArrayOutputStream();
+        SequenceOfItems sequence;
+        try {
+            System.setErr(new PrintStream(tree, true, "UTF-8"));
+            sequence = rumble.runQuery(query);
+        } finally {
+            System.setErr(standardError);
+        }
+        String jsonFileLine = null;
+        for (String line : tree.toString("UTF-8").split("\n")) {
+            if (line.contains("FunctionCallExpression") && line.contains("json-file#1")) {
+                jsonFileLine = line;
+            }
+        }
+        Assert.assertNotNull(jsonFileLine);
+        Assert.assertTrue(jsonFileLine.contains("| local |"));
+        Assert.assertTrue(!sequence.availableAsRDD());
+        List<Item> items = new ArrayList<>();
+        sequence.populateList(items);
+        Assert.assertEquals(2, items.size());
+        sequence.releaseResources();
+
+        // the file grows beyond the threshold: the compiled query is not reused, and json-file() runs in parallel.
+        StringBuilder lines = new StringBuilder();
+        for (int i = 3; i <= 100; ++i) {
+            lines.append("{ \"foo\" : ").append(i).append(" }\n");
+        }
+        Files.write(file.toPath(), lines.toString().getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+        sequence = rumble.runQuery(query);
+        Assert.assertEquals(2, rumble.getQueryCache().getMisses());
+        Assert.assertEquals(0, rumble.getQueryCache().getHits());
+        Assert.assertTrue(sequence.availableAsRDD());
+        Assert.assertEquals(100, sequence.getAsRDD().count());
+        sequence.releaseResources();
+
+        // the file is unchanged: the compiled query is reused.
+        sequence = rumble.runQuery(query);
+        Assert.assertEquals(1, rumble.getQueryCache().getHits());
+        Assert.assertTrue(sequence.availableAsRDD());
+        sequence.releaseResources();
+    }
+
+    @Test(timeout = 1000000)
+    public void testJSONProjectionPushdown() throws Throwable {
+        File file = File.createTempFile("rumble-projection-", ".json");
+        file.deleteOnExit();
+        Files.write(
+            file.toPath(),
+            "{ \"foo\" : 1, \"bar\" : { \"baz\" : 2, \"qux\" : 3 } }\n".getBytes(StandardCharsets.UTF_8)
+        );
+        RumbleRuntimeConfiguration configuration = new RumbleRuntimeConfiguration(
+                new String[] { "--print-iterator-tree", "yes" }
+        );
+        Rumble rumble = new Rumble(configuration);
+        String query = "for $x in json-file(\"" + file.toURI() + "\") return $x.bar.baz";
+
+        // only the paths used by the FLWOR expression are parsed, which shows in the expression tree.
+        PrintStream standardError = System.err;
+        ByteArrayOutputStream tree = new ByteArrayOutputStream();
+        List<Item> items = new ArrayList<>();
+        try {
+            System.setErr(new PrintStream(tree, true, "UTF-8"));
+            SequenceOfItems sequence = rumble.runQuery(query);
+            sequence.populateList(items);
+            sequence.releaseResources();
+        } finally {
+            System.setErr(standardError);
+        }
+        String jsonFileLine = null;
+        for (String line : tree.toString("UTF-8").split("\n")) {
+            if (line.contains("FunctionCallExpression") && line.contains("json-file#1")) {
+                jsonFileLine = line;
+            }
+        }
+        Assert.assertNotNull(jsonFileLine);
+        Assert.assertTrue(jsonFileLine.contains(" | projection: {bar{baz}}"));
+        Assert.assertEquals(1, items.size());
+        Assert.assertEquals(2, items.get(0).getIntValue());
+    }
+
+    @Test(timeout = 1000000)
+    public void testQueryCacheWithModules() throws Throwable {
+        File directory = Files.createTempDirectory("rumble-modules-").toFile();
+        directory.deleteOnExit();
+        File module = new File(directory, "lib.jq");
+        module.deleteOnExit();
+        String moduleText = "module namespace lib = \"lib.jq\"; declare function lib:f() { %d };";
+        Files.write(module.toPath(), String.format(moduleText, 1).getBytes(StandardCharsets.UTF_8));
+        Rumble rumble = new Rumble(RumbleRuntimeConfiguration.getDefaultConfiguration(), new CompiledQueryCache(10));
+        String query = "import module namespace lib = \"" + module.toURI() + "\"; lib:f()";
+
+        Assert.assertEquals(1, runSingleItem(rumble, query).getIntValue());
+        Assert.assertEquals(1, runSingleItem(rumble, query).getIntValue());
+        Assert.assertEquals(1, rumble.getQueryCache().getHits());
+
+        // the module changes: the query is compiled again against the new module.
+        long modificationTime = module.lastModified();
+        Files.write(module.toPath(), String.format(moduleText, 2).getBytes(StandardCharsets.UTF_8));
+        Assert.assertTrue(module.setLastModified(modificationTime + 10000));
+        Assert.assertEquals(2, runSingleItem(rumble, query).getIntValue());
+        Assert.assertEquals(2, rumble.getQueryCache().getMisses());
+        Assert.assertEquals(1, rumble.getQueryCache().getHits());
+    }
+
+    private static Item runSingleItem(Rumble rumble, String query) {
+        SequenceOfItems sequence = rumble.runQuery(query);
+        List<Item> items = new ArrayList<>();
+        sequence.populateList(items);
+        sequence.releaseResources();
+        Assert.assertEquals(1, items.size());
+        return items.get(0);
+    }
 }
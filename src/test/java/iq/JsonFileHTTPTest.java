@@ -0,0 +1,186 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Authors: Stefan Irimescu, Can Berker Cikis
+ *
+ */
+
+package iq;
+
+import org.apache.spark.SparkConf;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.rumbledb.api.Item;
+import org.rumbledb.api.Rumble;
+import org.rumbledb.api.SequenceOfItems;
+import org.rumbledb.config.RumbleRuntimeConfiguration;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import sparksoniq.spark.SparkSessionManager;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Reads json-file() over http from an in-process server, which either serves byte ranges or only whole bodies.
+ */
+@SuppressWarnings("restriction")
+public class JsonFileHTTPTest {
+
+    private static final byte[] body = createBody();
+
+    public JsonFileHTTPTest() {
+    }
+
+    @BeforeClass
+    public static void setupSparkSession() {
+        SparkConf sparkConfiguration = new SparkConf();
+        sparkConfiguration.setMaster("local[*]");
+        sparkConfiguration.set("spark.submit.deployMode", "client");
+        sparkConfiguration.set("spark.executor.extraClassPath", "lib/");
+        sparkConfiguration.set("spark.driver.extraClassPath", "lib/");
+        sparkConfiguration.set("spark.driver.host", "127.0.0.1");
+        sparkConfiguration.set("spark.driver.bindAddress", "127.0.0.1");
+        SparkSessionManager.getInstance().initializeConfigurationAndSession(sparkConfiguration, true);
+    }
+
+    private static byte[] createBody() {
+        StringBuilder lines = new StringBuilder();
+        for (int i = 1; i <= 100; ++i) {
+            // lines of varying lengths, so that they cross range boundaries.
+            lines.append("{ \"id\" : ").append(i).append(", \"title\" : \"");
+            for (int j = 0; j < i % 17; ++j) {
+                lines.append("é");
+            }
+            lines.append("\" }\n");
+        }
+        return lines.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Test(timeout = 1000000)
+    public void testRanges() throws Throwable {
+        AtomicInteger rangedRequests = new AtomicInteger();
+        HttpServer server = startServer(true, rangedRequests);
+        try {
+            Set<File> temporaryFiles = listTemporaryFiles();
+            SequenceOfItems sequence = runQuery(server);
+            Assert.assertEquals(Arrays.asList(100L, 5050L, 100L), getResults(sequence));
+            // one range of each partition but the first one is requested with a Range header.
+            Assert.assertTrue(rangedRequests.get() >= 6);
+            Assert.assertEquals(temporaryFiles, listTemporaryFiles());
+            sequence.releaseResources();
+        } finally {
+            server.stop(0);
+        }
+    }
+
+    @Test(timeout = 1000000)
+    public void testNoRanges() throws Throwable {
+        AtomicInteger rangedRequests = new AtomicInteger();
+        HttpServer server = startServer(false, rangedRequests);
+        try {
+            Set<File> temporaryFiles = listTemporaryFiles();
+            SequenceOfItems sequence = runQuery(server);
+            Assert.assertEquals(Arrays.asList(100L, 5050L, 100L), getResults(sequence));
+            Assert.assertEquals(0, rangedRequests.get());
+            // the body is downloaded to temporary files, which are deleted with the resources of the query.
+            Assert.assertTrue(listTemporaryFiles().size() > temporaryFiles.size());
+            sequence.releaseResources();
+            Assert.assertEquals(temporaryFiles, listTemporaryFiles());
+        } finally {
+            server.stop(0);
+        }
+    }
+
+    private static SequenceOfItems runQuery(HttpServer server) {
+        String url = "http://127.0.0.1:" + server.getAddress().getPort() + "/data.json";
+        Rumble rumble = new Rumble(RumbleRuntimeConfiguration.getDefaultConfiguration());
+        return rumble.runQuery(
+            "let $values := json-file(\""
+                + url
+                + "\", 7) "
+                + "return (count($values), sum($values.id), count(distinct-values($values.id)))"
+        );
+    }
+
+    private static List<Long> getResults(SequenceOfItems sequence) {
+        List<Item> items = new ArrayList<>();
+        sequence.populateList(items);
+        List<Long> result = new ArrayList<>();
+        for (Item item : items) {
+            result.add(item.castToIntegerValue().longValue());
+        }
+        return result;
+    }
+
+    private static Set<File> listTemporaryFiles() {
+        File[] files = new File(System.getProperty("java.io.tmpdir")).listFiles(
+            (directory, name) -> name.startsWith("rumble-json-file-")
+        );
+        return files == null ? new HashSet<>() : new HashSet<>(Arrays.asList(files));
+    }
+
+    private static HttpServer startServer(boolean acceptsRanges, AtomicInteger rangedRequests) throws IOException {
+        HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/data.json").setHandler(exchange -> serve(exchange, acceptsRanges, rangedRequests));
+        server.start();
+        return server;
+    }
+
+    private static void serve(HttpExchange exchange, boolean acceptsRanges, AtomicInteger rangedRequests)
+            throws IOException {
+        if (acceptsRanges) {
+            exchange.getResponseHeaders().set("Accept-Ranges", "bytes");
+        }
+        if (exchange.getRequestMethod().equals("HEAD")) {
+            exchange.getResponseHeaders().set("Content-Length", Integer.toString(body.length));
+            exchange.sendResponseHeaders(200, -1);
+            exchange.close();
+            return;
+        }
+        String range = exchange.getRequestHeaders().getFirst("Range");
+        int offset = 0;
+        if (range != null) {
+            rangedRequests.incrementAndGet();
+        }
+        if (acceptsRanges && range != null) {
+            offset = Integer.parseInt(range.substring("bytes=".length(), range.indexOf('-')));
+            exchange.getResponseHeaders()
+                .set("Content-Range", "bytes " + offset + "-" + (body.length - 1) + "/" + body.length);
+            exchange.sendResponseHeaders(206, body.length - offset);
+        } else {
+            exchange.sendResponseHeaders(200, body.length);
+        }
+        try (OutputStream stream = exchange.getResponseBody()) {
+            stream.write(body, offset, body.length - offset);
+        } catch (IOException e) {
+            // ranges are read up to their end only, after which the client aborts the response.
+        }
+        exchange.close();
+    }
+}
@@ -0,0 +1,143 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Authors: Stefan Irimescu, Can Berker Cikis
+ *
+ */
+
+package iq;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.spark.SparkConf;
+import org.apache.spark.sql.Dataset;
+import org.apache.spark.sql.Row;
+import org.apache.spark.sql.SparkSession;
+import org.apache.spark.storage.StorageLevel;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.rumbledb.api.Rumble;
+import org.rumbledb.api.SequenceOfItems;
+import org.rumbledb.config.RumbleRuntimeConfiguration;
+import org.rumbledb.runtime.flwor.FlworDataFrameUtils;
+import org.rumbledb.server.SparkResourcesHandler;
+
+import com.sun.net.httpserver.HttpServer;
+
+import sparksoniq.spark.QueryResources;
+import sparksoniq.spark.SparkSessionManager;
+
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+@SuppressWarnings("restriction")
+public class QueryResourcesTest {
+
+    public QueryResourcesTest() {
+    }
+
+    @BeforeClass
+    public static void setupSparkSession() {
+        SparkConf sparkConfiguration = new SparkConf();
+        sparkConfiguration.setMaster("local[*]");
+        sparkConfiguration.set("spark.submit.deployMode", "client");
+        sparkConfiguration.set("spark.executor.extraClassPath", "lib/");
+        sparkConfiguration.set("spark.driver.extraClassPath", "lib/");
+        sparkConfiguration.set("spark.driver.host", "127.0.0.1");
+        sparkConfiguration.set("spark.driver.bindAddress", "127.0.0.1");
+        SparkSessionManager.getInstance().initializeConfigurationAndSession(sparkConfiguration, true);
+    }
+
+    @Test(timeout = 1000000)
+    public void testRelease() throws Throwable {
+        SparkSession session = SparkSessionManager.getInstance().getOrCreateSession();
+        QueryResources resources = new QueryResources();
+        resources.bind();
+        Dataset<Row> dataFrame = session.range(100).toDF();
+        String view = FlworDataFrameUtils.createTempView(dataFrame);
+        Dataset<Row> cached = session.table(view).cache();
+        QueryResources.registerPersistedDataset(cached);
+        Assert.assertEquals(100, cached.count());
+        Assert.assertTrue(session.catalog().tableExists(view));
+        Assert.assertNotEquals(StorageLevel.NONE(), cached.storageLevel());
+
+        resources.release();
+        Assert.assertFalse(session.catalog().tableExists(view));
+        Assert.assertEquals(StorageLevel.NONE(), cached.storageLevel());
+
+        // resources created once released are no longer attributed to the query.
+        String otherView = FlworDataFrameUtils.createTempView(dataFrame);
+        resources.release();
+        Assert.assertTrue(session.catalog().tableExists(otherView));
+        session.catalog().dropTempView(otherView);
+    }
+
+    @Test(timeout = 1000000)
+    public void testReleaseQuery() throws Throwable {
+        long temporaryViews = QueryResources.getNumberOfTemporaryViews();
+        Rumble rumble = new Rumble(RumbleRuntimeConfiguration.getDefaultConfiguration());
+        // the order by clause creates a view over its input.
+        SequenceOfItems sequence = rumble.runQuery(
+            "for $i in parallelize(1 to 100) order by $i descending return $i"
+        );
+        Assert.assertTrue(sequence.availableAsRDD());
+        Assert.assertEquals(100, sequence.getAsRDD().count());
+        Assert.assertTrue(QueryResources.getNumberOfTemporaryViews() > temporaryViews);
+
+        sequence.releaseResources();
+        Assert.assertEquals(temporaryViews, QueryResources.getNumberOfTemporaryViews());
+    }
+
+    @Test(timeout = 1000000)
+    public void testSparkResourcesHandler() throws Throwable {
+        SparkSession session = SparkSessionManager.getInstance().getOrCreateSession();
+        QueryResources resources = new QueryResources();
+        resources.bind();
+        FlworDataFrameUtils.createTempView(session.range(10).toDF());
+
+        HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/spark-resources").setHandler(new SparkResourcesHandler());
+        server.start();
+        try {
+            Assert.assertEquals(QueryResources.getNumberOfTemporaryViews(), getTemporaryViews(server));
+            long temporaryViews = QueryResources.getNumberOfTemporaryViews();
+            resources.release();
+            Assert.assertEquals(temporaryViews - 1, getTemporaryViews(server));
+        } finally {
+            server.stop(0);
+        }
+    }
+
+    private static long getTemporaryViews(HttpServer server) throws Throwable {
+        URL url = new URL("http://127.0.0.1:" + server.getAddress().getPort() + "/spark-resources");
+        HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+        Assert.assertEquals(200, connection.getResponseCode());
+        Assert.assertEquals("application/json", connection.getContentType());
+        String response;
+        try (InputStream stream = connection.getInputStream()) {
+            response = IOUtils.toString(stream, StandardCharsets.UTF_8);
+        }
+        Assert.assertTrue(Pattern.compile("\"cached-bytes\" *: *[0-9]+").matcher(response).find());
+        Matcher matcher = Pattern.compile("\"temporary-views\" *: *([0-9]+)").matcher(response);
+        Assert.assertTrue(matcher.find());
+        return Long.parseLong(matcher.group(1));
+    }
+}